@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.trace;
+
+import io.opentelemetry.internal.Utils;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A typed attribute key that is registered once, usually as a {@code static final} constant, and
+ * then used to set attributes with {@link Span#setAttribute(AttributeKey, String)} and the other
+ * typed overloads.
+ *
+ * <p>There is a single {@code AttributeKey} per name in the process: registering the same name
+ * twice returns the same instance, and registering it with a different type fails. Every key is
+ * given a small, dense index when it is registered, so implementations can store the values of
+ * registered keys in arrays instead of looking the name up on every call.
+ *
+ * @param <T> the type of the values recorded with this key.
+ * @since 0.2.0
+ */
+@Immutable
+public final class AttributeKey<T> {
+  private static final Object lock = new Object();
+
+  @GuardedBy("lock")
+  private static final Map<String, AttributeKey<?>> registeredKeys = new HashMap<>();
+
+  private final String name;
+  private final AttributeValue.Type type;
+  private final int index;
+
+  /**
+   * Returns the key for {@code String} attributes with the given name, registering it if needed.
+   *
+   * @param name the name of the attribute.
+   * @return the key for {@code String} attributes with the given name.
+   * @throws NullPointerException if {@code name} is {@code null}.
+   * @throws IllegalArgumentException if the name is already registered with a different type.
+   * @since 0.2.0
+   */
+  public static AttributeKey<String> stringKey(String name) {
+    return register(name, AttributeValue.Type.STRING);
+  }
+
+  /**
+   * Returns the key for {@code long} attributes with the given name, registering it if needed.
+   *
+   * @param name the name of the attribute.
+   * @return the key for {@code long} attributes with the given name.
+   * @throws NullPointerException if {@code name} is {@code null}.
+   * @throws IllegalArgumentException if the name is already registered with a different type.
+   * @since 0.2.0
+   */
+  public static AttributeKey<Long> longKey(String name) {
+    return register(name, AttributeValue.Type.LONG);
+  }
+
+  /**
+   * Returns the key for {@code double} attributes with the given name, registering it if needed.
+   *
+   * @param name the name of the attribute.
+   * @return the key for {@code double} attributes with the given name.
+   * @throws NullPointerException if {@code name} is {@code null}.
+   * @throws IllegalArgumentException if the name is already registered with a different type.
+   * @since 0.2.0
+   */
+  public static AttributeKey<Double> doubleKey(String name) {
+    return register(name, AttributeValue.Type.DOUBLE);
+  }
+
+  /**
+   * Returns the key for {@code boolean} attributes with the given name, registering it if needed.
+   *
+   * @param name the name of the attribute.
+   * @return the key for {@code boolean} attributes with the given name.
+   * @throws NullPointerException if {@code name} is {@code null}.
+   * @throws IllegalArgumentException if the name is already registered with a different type.
+   * @since 0.2.0
+   */
+  public static AttributeKey<Boolean> booleanKey(String name) {
+    return register(name, AttributeValue.Type.BOOLEAN);
+  }
+
+  // Registration is expected to happen once per key, usually in static initializers, so a lock is
+  // simpler than a concurrent map and never wastes an index.
+  @SuppressWarnings("unchecked")
+  private static <T> AttributeKey<T> register(String name, AttributeValue.Type type) {
+    Utils.checkNotNull(name, "name");
+    synchronized (lock) {
+      AttributeKey<?> key = registeredKeys.get(name);
+      if (key == null) {
+        key = new AttributeKey<>(name, type, registeredKeys.size());
+        registeredKeys.put(name, key);
+      }
+      Utils.checkArgument(
+          key.type == type, "Attribute key already registered with a different type");
+      return (AttributeKey<T>) key;
+    }
+  }
+
+  private AttributeKey(String name, AttributeValue.Type type, int index) {
+    this.name = name;
+    this.type = type;
+    this.index = index;
+  }
+
+  /**
+   * Returns the name of the attribute.
+   *
+   * @return the name of the attribute.
+   * @since 0.2.0
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the type of the values recorded with this key.
+   *
+   * @return the type of the values recorded with this key.
+   * @since 0.2.0
+   */
+  public AttributeValue.Type getType() {
+    return type;
+  }
+
+  /**
+   * Returns the index of this key. Indexes are assigned in registration order starting from 0, so
+   * they are small enough to be used as array indexes.
+   *
+   * @return the index of this key.
+   * @since 0.2.0
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  @Override
+  public String toString() {
+    return "AttributeKey{name=" + name + ", type=" + type + "}";
+  }
+}
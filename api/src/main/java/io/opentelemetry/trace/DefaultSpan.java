@@ -98,6 +98,38 @@ public final class DefaultSpan implements Span {
     Utils.checkNotNull(value, "value");
   }
 
+  @Override
+  public void setAttributes(Map<String, AttributeValue> attributes) {
+    Utils.checkNotNull(attributes, "attributes");
+  }
+
+  @Override
+  public void setAttribute(AttributeKey<String> key, String value) {
+    Utils.checkNotNull(key, "key");
+    Utils.checkNotNull(value, "value");
+  }
+
+  @Override
+  public void setAttribute(AttributeKey<Long> key, long value) {
+    Utils.checkNotNull(key, "key");
+  }
+
+  @Override
+  public void setAttribute(AttributeKey<Double> key, double value) {
+    Utils.checkNotNull(key, "key");
+  }
+
+  @Override
+  public void setAttribute(AttributeKey<Boolean> key, boolean value) {
+    Utils.checkNotNull(key, "key");
+  }
+
+  @Override
+  public void setAttribute(String key, ValueSupplier<AttributeValue> valueSupplier) {
+    Utils.checkNotNull(key, "key");
+    Utils.checkNotNull(valueSupplier, "valueSupplier");
+  }
+
   @Override
   public void addEvent(String name) {}
 
@@ -113,6 +145,13 @@ public final class DefaultSpan implements Span {
     Utils.checkNotNull(attributes, "attributes");
   }
 
+  @Override
+  public void addEvent(
+      String name, ValueSupplier<Map<String, AttributeValue>> attributesSupplier) {
+    Utils.checkNotNull(name, "name");
+    Utils.checkNotNull(attributesSupplier, "attributesSupplier");
+  }
+
   @Override
   public void addEvent(String name, Map<String, AttributeValue> attributes, long timestamp) {
     Utils.checkNotNull(name, "name");
@@ -131,6 +131,12 @@ public final class DefaultTracer implements Tracer {
       return this;
     }
 
+    @Override
+    public NoopSpanBuilder setAttributes(Map<String, AttributeValue> attributes) {
+      Utils.checkNotNull(attributes, "attributes");
+      return this;
+    }
+
     @Override
     public NoopSpanBuilder setSpanKind(Span.Kind spanKind) {
       return this;
@@ -127,6 +127,82 @@ public interface Span {
    */
   void setAttribute(String key, AttributeValue value);
 
+  /**
+   * Sets all the given attributes to the {@code Span}. If the {@code Span} previously contained a
+   * mapping for any of the keys, the old value is replaced by the specified value.
+   *
+   * <p>This is equivalent to calling {@link #setAttribute(String, AttributeValue)} for every entry,
+   * in the iteration order of the map, but implementations can apply them all at once.
+   *
+   * @param attributes the attributes to set.
+   * @since 0.2.0
+   */
+  void setAttributes(Map<String, AttributeValue> attributes);
+
+  /**
+   * Sets an attribute to the {@code Span} using a registered {@link AttributeKey}. If the
+   * {@code Span} previously contained a mapping for the name of the key, the old value is replaced
+   * by the specified value.
+   *
+   * @param key the key for this attribute.
+   * @param value the value for this attribute.
+   * @since 0.2.0
+   */
+  void setAttribute(AttributeKey<String> key, String value);
+
+  /**
+   * Sets an attribute to the {@code Span} using a registered {@link AttributeKey}. If the
+   * {@code Span} previously contained a mapping for the name of the key, the old value is replaced
+   * by the specified value.
+   *
+   * @param key the key for this attribute.
+   * @param value the value for this attribute.
+   * @since 0.2.0
+   */
+  void setAttribute(AttributeKey<Long> key, long value);
+
+  /**
+   * Sets an attribute to the {@code Span} using a registered {@link AttributeKey}. If the
+   * {@code Span} previously contained a mapping for the name of the key, the old value is replaced
+   * by the specified value.
+   *
+   * @param key the key for this attribute.
+   * @param value the value for this attribute.
+   * @since 0.2.0
+   */
+  void setAttribute(AttributeKey<Double> key, double value);
+
+  /**
+   * Sets an attribute to the {@code Span} using a registered {@link AttributeKey}. If the
+   * {@code Span} previously contained a mapping for the name of the key, the old value is replaced
+   * by the specified value.
+   *
+   * @param key the key for this attribute.
+   * @param value the value for this attribute.
+   * @since 0.2.0
+   */
+  void setAttribute(AttributeKey<Boolean> key, boolean value);
+
+  /**
+   * Sets an attribute to the {@code Span} whose value is computed only when the data of the {@code
+   * Span} is read, for example to be exported. If the {@code Span} previously contained a mapping
+   * for the key, the old value is replaced by the specified value.
+   *
+   * <p>This is meant for values that are expensive to compute: the supplier is not called if the
+   * {@code Span} does not record events, if the attribute is dropped because of the limit on the
+   * number of attributes, or if the data of the {@code Span} is never read.
+   *
+   * <p>The supplier is called by the thread that reads the data of the {@code Span}, for example a
+   * span processor on the thread that ends the {@code Span} or an exporter on its own thread. It is
+   * not called while the {@code Span} is blocked for the other threads, so it may read the {@code
+   * Span}.
+   *
+   * @param key the key for this attribute.
+   * @param valueSupplier the supplier of the value for this attribute.
+   * @since 0.2.0
+   */
+  void setAttribute(String key, ValueSupplier<AttributeValue> valueSupplier);
+
   /**
    * Adds an event to the {@code Span}.
    *
@@ -159,6 +235,20 @@ public interface Span {
    */
   void addEvent(String name, Map<String, AttributeValue> attributes);
 
+  /**
+   * Adds an event to the {@code Span} whose attributes are computed only if the {@code Span} is
+   * exported.
+   *
+   * <p>This is meant for attributes that are expensive to compute, see {@link
+   * #setAttribute(String, ValueSupplier)}.
+   *
+   * @param name the name of the event.
+   * @param attributesSupplier the supplier of the attributes that will be added; these are
+   *     associated with this event, not the {@code Span} as for {@code setAttribute()}.
+   * @since 0.2.0
+   */
+  void addEvent(String name, ValueSupplier<Map<String, AttributeValue>> attributesSupplier);
+
   /**
    * Adds an event to the {@code Span}.
    *
@@ -448,6 +538,20 @@ public interface Span {
      */
     Builder addLink(Link link);
 
+    /**
+     * Sets attributes to the newly created {@code Span}. If the {@code Span.Builder} previously
+     * contained a mapping for any of the keys, the old value is replaced by the specified value.
+     *
+     * <p>Setting the attributes on the builder instead of on the started {@code Span} lets the
+     * implementation record them together with the span start.
+     *
+     * @param attributes the attributes to set.
+     * @return this.
+     * @throws NullPointerException if {@code attributes} is {@code null}.
+     * @since 0.2.0
+     */
+    Builder setAttributes(Map<String, AttributeValue> attributes);
+
     /**
      * Sets the {@link Span.Kind} for the newly created {@code Span}. If not called, the
      * implementation will provide a default value {@link Span.Kind#INTERNAL}.
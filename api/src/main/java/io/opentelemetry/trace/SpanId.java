@@ -164,6 +164,17 @@ public final class SpanId implements Comparable<SpanId> {
     return id != INVALID_ID;
   }
 
+  /**
+   * Returns the {@code long} representation of this {@code SpanId}, the same value that was given
+   * to {@link #SpanId(long)}.
+   *
+   * @return the {@code long} representation of this {@code SpanId}.
+   * @since 0.2.0
+   */
+  public long getId() {
+    return id;
+  }
+
   /**
    * Returns the lowercase base16 encoding of this {@code SpanId}.
    *
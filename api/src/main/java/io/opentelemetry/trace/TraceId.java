@@ -176,6 +176,28 @@ public final class TraceId implements Comparable<TraceId> {
     return idHi != INVALID_ID || idLo != INVALID_ID;
   }
 
+  /**
+   * Returns the higher part of this {@code TraceId}, the same value that was given as {@code idHi}
+   * to {@link #TraceId(long, long)}.
+   *
+   * @return the higher part of this {@code TraceId}.
+   * @since 0.2.0
+   */
+  public long getIdHi() {
+    return idHi;
+  }
+
+  /**
+   * Returns the lower part of this {@code TraceId}, the same value that was given as {@code idLo}
+   * to {@link #TraceId(long, long)}.
+   *
+   * @return the lower part of this {@code TraceId}.
+   * @since 0.2.0
+   */
+  public long getIdLo() {
+    return idLo;
+  }
+
   /**
    * Returns the lowercase base16 encoding of this {@code TraceId}.
    *
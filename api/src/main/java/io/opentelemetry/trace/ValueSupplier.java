@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.trace;
+
+import javax.annotation.Nullable;
+
+/**
+ * Supplies a value that is expensive to compute, for example an attribute value that requires
+ * formatting, so that it is only computed if it is actually used.
+ *
+ * <p>Implementations may be called after the {@link Span} they were given to ended, and on a
+ * different thread than the one that recorded them, for example the thread that exports the span.
+ * They must not depend on state that changes after they were recorded, and may be called more than
+ * once.
+ *
+ * @param <T> the type of the supplied value.
+ * @since 0.2.0
+ */
+public interface ValueSupplier<T> {
+
+  /**
+   * Returns the value. If {@code null} is returned or an exception is thrown, the value is
+   * dropped.
+   *
+   * @return the value.
+   * @since 0.2.0
+   */
+  @Nullable
+  T get();
+}
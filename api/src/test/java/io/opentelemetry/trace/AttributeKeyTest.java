@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link AttributeKey}. */
+@RunWith(JUnit4.class)
+public class AttributeKeyTest {
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void typedKeys() {
+    AttributeKey<String> stringKey = AttributeKey.stringKey("AttributeKeyTest.string");
+    AttributeKey<Long> longKey = AttributeKey.longKey("AttributeKeyTest.long");
+    AttributeKey<Double> doubleKey = AttributeKey.doubleKey("AttributeKeyTest.double");
+    AttributeKey<Boolean> booleanKey = AttributeKey.booleanKey("AttributeKeyTest.boolean");
+    assertThat(stringKey.getName()).isEqualTo("AttributeKeyTest.string");
+    assertThat(stringKey.getType()).isEqualTo(AttributeValue.Type.STRING);
+    assertThat(longKey.getType()).isEqualTo(AttributeValue.Type.LONG);
+    assertThat(doubleKey.getType()).isEqualTo(AttributeValue.Type.DOUBLE);
+    assertThat(booleanKey.getType()).isEqualTo(AttributeValue.Type.BOOLEAN);
+  }
+
+  @Test
+  public void sameNameReturnsSameKey() {
+    AttributeKey<Long> key = AttributeKey.longKey("AttributeKeyTest.same");
+    assertThat(AttributeKey.longKey("AttributeKeyTest.same")).isSameInstanceAs(key);
+  }
+
+  @Test
+  public void indexesAreDistinct() {
+    AttributeKey<Long> first = AttributeKey.longKey("AttributeKeyTest.first");
+    AttributeKey<Long> second = AttributeKey.longKey("AttributeKeyTest.second");
+    assertThat(first.getIndex()).isAtLeast(0);
+    assertThat(second.getIndex()).isNotEqualTo(first.getIndex());
+  }
+
+  @Test
+  public void sameNameDifferentType() {
+    AttributeKey.longKey("AttributeKeyTest.conflict");
+    thrown.expect(IllegalArgumentException.class);
+    AttributeKey.stringKey("AttributeKeyTest.conflict");
+  }
+
+  @Test
+  public void nullName() {
+    thrown.expect(NullPointerException.class);
+    AttributeKey.stringKey(null);
+  }
+}
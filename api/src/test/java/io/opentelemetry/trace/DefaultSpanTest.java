@@ -53,6 +53,16 @@ public class DefaultSpanTest {
         "MyStringAttributeKey", AttributeValue.stringAttributeValue("MyStringAttributeValue"));
     span.setAttribute("MyBooleanAttributeKey", AttributeValue.booleanAttributeValue(true));
     span.setAttribute("MyLongAttributeKey", AttributeValue.longAttributeValue(123));
+    span.setAttribute(AttributeKey.stringKey("MyStringKey"), "MyStringAttributeValue");
+    span.setAttribute(AttributeKey.longKey("MyLongKey"), 123);
+    span.setAttribute(
+        "MyLazyAttributeKey",
+        new ValueSupplier<AttributeValue>() {
+          @Override
+          public AttributeValue get() {
+            throw new AssertionError("Lazy values must not be evaluated");
+          }
+        });
     span.addEvent("event");
     span.addEvent("event", 0);
     span.addEvent(
@@ -40,6 +40,13 @@ public class SpanIdTest {
     assertThat(second.isValid()).isTrue();
   }
 
+  @Test
+  public void getId() {
+    assertThat(SpanId.getInvalid().getId()).isEqualTo(0);
+    assertThat(first.getId()).isEqualTo(0x61);
+    assertThat(new SpanId(second.getId())).isEqualTo(second);
+  }
+
   @Test
   public void fromLowerBase16() {
     assertThat(SpanId.fromLowerBase16("0000000000000000", 0)).isEqualTo(SpanId.getInvalid());
@@ -55,6 +55,14 @@ public class TraceIdTest {
     assertThat(second.getLowerLong()).isEqualTo(-0xFF00000000000000L);
   }
 
+  @Test
+  public void getIdHiAndIdLo() {
+    assertThat(first.getIdHi()).isEqualTo(0);
+    assertThat(first.getIdLo()).isEqualTo('a');
+    assertThat(second.getIdHi()).isEqualTo(0xFF00000000000000L);
+    assertThat(second.getIdLo()).isEqualTo('A');
+  }
+
   @Test
   public void fromLowerBase16() {
     assertThat(TraceId.fromLowerBase16("00000000000000000000000000000000", 0))
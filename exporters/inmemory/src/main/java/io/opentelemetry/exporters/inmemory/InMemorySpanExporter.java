@@ -47,6 +47,9 @@ import java.util.List;
  *     assertThat(spanItems.get(0).getName()).isEqualTo("span");
  *   }
  * </code></pre>
+ *
+ * <p>The exported spans are copied, so this exporter can be used with a {@link
+ * io.opentelemetry.sdk.trace.SpanRecycler}.
  */
 public final class InMemorySpanExporter implements SpanExporter {
   private final List<SpanData> finishedSpanItems = new ArrayList<>();
@@ -89,7 +92,10 @@ public final class InMemorySpanExporter implements SpanExporter {
       if (isStopped) {
         return ResultCode.FAILED_NOT_RETRYABLE;
       }
-      finishedSpanItems.addAll(spans);
+      // The SpanData of a recycled span must not be used after export returns.
+      for (SpanData span : spans) {
+        finishedSpanItems.add(span.toBuilder().build());
+      }
     }
     return ResultCode.SUCCESS;
   }
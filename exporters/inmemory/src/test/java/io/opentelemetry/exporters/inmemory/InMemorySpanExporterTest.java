@@ -19,9 +19,13 @@ package io.opentelemetry.exporters.inmemory;
 import static com.google.common.truth.Truth.assertThat;
 
 import io.opentelemetry.sdk.trace.SpanData;
+import io.opentelemetry.sdk.trace.SpanRecycler;
 import io.opentelemetry.sdk.trace.TracerSdk;
+import io.opentelemetry.sdk.trace.TracerSdkFactory;
 import io.opentelemetry.sdk.trace.export.SimpleSpansProcessor;
 import io.opentelemetry.sdk.trace.export.SpanExporter.ResultCode;
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.Span;
 import java.util.Collections;
 import java.util.List;
 import org.junit.Before;
@@ -54,6 +58,22 @@ public class InMemorySpanExporterTest {
     assertThat(spanItems.get(2).getName()).isEqualTo("three");
   }
 
+  @Test
+  public void getFinishedSpanItems_WithSpanRecycler() {
+    TracerSdkFactory tracerFactory = new TracerSdkFactory();
+    // Fails any access to the data of a span after the span is released.
+    tracerFactory.setSpanRecycler(SpanRecycler.createWithReleaseChecks());
+    tracerFactory.addSpanProcessor(SimpleSpansProcessor.newBuilder(exporter).build());
+    Span span = tracerFactory.get("test").spanBuilder("span").startSpan();
+    span.setAttribute("key", "value");
+    span.end();
+
+    List<SpanData> spanItems = exporter.getFinishedSpanItems();
+    assertThat(spanItems.size()).isEqualTo(1);
+    assertThat(spanItems.get(0).getAttributes())
+        .containsExactly("key", AttributeValue.stringAttributeValue("value"));
+  }
+
   @Test
   public void reset() {
     tracer.spanBuilder("one").startSpan().end();
@@ -17,6 +17,7 @@
 package io.opentelemetry.exporters.jaeger;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Timestamp;
 import com.google.protobuf.util.Timestamps;
 import io.opentelemetry.exporters.jaeger.proto.api_v2.Model;
@@ -66,8 +67,10 @@ final class Adapter {
   static Model.Span toJaeger(SpanData span) {
     Model.Span.Builder target = Model.Span.newBuilder();
 
-    target.setTraceId(TraceProtoUtils.toProtoTraceId(span.getTraceId()));
-    target.setSpanId(TraceProtoUtils.toProtoSpanId(span.getSpanId()));
+    ByteString traceId =
+        TraceProtoUtils.toProtoTraceId(span.getTraceIdHigh(), span.getTraceIdLow());
+    target.setTraceId(traceId);
+    target.setSpanId(TraceProtoUtils.toProtoSpanId(span.getSpanIdAsLong()));
     target.setOperationName(span.getName());
     Timestamp startTimestamp = Timestamps.fromNanos(span.getStartEpochNanos());
     target.setStartTime(startTimestamp);
@@ -79,11 +82,11 @@ final class Adapter {
     target.addAllReferences(toSpanRefs(span.getLinks()));
 
     // add the parent span
-    if (span.getParentSpanId().isValid()) {
+    if (span.getParentSpanIdAsLong() != 0) {
       target.addReferences(
           Model.SpanRef.newBuilder()
-              .setTraceId(TraceProtoUtils.toProtoTraceId(span.getTraceId()))
-              .setSpanId(TraceProtoUtils.toProtoSpanId(span.getParentSpanId()))
+              .setTraceId(traceId)
+              .setSpanId(TraceProtoUtils.toProtoSpanId(span.getParentSpanIdAsLong()))
               .setRefType(Model.SpanRefType.CHILD_OF));
     }
 
@@ -35,8 +35,19 @@ public class TraceProtoUtils {
    * @return a ByteString representation.
    */
   public static ByteString toProtoSpanId(SpanId spanId) {
+    return toProtoSpanId(spanId.getId());
+  }
+
+  /**
+   * Converts a SpanId given as a {@code long}, see {@link SpanId#getId()}, into a protobuf
+   * ByteString.
+   *
+   * @param spanId the spanId to convert.
+   * @return a ByteString representation.
+   */
+  public static ByteString toProtoSpanId(long spanId) {
     byte[] spanIdBytes = new byte[SpanId.getSize()];
-    spanId.copyBytesTo(spanIdBytes, 0);
+    longToBytes(spanId, spanIdBytes, 0);
     return ByteString.copyFrom(spanIdBytes);
   }
 
@@ -47,8 +58,21 @@ public class TraceProtoUtils {
    * @return a ByteString representation.
    */
   public static ByteString toProtoTraceId(TraceId traceId) {
+    return toProtoTraceId(traceId.getIdHi(), traceId.getIdLo());
+  }
+
+  /**
+   * Converts a TraceId given as two {@code long}s, see {@link TraceId#getIdHi()} and {@link
+   * TraceId#getIdLo()}, into a protobuf ByteString.
+   *
+   * @param traceIdHigh the higher 8 bytes of the traceId to convert.
+   * @param traceIdLow the lower 8 bytes of the traceId to convert.
+   * @return a ByteString representation.
+   */
+  public static ByteString toProtoTraceId(long traceIdHigh, long traceIdLow) {
     byte[] traceIdBytes = new byte[TraceId.getSize()];
-    traceId.copyBytesTo(traceIdBytes, 0);
+    longToBytes(traceIdHigh, traceIdBytes, 0);
+    longToBytes(traceIdLow, traceIdBytes, Long.SIZE / Byte.SIZE);
     return ByteString.copyFrom(traceIdBytes);
   }
 
@@ -72,6 +96,14 @@ public class TraceProtoUtils {
         .build();
   }
 
+  // Writes the big-endian representation of the value, same as the ids copyBytesTo().
+  private static void longToBytes(long value, byte[] dest, int destOffset) {
+    for (int i = Long.SIZE / Byte.SIZE - 1; i >= 0; i--) {
+      dest[destOffset + i] = (byte) value;
+      value >>= Byte.SIZE;
+    }
+  }
+
   private static Sampler fromProtoSampler(
       io.opentelemetry.proto.trace.v1.TraceConfig traceConfigProto) {
     if (traceConfigProto.hasConstantSampler()) {
@@ -82,7 +114,8 @@ public class TraceProtoUtils {
         case ALWAYS_OFF:
           return Samplers.alwaysOff();
         case ALWAYS_PARENT:
-          // TODO: add support.
+          // Root spans have no parent decision to follow, they are not sampled.
+          return Samplers.parentBased(Samplers.alwaysOff());
         case UNRECOGNIZED:
           throw new IllegalArgumentException("unrecognized constant sampling decision");
       }
@@ -91,7 +124,7 @@ public class TraceProtoUtils {
       // TODO: add support for Probability Sampler
     }
     if (traceConfigProto.hasRateLimitingSampler()) {
-      // TODO: add support for RateLimiting Sampler
+      return Samplers.rateLimiting(traceConfigProto.getRateLimitingSampler().getQps());
     }
     throw new IllegalArgumentException("unknown sampler in the trace config proto");
   }
@@ -21,6 +21,7 @@ import static com.google.common.truth.Truth.assertThat;
 import com.google.protobuf.ByteString;
 import io.opentelemetry.proto.trace.v1.ConstantSampler;
 import io.opentelemetry.proto.trace.v1.ConstantSampler.ConstantDecision;
+import io.opentelemetry.proto.trace.v1.RateLimitingSampler;
 import io.opentelemetry.sdk.trace.Samplers;
 import io.opentelemetry.sdk.trace.config.TraceConfig;
 import io.opentelemetry.trace.SpanId;
@@ -61,6 +62,23 @@ public class TraceProtoUtilsTest {
     assertThat(TraceProtoUtils.toProtoSpanId(SPAN_ID)).isEqualTo(expected);
   }
 
+  @Test
+  public void toProtoTraceId_FromLongs() {
+    ByteString expected = ByteString.copyFrom(TRACE_ID_BYTES);
+    assertThat(TraceProtoUtils.toProtoTraceId(TRACE_ID.getIdHi(), TRACE_ID.getIdLo()))
+        .isEqualTo(expected);
+    assertThat(TraceProtoUtils.toProtoTraceId(-1, 0x0102030405060708L))
+        .isEqualTo(
+            ByteString.copyFrom(
+                new byte[] {-1, -1, -1, -1, -1, -1, -1, -1, 1, 2, 3, 4, 5, 6, 7, 8}));
+  }
+
+  @Test
+  public void toProtoSpanId_FromLong() {
+    ByteString expected = ByteString.copyFrom(SPAN_ID_BYTES);
+    assertThat(TraceProtoUtils.toProtoSpanId(SPAN_ID.getId())).isEqualTo(expected);
+  }
+
   @Test
   public void traceConfigFromProto() {
     TraceConfig traceConfig = TraceProtoUtils.traceConfigFromProto(TRACE_CONFIG_PROTO);
@@ -71,4 +89,30 @@ public class TraceProtoUtilsTest {
     assertThat(traceConfig.getMaxNumberOfAttributesPerEvent()).isEqualTo(2);
     assertThat(traceConfig.getMaxNumberOfAttributesPerLink()).isEqualTo(1);
   }
+
+  @Test
+  public void traceConfigFromProto_AlwaysParentSampler() {
+    TraceConfig traceConfig =
+        TraceProtoUtils.traceConfigFromProto(
+            io.opentelemetry.proto.trace.v1.TraceConfig.newBuilder()
+                .setConstantSampler(
+                    ConstantSampler.newBuilder()
+                        .setDecision(ConstantDecision.ALWAYS_PARENT)
+                        .build())
+                .build());
+    assertThat(traceConfig.getSampler().getDescription())
+        .isEqualTo(Samplers.parentBased(Samplers.alwaysOff()).getDescription());
+  }
+
+  @Test
+  public void traceConfigFromProto_RateLimitingSampler() {
+    TraceConfig traceConfig =
+        TraceProtoUtils.traceConfigFromProto(
+            TRACE_CONFIG_PROTO
+                .toBuilder()
+                .setRateLimitingSampler(RateLimitingSampler.newBuilder().setQps(10).build())
+                .build());
+    assertThat(traceConfig.getSampler().getDescription())
+        .isEqualTo(Samplers.rateLimiting(10).getDescription());
+  }
 }
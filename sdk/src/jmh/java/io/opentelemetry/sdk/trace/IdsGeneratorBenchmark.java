@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of generating ids with a {@link Random} shared by all the threads and with a
+ * random generator per thread, when an increasing number of threads generate ids.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdsGeneratorBenchmark {
+  @Param({"shared_random", "thread_local"})
+  public String generatorType;
+
+  private IdsGenerator idsGenerator;
+
+  @Setup
+  public void setup() {
+    idsGenerator =
+        "shared_random".equals(generatorType)
+            ? new RandomIdsGenerator(new Random())
+            : ThreadLocalIdsGenerator.getInstance();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public SpanId generateSpanId_1Thread() {
+    return idsGenerator.generateSpanId();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public SpanId generateSpanId_4Threads() {
+    return idsGenerator.generateSpanId();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public SpanId generateSpanId_16Threads() {
+    return idsGenerator.generateSpanId();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public TraceId generateTraceId_1Thread() {
+    return idsGenerator.generateTraceId();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public TraceId generateTraceId_16Threads() {
+    return idsGenerator.generateTraceId();
+  }
+}
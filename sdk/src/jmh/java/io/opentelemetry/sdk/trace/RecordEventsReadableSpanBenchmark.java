@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.sdk.internal.CalibratedClock;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.config.TraceConfig;
+import io.opentelemetry.trace.AttributeKey;
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span.Kind;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.Status;
+import io.opentelemetry.trace.TraceFlags;
+import io.opentelemetry.trace.TraceId;
+import io.opentelemetry.trace.Tracestate;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of recording data on a {@link RecordEventsReadableSpan}, both when the span is
+ * only used by one thread (the common case) and when multiple threads mutate the same span.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RecordEventsReadableSpanBenchmark {
+  private static final SpanContext SPAN_CONTEXT =
+      SpanContext.create(
+          new TraceId(1, 2), new SpanId(3), TraceFlags.getDefault(), Tracestate.getDefault());
+  private static final AttributeValue ATTRIBUTE_VALUE = AttributeValue.longAttributeValue(42);
+  private static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.method");
+  private static final AttributeKey<String> HTTP_URL = AttributeKey.stringKey("http.url");
+  private static final AttributeKey<Long> HTTP_STATUS_CODE =
+      AttributeKey.longKey("http.status_code");
+  private static final AttributeKey<Boolean> ERROR = AttributeKey.booleanKey("error");
+
+  /** A span used by a single thread. */
+  @State(Scope.Thread)
+  public static class SingleThreadState {
+    RecordEventsReadableSpan span;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+      span = newSpan();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+      span.end();
+    }
+  }
+
+  /** A span shared by all the benchmark threads. */
+  @State(Scope.Benchmark)
+  public static class SharedState {
+    RecordEventsReadableSpan span;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+      span = newSpan();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+      span.end();
+    }
+  }
+
+  @Benchmark
+  public void setAttribute(SingleThreadState state) {
+    state.span.setAttribute("key", ATTRIBUTE_VALUE);
+  }
+
+  @Benchmark
+  public void setStatus(SingleThreadState state) {
+    state.span.setStatus(Status.OK);
+  }
+
+  @Benchmark
+  public void updateName(SingleThreadState state) {
+    state.span.updateName("name");
+  }
+
+  @Benchmark
+  public void addEvent(SingleThreadState state) {
+    state.span.addEvent("event", 100);
+  }
+
+  @Benchmark
+  public RecordEventsReadableSpan startRecordAndEnd() {
+    RecordEventsReadableSpan span = newSpan();
+    span.setAttribute("key", ATTRIBUTE_VALUE);
+    span.addEvent("event", 100);
+    span.setStatus(Status.OK);
+    span.end();
+    return span;
+  }
+
+  @Benchmark
+  public RecordEventsReadableSpan recordNamedAttributes() {
+    RecordEventsReadableSpan span = newSpan();
+    span.setAttribute("http.method", "GET");
+    span.setAttribute("http.url", "http://localhost/");
+    span.setAttribute("http.status_code", 200);
+    span.setAttribute("error", false);
+    span.end();
+    return span;
+  }
+
+  @Benchmark
+  public RecordEventsReadableSpan recordKeyedAttributes() {
+    RecordEventsReadableSpan span = newSpan();
+    span.setAttribute(HTTP_METHOD, "GET");
+    span.setAttribute(HTTP_URL, "http://localhost/");
+    span.setAttribute(HTTP_STATUS_CODE, 200);
+    span.setAttribute(ERROR, false);
+    span.end();
+    return span;
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void setAttribute_SharedSpan_4Threads(SharedState state) {
+    state.span.setAttribute("key", ATTRIBUTE_VALUE);
+  }
+
+  private static RecordEventsReadableSpan newSpan() {
+    return RecordEventsReadableSpan.startSpan(
+        SPAN_CONTEXT,
+        "span",
+        Kind.INTERNAL,
+        null,
+        TraceConfig.getDefault(),
+        NoopSpanProcessor.getInstance(),
+        CalibratedClock.getInstance(),
+        null,
+        Resource.getEmpty(),
+        Collections.<String, AttributeValue>emptyMap(),
+        Collections.<Link>emptyList(),
+        0,
+        0,
+        null,
+        null,
+        null);
+  }
+}
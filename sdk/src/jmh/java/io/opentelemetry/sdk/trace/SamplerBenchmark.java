@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.sdk.trace.Sampler.Decision;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span.Kind;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the sampling decisions per second of root spans when an increasing number of threads
+ * share the same {@link Sampler}. The "rate_limiting_low" sampler rejects almost every decision
+ * after its first second, the "rate_limiting_high" one accepts almost every decision so every
+ * decision updates the shared bucket. The "throughput_targeting" sampler counts every decision.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SamplerBenchmark {
+  private static final String SPAN_NAME = "span";
+  private static final List<Link> NO_LINKS = Collections.emptyList();
+
+  @Param({"probability", "rate_limiting_low", "rate_limiting_high", "throughput_targeting"})
+  public String samplerType;
+
+  private final TraceId traceId = new TraceId(1, 2);
+  private final SpanId spanId = new SpanId(3);
+  private Sampler sampler;
+
+  @Setup
+  public void setup() {
+    if ("probability".equals(samplerType)) {
+      sampler = Samplers.probability(0.1);
+    } else if ("throughput_targeting".equals(samplerType)) {
+      sampler = Samplers.throughputTargeting(100);
+    } else if ("rate_limiting_low".equals(samplerType)) {
+      sampler = Samplers.rateLimiting(100);
+    } else {
+      sampler = Samplers.rateLimiting(1e9);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Decision shouldSample_1Thread() {
+    return shouldSample();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Decision shouldSample_4Threads() {
+    return shouldSample();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public Decision shouldSample_16Threads() {
+    return shouldSample();
+  }
+
+  @Benchmark
+  @Threads(64)
+  public Decision shouldSample_64Threads() {
+    return shouldSample();
+  }
+
+  private Decision shouldSample() {
+    return sampler.shouldSample(null, null, traceId, spanId, SPAN_NAME, Kind.INTERNAL, NO_LINKS);
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of starting and ending child spans of one parent span from an increasing
+ * number of threads, as done by a request handler that fans out work to an executor.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpanFanOutBenchmark {
+  private final TracerSdkFactory tracerFactory = new TracerSdkFactory();
+  private final Tracer tracer = tracerFactory.get("benchmark");
+  private Span parentSpan;
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    parentSpan = tracer.spanBuilder("parent").startSpan();
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    parentSpan.end();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Span startAndEndChild_1Thread() {
+    return startAndEndChild();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Span startAndEndChild_4Threads() {
+    return startAndEndChild();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public Span startAndEndChild_16Threads() {
+    return startAndEndChild();
+  }
+
+  @Benchmark
+  @Threads(64)
+  public Span startAndEndChild_64Threads() {
+    return startAndEndChild();
+  }
+
+  private Span startAndEndChild() {
+    Span span = tracer.spanBuilder("child").setParent(parentSpan).startSpan();
+    span.end();
+    return span;
+  }
+}
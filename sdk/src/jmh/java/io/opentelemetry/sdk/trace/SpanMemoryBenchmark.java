@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.sdk.internal.CalibratedClock;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.config.TraceConfig;
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span.Kind;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceFlags;
+import io.opentelemetry.trace.TraceId;
+import io.opentelemetry.trace.Tracestate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the heap retained by the events and the links of ended spans, reported as the {@code
+ * bytesPerEvent} and {@code bytesPerLink} secondary results. The measured time is not meaningful.
+ *
+ * <p>Every invocation keeps {@code SPANS} spans without events or links and {@code SPANS} spans
+ * with {@code ELEMENTS_PER_SPAN} of them alive, and divides the difference of the used heap by the
+ * number of recorded events or links. The links are created for every span, as instrumentation
+ * does, so that the objects retained by the span are measured.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SpanMemoryBenchmark {
+  private static final int SPANS = 4096;
+  private static final int ELEMENTS_PER_SPAN = 32;
+  private static final SpanContext SPAN_CONTEXT =
+      SpanContext.create(
+          new TraceId(1, 2), new SpanId(3), TraceFlags.getDefault(), Tracestate.getDefault());
+  private static final Map<String, AttributeValue> EVENT_ATTRIBUTES =
+      Collections.singletonMap("key", AttributeValue.longAttributeValue(42));
+
+  /** The footprint measured by the last invocation. */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Footprint {
+    public long bytesPerEvent;
+    public long bytesPerLink;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytesPerEvent = 0;
+      bytesPerLink = 0;
+    }
+  }
+
+  @Benchmark
+  public Object events(Footprint footprint) {
+    RecordEventsReadableSpan[] emptySpans = new RecordEventsReadableSpan[SPANS];
+    RecordEventsReadableSpan[] spans = new RecordEventsReadableSpan[SPANS];
+    long baseline = usedHeap();
+    for (int i = 0; i < SPANS; i++) {
+      emptySpans[i] = newSpan(Collections.<Link>emptyList());
+      emptySpans[i].end();
+    }
+    long empty = usedHeap();
+    for (int i = 0; i < SPANS; i++) {
+      spans[i] = newSpan(Collections.<Link>emptyList());
+      for (int j = 0; j < ELEMENTS_PER_SPAN; j++) {
+        spans[i].addEvent("event", EVENT_ATTRIBUTES, j + 1);
+      }
+      spans[i].end();
+    }
+    long full = usedHeap();
+    footprint.bytesPerEvent =
+        ((full - empty) - (empty - baseline)) / ((long) SPANS * ELEMENTS_PER_SPAN);
+    return new Object[] {emptySpans, spans};
+  }
+
+  @Benchmark
+  public Object links(Footprint footprint) {
+    RecordEventsReadableSpan[] emptySpans = new RecordEventsReadableSpan[SPANS];
+    RecordEventsReadableSpan[] spans = new RecordEventsReadableSpan[SPANS];
+    long baseline = usedHeap();
+    for (int i = 0; i < SPANS; i++) {
+      emptySpans[i] = newSpan(Collections.<Link>emptyList());
+      emptySpans[i].end();
+    }
+    long empty = usedHeap();
+    for (int i = 0; i < SPANS; i++) {
+      spans[i] = newSpan(newLinks(i));
+      spans[i].end();
+    }
+    long full = usedHeap();
+    footprint.bytesPerLink =
+        ((full - empty) - (empty - baseline)) / ((long) SPANS * ELEMENTS_PER_SPAN);
+    return new Object[] {emptySpans, spans};
+  }
+
+  private static List<Link> newLinks(int span) {
+    List<Link> links = new ArrayList<>(ELEMENTS_PER_SPAN);
+    for (int i = 0; i < ELEMENTS_PER_SPAN; i++) {
+      links.add(
+          SpanData.Link.create(
+              SpanContext.create(
+                  new TraceId(span, i),
+                  new SpanId(i + 1),
+                  TraceFlags.getDefault(),
+                  Tracestate.getDefault())));
+    }
+    return links;
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static RecordEventsReadableSpan newSpan(List<Link> links) {
+    return RecordEventsReadableSpan.startSpan(
+        SPAN_CONTEXT,
+        "span",
+        Kind.INTERNAL,
+        null,
+        TraceConfig.getDefault(),
+        NoopSpanProcessor.getInstance(),
+        CalibratedClock.getInstance(),
+        null,
+        Resource.getEmpty(),
+        Collections.<String, AttributeValue>emptyMap(),
+        links,
+        links.size(),
+        0,
+        null,
+        null,
+        null);
+  }
+}
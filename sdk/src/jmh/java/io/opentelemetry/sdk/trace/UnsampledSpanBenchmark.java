@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.config.TraceConfig;
+import io.opentelemetry.trace.DefaultTracer;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of starting and ending spans that are not sampled by the SDK with the cost of
+ * the same operations on the no-op {@link DefaultTracer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+public class UnsampledSpanBenchmark {
+  private final Tracer noopTracer = DefaultTracer.getInstance();
+  private Tracer sdkTracer;
+  private Span noopParent;
+  private Span sdkParent;
+
+  @Setup
+  public void setup() {
+    TracerSdkFactory tracerFactory = new TracerSdkFactory();
+    tracerFactory.updateActiveTraceConfig(
+        TraceConfig.getDefault().toBuilder().setSampler(Samplers.alwaysOff()).build());
+    sdkTracer = tracerFactory.get("benchmark");
+    noopParent = noopTracer.spanBuilder("parent").setNoParent().startSpan();
+    sdkParent = sdkTracer.spanBuilder("parent").setNoParent().startSpan();
+  }
+
+  @TearDown
+  public void tearDown() {
+    noopParent.end();
+    sdkParent.end();
+  }
+
+  @Benchmark
+  public Span noop_RootSpan() {
+    return startAndEnd(noopTracer.spanBuilder("span").setNoParent());
+  }
+
+  @Benchmark
+  public Span sdk_RootSpan() {
+    return startAndEnd(sdkTracer.spanBuilder("span").setNoParent());
+  }
+
+  @Benchmark
+  public Span noop_ChildSpan() {
+    return startAndEnd(noopTracer.spanBuilder("span").setParent(noopParent));
+  }
+
+  @Benchmark
+  public Span sdk_ChildSpan() {
+    return startAndEnd(sdkTracer.spanBuilder("span").setParent(sdkParent));
+  }
+
+  @Benchmark
+  public Span noop_ChildOfCurrentSpan() {
+    Scope scope = noopTracer.withSpan(noopParent);
+    try {
+      return startAndEnd(noopTracer.spanBuilder("span"));
+    } finally {
+      scope.close();
+    }
+  }
+
+  @Benchmark
+  public Span sdk_ChildOfCurrentSpan() {
+    Scope scope = sdkTracer.withSpan(sdkParent);
+    try {
+      return startAndEnd(sdkTracer.spanBuilder("span"));
+    } finally {
+      scope.close();
+    }
+  }
+
+  private static Span startAndEnd(Span.Builder spanBuilder) {
+    Span span = spanBuilder.startSpan();
+    span.end();
+    return span;
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.internal;
+
+import io.opentelemetry.sdk.common.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link Clock} that calculates the epoch time using {@link System#nanoTime()} and a reference
+ * epoch timestamp that is shared by the whole process.
+ *
+ * <p>Unlike {@link MonotonicClock}, one instance can be used for the lifetime of the process: the
+ * reference is periodically compared with the epoch time of the underlying clock and moved when
+ * they drifted apart by more than the resolution of that clock. Reading the time only reads {@link
+ * System#nanoTime()}, the underlying epoch clock is read at most once per recalibration interval.
+ *
+ * <p>The returned timestamps never go backward, even when the underlying epoch clock is stepped
+ * back: when a recalibration finds that the calculated time is ahead of the epoch clock, the
+ * calculated time runs 5% slower until it caught up, instead of being moved back.
+ */
+@ThreadSafe
+public final class CalibratedClock implements Clock {
+  // The resolution of System.currentTimeMillis().
+  private static final long RESOLUTION_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long RECALIBRATION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+  // A calculated time ahead of the epoch clock runs 1/SLEW_DIVISOR slower until it caught up.
+  private static final long SLEW_DIVISOR = 20;
+  private static final CalibratedClock INSTANCE = create(MillisClock.getInstance());
+
+  private final Clock clock;
+  private final AtomicReference<Calibration> calibration;
+
+  private CalibratedClock(Clock clock) {
+    this.clock = clock;
+    this.calibration =
+        new AtomicReference<>(new Calibration(clock.now(), clock.nanoTime(), /* slewNanos= */ 0));
+  }
+
+  /**
+   * Returns the {@code CalibratedClock} that uses {@link System#currentTimeMillis()} as reference.
+   *
+   * @return the {@code CalibratedClock} that uses {@link System#currentTimeMillis()} as reference.
+   */
+  public static CalibratedClock getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns a new {@code CalibratedClock} that uses the given {@code Clock} to read the reference
+   * epoch time and the nanoTime.
+   *
+   * @param clock the {@code Clock} to be used to read the reference epoch time and nanoTime.
+   * @return a new {@code CalibratedClock}.
+   */
+  public static CalibratedClock create(Clock clock) {
+    return new CalibratedClock(clock);
+  }
+
+  @Override
+  public long now() {
+    long nanoTime = clock.nanoTime();
+    Calibration current = calibration.get();
+    if (nanoTime - current.nanoTime >= RECALIBRATION_INTERVAL_NANOS) {
+      Calibration recalibrated = recalibrate(current, nanoTime);
+      // Only one of the concurrent recalibrations is published, the others use the winner.
+      current = calibration.compareAndSet(current, recalibrated) ? recalibrated : calibration.get();
+    }
+    return current.epochNanos(nanoTime);
+  }
+
+  @Override
+  public long nanoTime() {
+    return clock.nanoTime();
+  }
+
+  // The new calibration starts at the time calculated by the current one, so it never returns a
+  // time earlier than what the current one could have returned. The epoch clock only says that the
+  // real time is between its value and its value plus the resolution: the calculated time jumps
+  // forward if it is behind that window and is slewed back if it is ahead.
+  private Calibration recalibrate(Calibration current, long nanoTime) {
+    long calculatedEpochNanos = current.epochNanos(nanoTime);
+    long epochNanos = clock.now();
+    if (calculatedEpochNanos < epochNanos) {
+      return new Calibration(epochNanos, nanoTime, /* slewNanos= */ 0);
+    }
+    long slewNanos = Math.max(0, calculatedEpochNanos - (epochNanos + RESOLUTION_NANOS));
+    return new Calibration(calculatedEpochNanos, nanoTime, slewNanos);
+  }
+
+  @Immutable
+  private static final class Calibration {
+    private final long epochNanos;
+    private final long nanoTime;
+    // How much the calculated time is ahead of the epoch clock when the calibration is made.
+    private final long slewNanos;
+
+    private Calibration(long epochNanos, long nanoTime, long slewNanos) {
+      this.epochNanos = epochNanos;
+      this.nanoTime = nanoTime;
+      this.slewNanos = slewNanos;
+    }
+
+    private long epochNanos(long nanoTime) {
+      long elapsedNanos = nanoTime - this.nanoTime;
+      return epochNanos + elapsedNanos - Math.min(slewNanos, elapsedNanos / SLEW_DIVISOR);
+    }
+  }
+}
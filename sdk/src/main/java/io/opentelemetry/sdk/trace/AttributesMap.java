@@ -0,0 +1,551 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.trace.AttributeKey;
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.ValueSupplier;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A compact attributes store with a fixed capacity that drops the least recently updated attribute
+ * when it gets full, same as an access ordered {@link java.util.LinkedHashMap}.
+ *
+ * <p>The entries are kept in parallel arrays ordered from the least to the most recently updated.
+ * The arrays start small and grow geometrically up to the capacity. Every entry has a type tag,
+ * and {@code long}, {@code double} and {@code boolean} values are stored in a primitive slot so
+ * that recording them does not allocate an {@link AttributeValue}. Lookups are a linear scan,
+ * which for the number of attributes usually recorded on a span is faster than hashing.
+ *
+ * <p>Entries set with a registered {@link AttributeKey} also remember the index of their key, and
+ * the map keeps a table from key index to entry for the first {@code MAX_KEY_TABLE_LENGTH}
+ * registered keys. Setting an attribute with one of these keys is then an array lookup instead of
+ * a scan, other keys are found by comparing the key indexes of the entries, and as long as no
+ * attribute was set with a plain {@code String} name there is nothing else to compare the key
+ * with. The table is bounded so that it stays small however many keys the application registers.
+ *
+ * <p>This class is also a read-only {@link Map} view, where the {@code AttributeValue}s are
+ * materialized on access. Instances that are given to a {@link SpanData} are never modified, so
+ * {@code SpanData} uses them without making a copy.
+ */
+@NotThreadSafe
+final class AttributesMap extends AbstractMap<String, AttributeValue> {
+  private static final byte TYPE_STRING = 0;
+  private static final byte TYPE_BOOLEAN = 1;
+  private static final byte TYPE_LONG = 2;
+  private static final byte TYPE_DOUBLE = 3;
+  // The value is an AttributeValue stored as it was received.
+  private static final byte TYPE_ATTRIBUTE_VALUE = 4;
+  // The value is a LazyValue<AttributeValue>, evaluated when the map is resolved.
+  private static final byte TYPE_LAZY = 5;
+  private static final int INITIAL_CAPACITY = 4;
+  // The maximum length of the table from key index to entry, the entries of the keys with a larger
+  // index are found with a scan of the entry key indexes.
+  private static final int MAX_KEY_TABLE_LENGTH = 32;
+  private static final int[] EMPTY_INDEXES = new int[0];
+
+  private final int capacity;
+  private String[] keys;
+  private byte[] types;
+  // Holds the long values, the double values as raw long bits and the boolean values as 0 or 1.
+  private long[] primitiveValues;
+  // Holds the String, AttributeValue and LazyValue values.
+  private Object[] objectValues;
+  // For every entry, the index of its AttributeKey plus one, or 0 if it was set with a String.
+  private int[] entryKeyIndexes;
+  // For every AttributeKey index below MAX_KEY_TABLE_LENGTH, the index of its entry plus one, or 0
+  // if there is no such entry.
+  private int[] keyEntryIndexes = EMPTY_INDEXES;
+  // Whether an entry was set with a String name, in which case setting an attribute with a key
+  // that has no entry yet must scan the names.
+  private boolean hasNamedEntries;
+  private boolean hasLazyValues;
+  private int size;
+  private int totalAddedValues;
+  // Set when the map is released with SpanRecycler release checks, any read then fails.
+  private boolean released;
+
+  AttributesMap(int capacity) {
+    this.capacity = capacity;
+    int initialCapacity = Math.min(capacity, INITIAL_CAPACITY);
+    this.keys = new String[initialCapacity];
+    this.types = new byte[initialCapacity];
+    this.primitiveValues = new long[initialCapacity];
+    this.objectValues = new Object[initialCapacity];
+    this.entryKeyIndexes = new int[initialCapacity];
+  }
+
+  // Creates a copy of the given map, trimmed to its size. If resolve is true the lazy values are
+  // evaluated, and the entries whose value cannot be supplied are dropped.
+  private AttributesMap(AttributesMap source, boolean resolve) {
+    int sourceSize = source.size;
+    this.capacity = source.capacity;
+    this.keys = new String[sourceSize];
+    this.types = new byte[sourceSize];
+    this.primitiveValues = new long[sourceSize];
+    this.objectValues = new Object[sourceSize];
+    // The copy is never modified, so it does not need the key indexes.
+    this.entryKeyIndexes = EMPTY_INDEXES;
+    this.totalAddedValues = source.totalAddedValues;
+    if (!resolve) {
+      System.arraycopy(source.keys, 0, keys, 0, sourceSize);
+      System.arraycopy(source.types, 0, types, 0, sourceSize);
+      System.arraycopy(source.primitiveValues, 0, primitiveValues, 0, sourceSize);
+      System.arraycopy(source.objectValues, 0, objectValues, 0, sourceSize);
+      this.size = sourceSize;
+      this.hasLazyValues = source.hasLazyValues;
+      return;
+    }
+    for (int i = 0; i < sourceSize; i++) {
+      byte type = source.types[i];
+      Object objectValue = source.objectValues[i];
+      if (type == TYPE_LAZY) {
+        objectValue = ((LazyValue<?>) objectValue).get();
+        if (objectValue == null) {
+          continue;
+        }
+        type = TYPE_ATTRIBUTE_VALUE;
+      }
+      keys[size] = source.keys[i];
+      types[size] = type;
+      primitiveValues[size] = source.primitiveValues[i];
+      objectValues[size] = objectValue;
+      size++;
+    }
+  }
+
+  void putString(String key, String value) {
+    int index = prepareEntry(key);
+    types[index] = TYPE_STRING;
+    objectValues[index] = value;
+  }
+
+  void putBoolean(String key, boolean value) {
+    int index = prepareEntry(key);
+    types[index] = TYPE_BOOLEAN;
+    primitiveValues[index] = value ? 1 : 0;
+  }
+
+  void putLong(String key, long value) {
+    int index = prepareEntry(key);
+    types[index] = TYPE_LONG;
+    primitiveValues[index] = value;
+  }
+
+  void putDouble(String key, double value) {
+    int index = prepareEntry(key);
+    types[index] = TYPE_DOUBLE;
+    primitiveValues[index] = Double.doubleToRawLongBits(value);
+  }
+
+  void putString(AttributeKey<?> key, String value) {
+    int index = prepareEntry(key);
+    types[index] = TYPE_STRING;
+    objectValues[index] = value;
+  }
+
+  void putBoolean(AttributeKey<?> key, boolean value) {
+    int index = prepareEntry(key);
+    types[index] = TYPE_BOOLEAN;
+    primitiveValues[index] = value ? 1 : 0;
+  }
+
+  void putLong(AttributeKey<?> key, long value) {
+    int index = prepareEntry(key);
+    types[index] = TYPE_LONG;
+    primitiveValues[index] = value;
+  }
+
+  void putDouble(AttributeKey<?> key, double value) {
+    int index = prepareEntry(key);
+    types[index] = TYPE_DOUBLE;
+    primitiveValues[index] = Double.doubleToRawLongBits(value);
+  }
+
+  void putAttributeValue(String key, AttributeValue value) {
+    int index = prepareEntry(key);
+    types[index] = TYPE_ATTRIBUTE_VALUE;
+    objectValues[index] = value;
+  }
+
+  void putAttributeValueSupplier(String key, ValueSupplier<AttributeValue> valueSupplier) {
+    int index = prepareEntry(key);
+    types[index] = TYPE_LAZY;
+    objectValues[index] = new LazyValue<>(valueSupplier);
+    hasLazyValues = true;
+  }
+
+  void putAllAttributeValues(Map<String, AttributeValue> attributes) {
+    for (Map.Entry<String, AttributeValue> entry : attributes.entrySet()) {
+      putAttributeValue(entry.getKey(), entry.getValue());
+    }
+  }
+
+  int getNumberOfDroppedAttributes() {
+    return totalAddedValues - size;
+  }
+
+  int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the estimated size, as computed by {@link SpanMemoryBudget}, of the entry removed by
+   * setting the given key: the entry with the same key, or the oldest entry if the map is full.
+   *
+   * @param key the key that is set.
+   * @return the estimated size of the entry removed by setting the key, or {@code 0}.
+   */
+  long estimatedBytesReplacedBy(String key) {
+    return replacedEntryBytes(indexOf(key));
+  }
+
+  /**
+   * Returns the estimated size, as computed by {@link SpanMemoryBudget}, of the entry removed by
+   * setting the given key: the entry with the same key, or the oldest entry if the map is full.
+   *
+   * @param key the key that is set.
+   * @return the estimated size of the entry removed by setting the key, or {@code 0}.
+   */
+  long estimatedBytesReplacedBy(AttributeKey<?> key) {
+    int index = indexOf(key.getIndex());
+    if (index < 0 && hasNamedEntries) {
+      index = indexOf(key.getName());
+    }
+    return replacedEntryBytes(index);
+  }
+
+  /**
+   * Returns the estimated size, as computed by {@link SpanMemoryBudget}, of the entries removed by
+   * setting all the given attributes: the entries with the same keys, and the oldest other entries
+   * if the map is full.
+   *
+   * @param attributes the attributes that are set.
+   * @return the estimated size of the entries removed by setting the attributes.
+   */
+  long estimatedBytesReplacedBy(Map<String, AttributeValue> attributes) {
+    long bytes = 0;
+    int newEntries = 0;
+    for (String key : attributes.keySet()) {
+      int index = indexOf(key);
+      if (index >= 0) {
+        bytes += entryBytes(index);
+      } else {
+        newEntries++;
+      }
+    }
+    int evictedEntries = size + newEntries - capacity;
+    for (int i = 0; evictedEntries > 0 && i < size; i++) {
+      if (!attributes.containsKey(keys[i])) {
+        bytes += entryBytes(i);
+        evictedEntries--;
+      }
+    }
+    return bytes;
+  }
+
+  private long replacedEntryBytes(int existingIndex) {
+    if (existingIndex >= 0) {
+      return entryBytes(existingIndex);
+    }
+    return size == capacity && size > 0 ? entryBytes(0) : 0;
+  }
+
+  private long entryBytes(int index) {
+    switch (types[index]) {
+      case TYPE_STRING:
+        return SpanMemoryBudget.attributeBytes(keys[index], (String) objectValues[index]);
+      case TYPE_ATTRIBUTE_VALUE:
+        return SpanMemoryBudget.attributeBytes(keys[index], (AttributeValue) objectValues[index]);
+      case TYPE_LAZY:
+        return SpanMemoryBudget.lazyAttributeBytes(keys[index]);
+      default:
+        return SpanMemoryBudget.attributeBytes(keys[index]);
+    }
+  }
+
+  // Removes all the entries, keeping the arrays so that the map can be reused.
+  void reset() {
+    Arrays.fill(keys, 0, size, null);
+    Arrays.fill(objectValues, 0, size, null);
+    Arrays.fill(entryKeyIndexes, 0, size, 0);
+    Arrays.fill(keyEntryIndexes, 0);
+    hasNamedEntries = false;
+    hasLazyValues = false;
+    size = 0;
+    totalAddedValues = 0;
+  }
+
+  // Makes every following read fail, to detect uses of the map after its span was released.
+  void markReleased() {
+    released = true;
+  }
+
+  /**
+   * Returns a copy of this map that is never modified.
+   *
+   * @return a copy of this map that is never modified.
+   */
+  AttributesMap copy() {
+    return new AttributesMap(this, /* resolve= */ false);
+  }
+
+  /**
+   * Returns whether the map contains values that are supplied lazily, in which case it must be
+   * {@link #resolve() resolved} before being exported.
+   *
+   * @return whether the map contains values that are supplied lazily.
+   */
+  boolean hasLazyValues() {
+    return hasLazyValues;
+  }
+
+  /**
+   * Returns a copy of this map that is never modified, where the lazily supplied values are
+   * evaluated. The attributes whose value cannot be supplied are dropped.
+   *
+   * @return a copy of this map where the lazily supplied values are evaluated.
+   */
+  AttributesMap resolve() {
+    return new AttributesMap(this, /* resolve= */ true);
+  }
+
+  /**
+   * Returns a new map with the entries of this map followed by the entries of the given map, which
+   * replace the entries with the same key. The new map has the capacity of the given map, so the
+   * entries of this map are dropped first if both do not fit. This map is not modified.
+   *
+   * @param overrides the entries that are added after the entries of this map.
+   * @return a new map with the entries of both maps.
+   */
+  AttributesMap withOverrides(AttributesMap overrides) {
+    AttributesMap result = new AttributesMap(overrides.capacity);
+    result.putEntries(this);
+    result.putEntries(overrides);
+    return result;
+  }
+
+  private void putEntries(AttributesMap source) {
+    for (int i = 0; i < source.size; i++) {
+      int index = prepareEntry(source.keys[i]);
+      types[index] = source.types[i];
+      primitiveValues[index] = source.primitiveValues[i];
+      objectValues[index] = source.objectValues[i];
+    }
+    // Keep the values that were already dropped by the source.
+    totalAddedValues += source.totalAddedValues - source.size;
+    hasLazyValues |= source.hasLazyValues;
+  }
+
+  @Override
+  public int size() {
+    checkNotReleased();
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    checkNotReleased();
+    return key instanceof String && indexOf((String) key) >= 0;
+  }
+
+  @Override
+  @Nullable
+  public AttributeValue get(Object key) {
+    checkNotReleased();
+    if (!(key instanceof String)) {
+      return null;
+    }
+    int index = indexOf((String) key);
+    return index < 0 ? null : valueAt(index);
+  }
+
+  @Override
+  public Set<Map.Entry<String, AttributeValue>> entrySet() {
+    checkNotReleased();
+    return new EntrySet();
+  }
+
+  private void checkNotReleased() {
+    if (released) {
+      throw new IllegalStateException("The attributes of a released span were accessed.");
+    }
+  }
+
+  // Returns the index of the entry where the value for the given key must be written. The entry is
+  // always the most recently updated one (the last), the least recently updated entry is dropped
+  // if the map is full.
+  private int prepareEntry(String key) {
+    hasNamedEntries = true;
+    return prepareEntry(key, indexOf(key), 0);
+  }
+
+  private int prepareEntry(AttributeKey<?> key) {
+    int keyIndex = key.getIndex();
+    int index = indexOf(keyIndex);
+    if (index < 0 && hasNamedEntries) {
+      index = indexOf(key.getName());
+    }
+    if (keyIndex < MAX_KEY_TABLE_LENGTH && keyIndex >= keyEntryIndexes.length) {
+      keyEntryIndexes = Arrays.copyOf(keyEntryIndexes, keyIndex + 1);
+    }
+    index = prepareEntry(key.getName(), index, keyIndex + 1);
+    if (keyIndex < keyEntryIndexes.length) {
+      keyEntryIndexes[keyIndex] = index + 1;
+    }
+    return index;
+  }
+
+  // Returns the index of the entry set with the AttributeKey of the given index, or -1.
+  private int indexOf(int keyIndex) {
+    if (keyIndex < MAX_KEY_TABLE_LENGTH) {
+      return keyIndex < keyEntryIndexes.length ? keyEntryIndexes[keyIndex] - 1 : -1;
+    }
+    for (int i = 0; i < size; i++) {
+      if (entryKeyIndexes[i] == keyIndex + 1) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  // The existing entry for the name (or -1) is removed before appending the new entry.
+  private int prepareEntry(String key, int existingIndex, int keyIndexPlusOne) {
+    totalAddedValues++;
+    if (existingIndex >= 0) {
+      removeEntry(existingIndex);
+    } else if (size == capacity) {
+      removeEntry(0);
+    } else if (size == keys.length) {
+      grow();
+    }
+    keys[size] = key;
+    entryKeyIndexes[size] = keyIndexPlusOne;
+    // Clear the slot that is not used by the new value to not retain the old value.
+    objectValues[size] = null;
+    primitiveValues[size] = 0;
+    return size++;
+  }
+
+  private int indexOf(String key) {
+    for (int i = 0; i < size; i++) {
+      if (key.equals(keys[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void grow() {
+    int newLength = Math.min(capacity, keys.length * 2);
+    keys = Arrays.copyOf(keys, newLength);
+    types = Arrays.copyOf(types, newLength);
+    primitiveValues = Arrays.copyOf(primitiveValues, newLength);
+    objectValues = Arrays.copyOf(objectValues, newLength);
+    entryKeyIndexes = Arrays.copyOf(entryKeyIndexes, newLength);
+  }
+
+  private void removeEntry(int index) {
+    if (entryKeyIndexes[index] != 0 && entryKeyIndexes[index] <= keyEntryIndexes.length) {
+      keyEntryIndexes[entryKeyIndexes[index] - 1] = 0;
+    }
+    int numMoved = size - index - 1;
+    if (numMoved > 0) {
+      System.arraycopy(keys, index + 1, keys, index, numMoved);
+      System.arraycopy(types, index + 1, types, index, numMoved);
+      System.arraycopy(primitiveValues, index + 1, primitiveValues, index, numMoved);
+      System.arraycopy(objectValues, index + 1, objectValues, index, numMoved);
+      System.arraycopy(entryKeyIndexes, index + 1, entryKeyIndexes, index, numMoved);
+      for (int i = index; i < index + numMoved; i++) {
+        if (entryKeyIndexes[i] != 0 && entryKeyIndexes[i] <= keyEntryIndexes.length) {
+          keyEntryIndexes[entryKeyIndexes[i] - 1] = i + 1;
+        }
+      }
+    }
+    size--;
+    entryKeyIndexes[size] = 0;
+    keys[size] = null;
+    objectValues[size] = null;
+  }
+
+  // Only maps that are resolved are exported, a lazy value that cannot be supplied is null here.
+  @Nullable
+  @SuppressWarnings("unchecked")
+  private AttributeValue valueAt(int index) {
+    switch (types[index]) {
+      case TYPE_STRING:
+        return AttributeValue.stringAttributeValue((String) objectValues[index]);
+      case TYPE_BOOLEAN:
+        return AttributeValue.booleanAttributeValue(primitiveValues[index] != 0);
+      case TYPE_LONG:
+        return AttributeValue.longAttributeValue(primitiveValues[index]);
+      case TYPE_DOUBLE:
+        return AttributeValue.doubleAttributeValue(
+            Double.longBitsToDouble(primitiveValues[index]));
+      case TYPE_LAZY:
+        return ((LazyValue<AttributeValue>) objectValues[index]).get();
+      default:
+        return (AttributeValue) objectValues[index];
+    }
+  }
+
+  private final class EntrySet extends AbstractSet<Map.Entry<String, AttributeValue>> {
+    @Override
+    public Iterator<Map.Entry<String, AttributeValue>> iterator() {
+      return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
+  private final class EntryIterator implements Iterator<Map.Entry<String, AttributeValue>> {
+    private int nextIndex = 0;
+
+    @Override
+    public boolean hasNext() {
+      return nextIndex < size;
+    }
+
+    @Override
+    public Map.Entry<String, AttributeValue> next() {
+      checkNotReleased();
+      if (nextIndex >= size) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<String, AttributeValue> entry =
+          new AbstractMap.SimpleImmutableEntry<>(keys[nextIndex], valueAt(nextIndex));
+      nextIndex++;
+      return entry;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("remove");
+    }
+  }
+}
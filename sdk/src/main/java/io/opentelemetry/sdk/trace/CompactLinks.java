@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceFlags;
+import io.opentelemetry.trace.TraceId;
+import io.opentelemetry.trace.Tracestate;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An immutable list of the links of a span, stored as the raw ids and options of their contexts in
+ * parallel arrays instead of as {@link Link}, {@link SpanContext}, {@link TraceId} and {@link
+ * SpanId} objects.
+ *
+ * <p>This class is a {@link List} view of the links where the {@link SpanData.Link}s are
+ * materialized on access, so the objects only exist while the links are exported.
+ */
+@Immutable
+final class CompactLinks extends AbstractList<Link> implements RandomAccess {
+  private static final int IDS_PER_LINK = 3;
+
+  // For every link, the high and the low parts of the trace id followed by the span id.
+  private final long[] ids;
+  private final byte[] traceFlags;
+  private final boolean[] remote;
+  private final Tracestate[] tracestates;
+  // Holds the immutable Map<String, AttributeValue> attributes of the links.
+  private final Object[] attributes;
+
+  /**
+   * Returns an immutable copy of the given links.
+   *
+   * @param links the links to copy.
+   * @return an immutable copy of the given links.
+   */
+  static List<Link> copyOf(List<Link> links) {
+    if (links.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return new CompactLinks(links);
+  }
+
+  private CompactLinks(List<Link> links) {
+    int size = links.size();
+    ids = new long[size * IDS_PER_LINK];
+    traceFlags = new byte[size];
+    remote = new boolean[size];
+    tracestates = new Tracestate[size];
+    attributes = new Object[size];
+    for (int i = 0; i < size; i++) {
+      Link link = links.get(i);
+      SpanContext context = link.getContext();
+      ids[i * IDS_PER_LINK] = context.getTraceId().getIdHi();
+      ids[i * IDS_PER_LINK + 1] = context.getTraceId().getIdLo();
+      ids[i * IDS_PER_LINK + 2] = context.getSpanId().getId();
+      traceFlags[i] = context.getTraceFlags().getByte();
+      remote[i] = context.isRemote();
+      tracestates[i] = context.getTracestate();
+      attributes[i] = immutableAttributes(link);
+    }
+  }
+
+  private static Map<String, AttributeValue> immutableAttributes(Link link) {
+    Map<String, AttributeValue> linkAttributes = link.getAttributes();
+    if (linkAttributes.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    // The attributes of a SpanData.Link are already an immutable copy, other links may not be
+    // immutable and may reference a lot of memory.
+    return link instanceof SpanData.Link
+        ? linkAttributes
+        : Collections.unmodifiableMap(new LinkedHashMap<>(linkAttributes));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Link get(int index) {
+    if (index < 0 || index >= traceFlags.length) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + traceFlags.length);
+    }
+    TraceId traceId = new TraceId(ids[index * IDS_PER_LINK], ids[index * IDS_PER_LINK + 1]);
+    SpanId spanId = new SpanId(ids[index * IDS_PER_LINK + 2]);
+    TraceFlags flags = TraceFlags.fromByte(traceFlags[index]);
+    SpanContext context =
+        remote[index]
+            ? SpanContext.createFromRemoteParent(traceId, spanId, flags, tracestates[index])
+            : SpanContext.create(traceId, spanId, flags, tracestates[index]);
+    return SpanData.Link.createWithoutCopy(
+        context, (Map<String, AttributeValue>) attributes[index]);
+  }
+
+  @Override
+  public int size() {
+    return traceFlags.length;
+  }
+}
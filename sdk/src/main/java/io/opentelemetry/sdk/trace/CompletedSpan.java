@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
+import javax.annotation.concurrent.Immutable;
+
+// A span that was completed outside of the SDK and recorded with TracerSdk.recordSpan(). It only
+// wraps its SpanData, which is immutable and never recycled.
+@Immutable
+final class CompletedSpan implements ReadableSpan {
+  private final SpanData spanData;
+
+  CompletedSpan(SpanData spanData) {
+    this.spanData = spanData;
+  }
+
+  @Override
+  public SpanContext getSpanContext() {
+    return SpanContext.create(
+        new TraceId(spanData.getTraceIdHigh(), spanData.getTraceIdLow()),
+        new SpanId(spanData.getSpanIdAsLong()),
+        spanData.getTraceFlags(),
+        spanData.getTracestate());
+  }
+
+  @Override
+  public String getName() {
+    return spanData.getName();
+  }
+
+  @Override
+  public SpanData toSpanData() {
+    return spanData;
+  }
+
+  @Override
+  public void retain() {}
+
+  @Override
+  public void release() {}
+}
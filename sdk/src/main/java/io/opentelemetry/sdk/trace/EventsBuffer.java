@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.trace.AttributeValue;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.RandomAccess;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A ring buffer of the events of a span that keeps the newest {@code capacity} events that were
+ * added, dropping the oldest ones.
+ *
+ * <p>The events are not stored as {@link SpanData.TimedEvent} objects but as their fields, in
+ * parallel arrays, which saves the object header and the reference of every event. The arrays are
+ * allocated when the first event is added and grow geometrically until they reach the capacity, so
+ * buffers that receive few events stay small.
+ *
+ * <p>This class is also a read-only {@link java.util.List} view of the events, from the oldest to
+ * the newest, where the {@code TimedEvent}s are materialized on access. Instances that are given to
+ * a {@link SpanData} are never modified, so {@code SpanData} uses them without making a copy.
+ */
+@NotThreadSafe
+final class EventsBuffer extends AbstractList<SpanData.TimedEvent> implements RandomAccess {
+  private static final long[] EMPTY_EPOCH_NANOS = new long[0];
+  private static final String[] EMPTY_NAMES = new String[0];
+  private static final Object[] EMPTY_ATTRIBUTES = new Object[0];
+  private static final int INITIAL_CAPACITY = 4;
+
+  private final int capacity;
+  private long[] epochNanos = EMPTY_EPOCH_NANOS;
+  private String[] names = EMPTY_NAMES;
+  // Holds the Map<String, AttributeValue> attributes of the events.
+  private Object[] attributes = EMPTY_ATTRIBUTES;
+  // Index of the oldest event. Always 0 until the arrays reached the capacity.
+  private int head;
+  private int size;
+  private int totalAddedEvents;
+  // Set when the buffer is released with SpanRecycler release checks, any read then fails.
+  private boolean released;
+
+  EventsBuffer(int capacity) {
+    this.capacity = capacity;
+  }
+
+  // Creates a copy of the given buffer, trimmed to its size and starting at the oldest event.
+  private EventsBuffer(EventsBuffer source) {
+    this.capacity = source.capacity;
+    this.epochNanos = new long[source.size];
+    this.names = new String[source.size];
+    this.attributes = new Object[source.size];
+    for (int i = 0; i < source.size; i++) {
+      int position = source.position(i);
+      epochNanos[i] = source.epochNanos[position];
+      names[i] = source.names[position];
+      attributes[i] = source.attributes[position];
+    }
+    this.size = source.size;
+    this.totalAddedEvents = source.totalAddedEvents;
+  }
+
+  /**
+   * Adds the given event, dropping the oldest one if the buffer is full.
+   *
+   * @param epochNanos the epoch time in nanos of the event.
+   * @param name the name of the event.
+   * @param attributes the attributes of the event.
+   */
+  void append(long epochNanos, String name, Map<String, AttributeValue> attributes) {
+    totalAddedEvents++;
+    int position;
+    if (size < names.length) {
+      position = size++;
+    } else if (names.length < capacity) {
+      grow();
+      position = size++;
+    } else {
+      // Full, overwrite the oldest event.
+      position = head;
+      head = head + 1 == capacity ? 0 : head + 1;
+    }
+    this.epochNanos[position] = epochNanos;
+    this.names[position] = name;
+    this.attributes[position] = attributes;
+  }
+
+  /**
+   * Returns the number of events added to this buffer, including the dropped ones.
+   *
+   * @return the number of events added to this buffer, including the dropped ones.
+   */
+  int getTotalAddedEvents() {
+    return totalAddedEvents;
+  }
+
+  int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the estimated size, as computed by {@link SpanMemoryBudget}, of the event dropped by
+   * the next {@link #append}.
+   *
+   * @return the estimated size of the event dropped by the next append, or {@code 0} if the buffer
+   *     is not full.
+   */
+  @SuppressWarnings("unchecked")
+  long estimatedBytesReplacedByAppend() {
+    if (size < capacity || capacity == 0) {
+      return 0;
+    }
+    return SpanMemoryBudget.eventBytes(
+        names[head], (Map<String, AttributeValue>) attributes[head]);
+  }
+
+  /**
+   * Returns a copy of this buffer that is never modified.
+   *
+   * @return a copy of this buffer that is never modified.
+   */
+  EventsBuffer copy() {
+    return new EventsBuffer(this);
+  }
+
+  // Removes all the events, keeping the arrays so that the buffer can be reused.
+  void reset() {
+    Arrays.fill(names, null);
+    Arrays.fill(attributes, null);
+    head = 0;
+    size = 0;
+    totalAddedEvents = 0;
+  }
+
+  // Makes every following read fail, to detect uses of the buffer after its span was released.
+  void markReleased() {
+    released = true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public SpanData.TimedEvent get(int index) {
+    checkNotReleased();
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    int position = position(index);
+    return SpanData.TimedEvent.create(
+        epochNanos[position], names[position], (Map<String, AttributeValue>) attributes[position]);
+  }
+
+  @Override
+  public int size() {
+    checkNotReleased();
+    return size;
+  }
+
+  private int position(int index) {
+    int position = head + index;
+    return position < names.length ? position : position - names.length;
+  }
+
+  private void grow() {
+    int newLength = Math.min(capacity, Math.max(INITIAL_CAPACITY, names.length * 2));
+    epochNanos = Arrays.copyOf(epochNanos, newLength);
+    names = Arrays.copyOf(names, newLength);
+    attributes = Arrays.copyOf(attributes, newLength);
+  }
+
+  private void checkNotReleased() {
+    if (released) {
+      throw new IllegalStateException("The events of a released span were accessed.");
+    }
+  }
+}
@@ -22,6 +22,9 @@ import io.opentelemetry.trace.TraceId;
 /**
  * Interface that is used by the {@link TracerSdk} to generate new {@link SpanId} and {@link
  * TraceId}.
+ *
+ * <p>Implementations must be thread-safe, and should avoid contention because ids are generated for
+ * every new span.
  */
 public interface IdsGenerator {
   /**
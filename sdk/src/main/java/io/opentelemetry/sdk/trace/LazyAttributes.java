@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.ValueSupplier;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A read-only attributes map whose content is supplied the first time it is read, so that event
+ * attributes are only computed for the spans whose events are read, by the first thread that reads
+ * them.
+ */
+@ThreadSafe
+final class LazyAttributes extends AbstractMap<String, AttributeValue> {
+  private final LazyValue<Map<String, AttributeValue>> attributes;
+
+  LazyAttributes(ValueSupplier<Map<String, AttributeValue>> attributesSupplier) {
+    this.attributes = new LazyValue<>(attributesSupplier);
+  }
+
+  @Override
+  public Set<Map.Entry<String, AttributeValue>> entrySet() {
+    return resolved().entrySet();
+  }
+
+  @Override
+  public int size() {
+    return resolved().size();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return resolved().containsKey(key);
+  }
+
+  @Override
+  @Nullable
+  public AttributeValue get(Object key) {
+    return resolved().get(key);
+  }
+
+  private Map<String, AttributeValue> resolved() {
+    Map<String, AttributeValue> resolved = attributes.get();
+    return resolved == null
+        ? Collections.<String, AttributeValue>emptyMap()
+        : Collections.unmodifiableMap(resolved);
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.trace.ValueSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Calls a {@link ValueSupplier} the first time the value is needed and remembers the result.
+ * Threads racing on the first call may each call the supplier, which is allowed by its contract.
+ *
+ * @param <T> the type of the supplied value.
+ */
+@ThreadSafe
+final class LazyValue<T> {
+  private static final Logger logger = Logger.getLogger(LazyValue.class.getName());
+
+  private final ValueSupplier<T> supplier;
+  @Nullable private volatile T value;
+  private volatile boolean evaluated;
+
+  LazyValue(ValueSupplier<T> supplier) {
+    this.supplier = supplier;
+  }
+
+  /**
+   * Returns the supplied value, or {@code null} if the supplier returned {@code null} or failed.
+   *
+   * @return the supplied value, or {@code null} if the supplier returned {@code null} or failed.
+   */
+  @Nullable
+  T get() {
+    if (evaluated) {
+      return value;
+    }
+    T newValue = null;
+    try {
+      newValue = supplier.get();
+    } catch (RuntimeException e) {
+      logger.log(Level.FINE, "A lazily evaluated value failed, the value is dropped.", e);
+    }
+    value = newValue;
+    evaluated = true;
+    return newValue;
+  }
+}
@@ -25,7 +25,7 @@ import java.util.List;
  * Implementation of the {@code SpanProcessor} that simply forwards all received events to a list of
  * {@code SpanProcessor}s.
  */
-public final class MultiSpanProcessor implements SpanProcessor {
+public final class MultiSpanProcessor implements SpanBatchProcessor {
   private final List<SpanProcessor> spanProcessors;
 
   /**
@@ -55,6 +55,19 @@ public final class MultiSpanProcessor implements SpanProcessor {
     }
   }
 
+  @Override
+  public void onEndBatch(List<ReadableSpan> readableSpans) {
+    for (SpanProcessor spanProcessor : spanProcessors) {
+      if (spanProcessor instanceof SpanBatchProcessor) {
+        ((SpanBatchProcessor) spanProcessor).onEndBatch(readableSpans);
+      } else {
+        for (ReadableSpan readableSpan : readableSpans) {
+          spanProcessor.onEnd(readableSpan);
+        }
+      }
+    }
+  }
+
   @Override
   public void shutdown() {
     for (SpanProcessor spanProcessor : spanProcessors) {
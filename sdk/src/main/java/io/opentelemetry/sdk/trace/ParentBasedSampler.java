@@ -0,0 +1,239 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import com.google.common.base.Preconditions;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span.Kind;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A {@link Sampler} that makes the sampling decision of a child span from the sampled flag of its
+ * parent, and delegates only the decisions of the root spans to a root {@code Sampler}.
+ *
+ * <p>By default a child span is sampled if and only if its parent is sampled. The {@code Sampler}
+ * used for each combination of remote or local parent and sampled or not sampled parent can be
+ * changed with the {@link Builder}.
+ *
+ * <p>The parent links are ignored unless {@link Builder#setSampledParentLinks(boolean)} is set, so
+ * the decision for a child span only reads the flags of its parent.
+ *
+ * @since 0.2.0
+ */
+@Immutable
+public final class ParentBasedSampler implements Sampler {
+  private final Sampler root;
+  private final Sampler remoteParentSampled;
+  private final Sampler remoteParentNotSampled;
+  private final Sampler localParentSampled;
+  private final Sampler localParentNotSampled;
+  private final boolean sampledParentLinks;
+
+  private ParentBasedSampler(
+      Sampler root,
+      Sampler remoteParentSampled,
+      Sampler remoteParentNotSampled,
+      Sampler localParentSampled,
+      Sampler localParentNotSampled,
+      boolean sampledParentLinks) {
+    this.root = root;
+    this.remoteParentSampled = remoteParentSampled;
+    this.remoteParentNotSampled = remoteParentNotSampled;
+    this.localParentSampled = localParentSampled;
+    this.localParentNotSampled = localParentNotSampled;
+    this.sampledParentLinks = sampledParentLinks;
+  }
+
+  /**
+   * Returns a new {@link Builder} for {@link ParentBasedSampler}.
+   *
+   * @param root the {@code Sampler} that makes the sampling decision for the root spans.
+   * @return a new {@link Builder}.
+   * @throws NullPointerException if the {@code root} is {@code null}.
+   * @since 0.2.0
+   */
+  public static Builder newBuilder(Sampler root) {
+    return new Builder(root);
+  }
+
+  @Override
+  public Decision shouldSample(
+      @Nullable SpanContext parentContext,
+      @Nullable Boolean hasRemoteParent,
+      TraceId traceId,
+      SpanId spanId,
+      String name,
+      Kind spanKind,
+      List<Link> parentLinks) {
+    Sampler sampler;
+    if (parentContext == null || !parentContext.isValid()) {
+      sampler = root;
+    } else if (Boolean.TRUE.equals(hasRemoteParent)) {
+      sampler =
+          parentContext.getTraceFlags().isSampled() ? remoteParentSampled : remoteParentNotSampled;
+    } else {
+      sampler =
+          parentContext.getTraceFlags().isSampled() ? localParentSampled : localParentNotSampled;
+    }
+    if (sampledParentLinks && hasSampledLink(parentLinks)) {
+      sampler = Samplers.alwaysOn();
+    }
+    return sampler.shouldSample(
+        parentContext, hasRemoteParent, traceId, spanId, name, spanKind, parentLinks);
+  }
+
+  private static boolean hasSampledLink(List<Link> parentLinks) {
+    for (int i = 0; i < parentLinks.size(); i++) {
+      if (parentLinks.get(i).getContext().getTraceFlags().isSampled()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String getDescription() {
+    return "ParentBasedSampler{root="
+        + root.getDescription()
+        + ", remoteParentSampled="
+        + remoteParentSampled.getDescription()
+        + ", remoteParentNotSampled="
+        + remoteParentNotSampled.getDescription()
+        + ", localParentSampled="
+        + localParentSampled.getDescription()
+        + ", localParentNotSampled="
+        + localParentNotSampled.getDescription()
+        + ", sampledParentLinks="
+        + sampledParentLinks
+        + "}";
+  }
+
+  @Override
+  public String toString() {
+    return getDescription();
+  }
+
+  /**
+   * Builder class for {@link ParentBasedSampler}.
+   *
+   * @since 0.2.0
+   */
+  public static final class Builder {
+    private final Sampler root;
+    private Sampler remoteParentSampled = Samplers.alwaysOn();
+    private Sampler remoteParentNotSampled = Samplers.alwaysOff();
+    private Sampler localParentSampled = Samplers.alwaysOn();
+    private Sampler localParentNotSampled = Samplers.alwaysOff();
+    private boolean sampledParentLinks = false;
+
+    private Builder(Sampler root) {
+      this.root = Preconditions.checkNotNull(root, "root");
+    }
+
+    /**
+     * Sets the {@code Sampler} for the spans with a sampled remote parent.
+     *
+     * <p>Default value is {@link Samplers#alwaysOn()}.
+     *
+     * @param sampler the {@code Sampler} for the spans with a sampled remote parent.
+     * @return this.
+     * @since 0.2.0
+     */
+    public Builder setRemoteParentSampled(Sampler sampler) {
+      this.remoteParentSampled = Preconditions.checkNotNull(sampler, "sampler");
+      return this;
+    }
+
+    /**
+     * Sets the {@code Sampler} for the spans with a remote parent that is not sampled.
+     *
+     * <p>Default value is {@link Samplers#alwaysOff()}.
+     *
+     * @param sampler the {@code Sampler} for the spans with a remote parent that is not sampled.
+     * @return this.
+     * @since 0.2.0
+     */
+    public Builder setRemoteParentNotSampled(Sampler sampler) {
+      this.remoteParentNotSampled = Preconditions.checkNotNull(sampler, "sampler");
+      return this;
+    }
+
+    /**
+     * Sets the {@code Sampler} for the spans with a sampled local parent.
+     *
+     * <p>Default value is {@link Samplers#alwaysOn()}.
+     *
+     * @param sampler the {@code Sampler} for the spans with a sampled local parent.
+     * @return this.
+     * @since 0.2.0
+     */
+    public Builder setLocalParentSampled(Sampler sampler) {
+      this.localParentSampled = Preconditions.checkNotNull(sampler, "sampler");
+      return this;
+    }
+
+    /**
+     * Sets the {@code Sampler} for the spans with a local parent that is not sampled.
+     *
+     * <p>Default value is {@link Samplers#alwaysOff()}.
+     *
+     * @param sampler the {@code Sampler} for the spans with a local parent that is not sampled.
+     * @return this.
+     * @since 0.2.0
+     */
+    public Builder setLocalParentNotSampled(Sampler sampler) {
+      this.localParentNotSampled = Preconditions.checkNotNull(sampler, "sampler");
+      return this;
+    }
+
+    /**
+     * Sets whether a span with a sampled parent link is always sampled, like with {@link
+     * Samplers#probability(double)}. The parent links are only read if this is set.
+     *
+     * <p>Default value is {@code false}.
+     *
+     * @param sampledParentLinks whether a span with a sampled parent link is always sampled.
+     * @return this.
+     * @since 0.2.0
+     */
+    public Builder setSampledParentLinks(boolean sampledParentLinks) {
+      this.sampledParentLinks = sampledParentLinks;
+      return this;
+    }
+
+    /**
+     * Builds and returns a {@link ParentBasedSampler}.
+     *
+     * @return a {@code ParentBasedSampler}.
+     * @since 0.2.0
+     */
+    public ParentBasedSampler build() {
+      return new ParentBasedSampler(
+          root,
+          remoteParentSampled,
+          remoteParentNotSampled,
+          localParentSampled,
+          localParentNotSampled,
+          sampledParentLinks);
+    }
+  }
+}
@@ -20,10 +20,12 @@ import io.opentelemetry.trace.SpanId;
 import io.opentelemetry.trace.TraceId;
 import java.util.Random;
 
+/**
+ * {@link IdsGenerator} that uses the given {@link Random}. The {@code Random} is shared by all the
+ * threads, prefer {@link ThreadLocalIdsGenerator} unless reproducible ids are needed.
+ */
 final class RandomIdsGenerator implements IdsGenerator {
   private static final long INVALID_ID = 0;
-  // TODO change with ThreadLocal version
-  // https://github.com/open-telemetry/opentelemetry-java/issues/406
   private final Random random;
 
   RandomIdsGenerator(Random random) {
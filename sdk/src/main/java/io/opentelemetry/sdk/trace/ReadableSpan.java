@@ -50,4 +50,26 @@ public interface ReadableSpan {
    * @since 0.1.0
    */
   SpanData toSpanData();
+
+  /**
+   * Takes a reference to this ended {@code Span}, so that its data, including the {@link SpanData}
+   * returned by {@link #toSpanData()}, stays valid until the matching {@link #release()} even if
+   * span recycling is enabled with {@link SpanRecycler}.
+   *
+   * <p>Must be called from {@link SpanProcessor#onEnd(ReadableSpan)} by the processors that use the
+   * span after {@code onEnd} returns.
+   *
+   * @throws IllegalStateException if the span was already released by all its owners.
+   * @since 0.2.0
+   */
+  void retain();
+
+  /**
+   * Releases a reference taken with {@link #retain()}. The span and its {@code SpanData} must not
+   * be used by the caller anymore.
+   *
+   * @throws IllegalStateException if the span was released more times than retained.
+   * @since 0.2.0
+   */
+  void release();
 }
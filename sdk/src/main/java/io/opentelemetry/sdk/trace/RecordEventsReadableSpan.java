@@ -18,10 +18,10 @@ package io.opentelemetry.sdk.trace;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.EvictingQueue;
 import io.opentelemetry.sdk.common.Clock;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.trace.config.TraceConfig;
+import io.opentelemetry.trace.AttributeKey;
 import io.opentelemetry.trace.AttributeValue;
 import io.opentelemetry.trace.EndSpanOptions;
 import io.opentelemetry.trace.Event;
@@ -31,22 +31,50 @@ import io.opentelemetry.trace.SpanContext;
 import io.opentelemetry.trace.SpanId;
 import io.opentelemetry.trace.Status;
 import io.opentelemetry.trace.Tracer;
-import java.util.ArrayList;
+import io.opentelemetry.trace.ValueSupplier;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nullable;
-import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
-/** Implementation for the {@link Span} class that records trace events. */
+/**
+ * Implementation for the {@link Span} class that records trace events.
+ *
+ * <p>The mutable state of the span is not guarded by a monitor. Instead every access goes through a
+ * small CAS based state machine: {@code OPEN -> WRITING -> OPEN} for each mutation (or read of an
+ * active span) and {@code OPEN -> ENDING -> ENDED} when the span is ended. In the common case where
+ * a span is only touched by one thread this costs one uncontended CAS and one ordered store per
+ * operation, and the rare cross-thread access is still serialized by spinning on the state. Once
+ * the span reaches {@code ENDED} its state never changes again, so reads do not need to acquire
+ * anything.
+ */
 @ThreadSafe
 final class RecordEventsReadableSpan implements ReadableSpan, Span {
 
   private static final Logger logger = Logger.getLogger(Tracer.class.getName());
+  private static final Map<String, AttributeValue> EMPTY_ATTRIBUTES =
+      Collections.<String, AttributeValue>emptyMap();
+
+  // The span accepts mutations and nobody else is accessing the mutable state.
+  private static final int STATE_OPEN = 0;
+  // A thread has exclusive access to the mutable state, all the others must wait.
+  private static final int STATE_WRITING = 1;
+  // The span is being ended, no more mutations are accepted.
+  private static final int STATE_ENDING = 2;
+  // The span is ended and all the state is frozen.
+  private static final int STATE_ENDED = 3;
+
+  private static final AtomicIntegerFieldUpdater<RecordEventsReadableSpan> stateUpdater =
+      AtomicIntegerFieldUpdater.newUpdater(RecordEventsReadableSpan.class, "state");
+  private static final AtomicIntegerFieldUpdater<RecordEventsReadableSpan>
+      numberOfChildrenUpdater =
+          AtomicIntegerFieldUpdater.newUpdater(RecordEventsReadableSpan.class, "numberOfChildren");
+  private static final AtomicIntegerFieldUpdater<RecordEventsReadableSpan> referencesUpdater =
+      AtomicIntegerFieldUpdater.newUpdater(RecordEventsReadableSpan.class, "references");
 
   // Contains the identifiers associated with this Span.
   private final SpanContext context;
@@ -54,47 +82,70 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
   private final SpanId parentSpanId;
   // Handler called when the span starts and ends.
   private final SpanProcessor spanProcessor;
-  // The displayed name of the span.
-  // List of recorded links to parent and child spans.
+  // Reference used to detect if this span is garbage collected without being ended, if tracked.
+  @Nullable private final SpanLeakDetector.SpanReference leakReference;
+  // Immutable list of recorded links to parent and child spans.
   private final List<Link> links;
   // Number of links recorded.
   private final int totalRecordedLinks;
 
-  // Lock used to internally guard the mutable state of this instance
-  private final Object lock = new Object();
+  // The state of the span, one of the STATE_* constants. All the fields below that are not final
+  // are guarded by this state: they can only be accessed after a successful transition to
+  // STATE_WRITING or STATE_ENDING, or after STATE_ENDED was observed.
+  private volatile int state = STATE_OPEN;
 
-  @GuardedBy("lock")
   private String name;
   // The kind of the span.
   private final Kind kind;
   // The clock used to get the time.
   private final Clock clock;
+  // The epoch time and the clock nanoTime read together when the root span of the local trace was
+  // started. All the timestamps of the trace are relative to them, so they stay consistent even if
+  // the clock is recalibrated while the trace is active.
+  private final long anchorEpochNanos;
+  private final long anchorNanoTime;
   // The resource associated with this span.
   private final Resource resource;
   // The start time of the span.
   private final long startEpochNanos;
-  // Set of recorded attributes. DO NOT CALL any other method that changes the ordering of events.
-  @GuardedBy("lock")
-  private final AttributesWithCapacity attributes;
-  // List of recorded events.
-  @GuardedBy("lock")
-  private final EvictingQueue<TimedEvent> events;
-  // Number of events recorded.
-  @GuardedBy("lock")
-  private int totalRecordedEvents = 0;
-  // The number of children.
-  @GuardedBy("lock")
-  private int numberOfChildren;
+  // The trace config with the limits of the recorded data.
+  private final TraceConfig traceConfig;
+  // The constant attributes of the SpanTemplate the span was started from, shared with the other
+  // spans started from it and never modified, or null.
+  @Nullable private final AttributesMap templateAttributes;
+  // Set of recorded attributes, allocated when the first attribute is recorded. They take
+  // precedence over the template attributes.
+  @Nullable private AttributesMap attributes;
+  // List of recorded events, allocated when the first event is recorded.
+  @Nullable private EventsBuffer events;
+  // The number of children, updated with numberOfChildrenUpdater without acquiring the state so
+  // that concurrently started children do not contend on the state of their parent.
+  private volatile int numberOfChildren;
+  // The number of attribute values and event names that were truncated when recorded.
+  private int truncatedValuesCount;
   // The status of the span.
-  @GuardedBy("lock")
   @Nullable
   private Status status;
   // The end time of the span.
-  @GuardedBy("lock")
   private long endEpochNanos;
-  // True if the span is ended.
-  @GuardedBy("lock")
-  private boolean hasBeenEnded;
+  // The SpanData of the ended span, built the first time it is requested. It wraps the internal
+  // structures of the span, which cannot change anymore.
+  @Nullable private volatile SpanData frozenSpanData;
+  // Recycles the attributes and events storage once all the owners released the ended span, or
+  // null if recycling is disabled.
+  @Nullable private final SpanRecycler recycler;
+  // Bounds the memory retained by the recording spans, or null if the memory is not bounded.
+  @Nullable private final SpanMemoryBudget memoryBudget;
+  // The memory reserved from memoryBudget by this span, given back once all the owners released
+  // it. Only modified with exclusive access to the state.
+  private long reservedBytes;
+  // The part of reservedBytes that is not used by the recorded data yet.
+  private long unusedReservedBytes;
+  // Gives back reservedBytes if the span is garbage collected without being ended, or null if the
+  // memory is not bounded.
+  @Nullable private final SpanMemoryBudget.Reservation memoryReservation;
+  // The number of owners of the span, updated with referencesUpdater. The SDK is the first owner.
+  private volatile int references = 1;
 
   /**
    * Creates and starts a span with the given configuration.
@@ -105,11 +156,19 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
    * @param parentSpanId the span_id of the parent span, or null if the new span is a root span.
    * @param traceConfig trace parameters like sampler and probability.
    * @param spanProcessor handler called when the span starts and ends.
-   * @param clock the clock used to get the time.
+   * @param clock the clock used to get the time, ignored if {@code parentSpan} is not null.
+   * @param parentSpan the parent span if it was started by this SDK in this process, or null. The
+   *     new span uses the clock of the parent span.
    * @param resource the resource associated with this span.
-   * @param attributes the attributes set during span creation.
+   * @param attributes the attributes set during span creation. The attributes of a {@link
+   *     SpanTemplate} are shared by the span instead of being copied.
    * @param links the links set during span creation, may be truncated.
    * @param totalRecordedLinks the total number of links set (including dropped links).
+   * @param startEpochNanos the start time of the span, or 0 to use the given clock.
+   * @param leakDetector the detector for spans that are never ended, or null if disabled.
+   * @param recycler the recycler of the attributes and events storage, or null if disabled.
+   * @param memoryBudget the budget the memory of the span is reserved from, or null if the memory
+   *     is not bounded. The memory of a span without data must already be reserved.
    * @return a new and started span.
    */
   @VisibleForTesting
@@ -121,11 +180,15 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
       TraceConfig traceConfig,
       SpanProcessor spanProcessor,
       Clock clock,
+      @Nullable RecordEventsReadableSpan parentSpan,
       Resource resource,
       Map<String, AttributeValue> attributes,
       List<Link> links,
       int totalRecordedLinks,
-      long startEpochNanos) {
+      long startEpochNanos,
+      @Nullable SpanLeakDetector leakDetector,
+      @Nullable SpanRecycler recycler,
+      @Nullable SpanMemoryBudget memoryBudget) {
     RecordEventsReadableSpan span =
         new RecordEventsReadableSpan(
             context,
@@ -135,47 +198,71 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
             traceConfig,
             spanProcessor,
             clock,
+            parentSpan,
             resource,
             attributes,
             links,
             totalRecordedLinks,
-            startEpochNanos == 0 ? clock.now() : startEpochNanos);
+            startEpochNanos,
+            leakDetector,
+            recycler,
+            memoryBudget);
     // Call onStart here instead of calling in the constructor to make sure the span is completely
     // initialized.
     spanProcessor.onStart(span);
     return span;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Once the span is ended the returned {@code SpanData} directly wraps the internal structures
+   * of the span, and the same instance is returned on every call.
+   *
+   * <p>The lazily supplied attribute values are evaluated by the calling thread, after the span is
+   * released for the other threads. The lazily supplied event attributes are evaluated when they
+   * are first read from the returned {@code SpanData}.
+   */
   @Override
   public SpanData toSpanData() {
-    SpanContext spanContext = getSpanContext();
-    return SpanData.newBuilder()
-        .setName(getName())
-        .setTraceId(spanContext.getTraceId())
-        .setSpanId(spanContext.getSpanId())
-        .setTraceFlags(spanContext.getTraceFlags())
-        .setTracestate(spanContext.getTracestate())
-        .setAttributes(getAttributes())
-        .setStartEpochNanos(startEpochNanos)
-        .setEndEpochNanos(getEndEpochNanos())
-        .setKind(kind)
-        .setLinks(getLinks())
-        .setParentSpanId(parentSpanId)
-        .setResource(resource)
-        .setStatus(getStatus())
-        .setTimedEvents(adaptTimedEvents())
-        .build();
-  }
-
-  private List<SpanData.TimedEvent> adaptTimedEvents() {
-    List<io.opentelemetry.sdk.trace.TimedEvent> sourceEvents = getTimedEvents();
-    List<SpanData.TimedEvent> result = new ArrayList<>(sourceEvents.size());
-    for (io.opentelemetry.sdk.trace.TimedEvent sourceEvent : sourceEvents) {
-      result.add(
-          SpanData.TimedEvent.create(
-              sourceEvent.getEpochNanos(), sourceEvent.getName(), sourceEvent.getAttributes()));
-    }
-    return result;
+    if (recycler != null && references <= 0) {
+      throw new IllegalStateException("Cannot access a released span.");
+    }
+    SpanData spanData = frozenSpanData;
+    if (spanData != null) {
+      return spanData;
+    }
+    boolean acquired = acquireForRead();
+    SpanData.Builder builder;
+    AttributesMap attributesSnapshot;
+    try {
+      // Active spans are snapshotted, ended spans cannot change anymore so nothing is copied.
+      attributesSnapshot = getAttributesInternal(acquired);
+      builder =
+          SpanData.newBuilder()
+              .setName(name)
+              .setTraceIdHigh(context.getTraceId().getIdHi())
+              .setTraceIdLow(context.getTraceId().getIdLo())
+              .setSpanIdAsLong(context.getSpanId().getId())
+              .setTraceFlags(context.getTraceFlags())
+              .setTracestate(context.getTracestate())
+              .setStartEpochNanos(startEpochNanos)
+              .setEndEpochNanos(getEndNanoTimeInternal())
+              .setKind(kind)
+              .setLinks(links)
+              .setParentSpanIdAsLong(parentSpanId.getId())
+              .setResource(resource)
+              .setStatus(getStatusWithDefault())
+              .setTimedEvents(getTimedEventsInternal(acquired))
+              .setNumberOfTruncatedValues(truncatedValuesCount);
+    } finally {
+      releaseIfAcquired(acquired);
+    }
+    spanData = builder.setAttributes(resolveAttributes(attributesSnapshot)).buildWithoutCopy();
+    if (!acquired) {
+      frozenSpanData = spanData;
+    }
+    return spanData;
   }
 
   @Override
@@ -190,20 +277,11 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
    */
   @Override
   public String getName() {
-    synchronized (lock) {
+    boolean acquired = acquireForRead();
+    try {
       return name;
-    }
-  }
-
-  /**
-   * Returns the end nano time (see {@link System#nanoTime()}). If the current {@code Span} is not
-   * ended then returns {@link Clock#nanoTime()}.
-   *
-   * @return the end nano time.
-   */
-  private long getEndEpochNanos() {
-    synchronized (lock) {
-      return getEndNanoTimeInternal();
+    } finally {
+      releaseIfAcquired(acquired);
     }
   }
 
@@ -214,57 +292,75 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
    */
   @VisibleForTesting
   Status getStatus() {
-    synchronized (lock) {
+    boolean acquired = acquireForRead();
+    try {
       return getStatusWithDefault();
+    } finally {
+      releaseIfAcquired(acquired);
     }
   }
 
-  /**
-   * Returns a copy of the timed events for this span.
-   *
-   * @return The TimedEvents for this span.
-   */
-  private List<TimedEvent> getTimedEvents() {
-    synchronized (lock) {
-      return new ArrayList<>(events);
+  // Returns the immutable timed events for this span, copied if the span is still active. Must be
+  // called with exclusive access to the state (acquired is true) or after the span was ended.
+  private List<SpanData.TimedEvent> getTimedEventsInternal(boolean acquired) {
+    if (events == null) {
+      return Collections.emptyList();
     }
+    return acquired ? events.copy() : events;
   }
 
   /**
-   * Returns a copy of the links for this span.
+   * Returns the immutable list of links for this span.
    *
-   * @return A copy of the Links for this span.
+   * @return The Links for this span.
    */
   @VisibleForTesting
   List<Link> getLinks() {
-    synchronized (lock) {
-      if (links == null) {
-        return Collections.emptyList();
-      }
-      List<Link> result = new ArrayList<>(links.size());
-      for (Link link : links) {
-        Link newLink = link;
-        if (!(link instanceof SpanData.Link)) {
-          // Make a copy because the given Link may not be immutable and we may reference a lot of
-          // memory.
-          newLink = SpanData.Link.create(link.getContext(), link.getAttributes());
-        }
-        result.add(newLink);
-      }
-      return Collections.unmodifiableList(result);
-    }
+    return links;
   }
 
   /**
-   * Returns an unmodifiable view of the attributes associated with this span.
+   * Returns an immutable view of the attributes associated with this span. The attributes of an
+   * active span are copied, the ones of an ended span are returned directly because they cannot
+   * change anymore.
    *
-   * @return An unmodifiable view of the attributes associated wit this span
+   * @return An immutable view of the attributes associated wit this span
    */
   @VisibleForTesting
   Map<String, AttributeValue> getAttributes() {
-    synchronized (lock) {
-      return Collections.unmodifiableMap(attributes);
+    AttributesMap attributesSnapshot;
+    boolean acquired = acquireForRead();
+    try {
+      attributesSnapshot = getAttributesInternal(acquired);
+    } finally {
+      releaseIfAcquired(acquired);
+    }
+    return resolveAttributes(attributesSnapshot);
+  }
+
+  // Returns the attributes copied if the span is still active, with the lazy values not evaluated
+  // yet. Must be called with exclusive access to the state (acquired is true) or after the span
+  // was ended.
+  @Nullable
+  private AttributesMap getAttributesInternal(boolean acquired) {
+    if (attributes == null) {
+      return templateAttributes;
     }
+    if (templateAttributes == null) {
+      return acquired ? attributes.copy() : attributes;
+    }
+    // The merged map is already a copy.
+    return templateAttributes.withOverrides(attributes);
+  }
+
+  // Evaluates the lazy values of a map returned by getAttributesInternal. Must be called after the
+  // exclusive access to the state was released: the suppliers run on the calling thread and may
+  // take long or access the span.
+  private static Map<String, AttributeValue> resolveAttributes(@Nullable AttributesMap attributes) {
+    if (attributes == null) {
+      return Collections.emptyMap();
+    }
+    return attributes.hasLazyValues() ? attributes.resolve() : attributes;
   }
 
   /**
@@ -274,15 +370,22 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
    * @return the latency of the {@code Span} in nanos.
    */
   long getLatencyNs() {
-    synchronized (lock) {
+    boolean acquired = acquireForRead();
+    try {
       return getEndNanoTimeInternal() - startEpochNanos;
+    } finally {
+      releaseIfAcquired(acquired);
     }
   }
 
-  // Use getEndNanoTimeInternal to avoid over-locking.
-  @GuardedBy("lock")
+  // Must be called with exclusive access to the state or after the span was ended.
   private long getEndNanoTimeInternal() {
-    return hasBeenEnded ? endEpochNanos : clock.now();
+    return state == STATE_ENDED ? endEpochNanos : now();
+  }
+
+  // Returns the current epoch time in nanos, relative to the anchor of the local trace.
+  private long now() {
+    return anchorEpochNanos + (clock.nanoTime() - anchorNanoTime);
   }
 
   /**
@@ -316,123 +419,471 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
 
   @Override
   public void setAttribute(String key, String value) {
-    setAttribute(key, AttributeValue.stringAttributeValue(value));
+    Preconditions.checkNotNull(key, "key");
+    Preconditions.checkNotNull(value, "value");
+    int maxLength = traceConfig.getMaxAttributeValueLength();
+    boolean truncated = Truncation.isTooLong(value, maxLength);
+    String recordedValue = truncated ? Truncation.truncate(value, maxLength) : value;
+    if (!acquireForSetAttribute(key, SpanMemoryBudget.attributeBytes(key, recordedValue))) {
+      return;
+    }
+    try {
+      if (truncated) {
+        truncatedValuesCount++;
+      }
+      getOrCreateAttributes().putString(key, recordedValue);
+    } finally {
+      releaseWrite();
+    }
   }
 
   @Override
   public void setAttribute(String key, long value) {
-    setAttribute(key, AttributeValue.longAttributeValue(value));
+    Preconditions.checkNotNull(key, "key");
+    if (!acquireForSetAttribute(key, SpanMemoryBudget.attributeBytes(key))) {
+      return;
+    }
+    try {
+      getOrCreateAttributes().putLong(key, value);
+    } finally {
+      releaseWrite();
+    }
   }
 
   @Override
   public void setAttribute(String key, double value) {
-    setAttribute(key, AttributeValue.doubleAttributeValue(value));
+    Preconditions.checkNotNull(key, "key");
+    if (!acquireForSetAttribute(key, SpanMemoryBudget.attributeBytes(key))) {
+      return;
+    }
+    try {
+      getOrCreateAttributes().putDouble(key, value);
+    } finally {
+      releaseWrite();
+    }
   }
 
   @Override
   public void setAttribute(String key, boolean value) {
-    setAttribute(key, AttributeValue.booleanAttributeValue(value));
+    Preconditions.checkNotNull(key, "key");
+    if (!acquireForSetAttribute(key, SpanMemoryBudget.attributeBytes(key))) {
+      return;
+    }
+    try {
+      getOrCreateAttributes().putBoolean(key, value);
+    } finally {
+      releaseWrite();
+    }
   }
 
   @Override
   public void setAttribute(String key, AttributeValue value) {
     Preconditions.checkNotNull(key, "key");
     Preconditions.checkNotNull(value, "value");
-    synchronized (lock) {
-      if (hasBeenEnded) {
-        logger.log(Level.FINE, "Calling setAttribute() on an ended Span.");
-        return;
+    int maxLength = traceConfig.getMaxAttributeValueLength();
+    boolean truncated = Truncation.isTooLong(value, maxLength);
+    AttributeValue recordedValue = truncated ? Truncation.truncate(value, maxLength) : value;
+    if (!acquireForSetAttribute(key, SpanMemoryBudget.attributeBytes(key, recordedValue))) {
+      return;
+    }
+    try {
+      if (truncated) {
+        truncatedValuesCount++;
+      }
+      getOrCreateAttributes().putAttributeValue(key, recordedValue);
+    } finally {
+      releaseWrite();
+    }
+  }
+
+  @Override
+  public void setAttributes(Map<String, AttributeValue> attributes) {
+    Preconditions.checkNotNull(attributes, "attributes");
+    // Validated before acquiring the span, so that an invalid entry cannot leave it half written.
+    for (Map.Entry<String, AttributeValue> entry : attributes.entrySet()) {
+      Preconditions.checkNotNull(entry.getKey(), "key");
+      Preconditions.checkNotNull(entry.getValue(), "value");
+    }
+    int maxLength = traceConfig.getMaxAttributeValueLength();
+    int truncatedCount = Truncation.countTooLong(attributes, maxLength);
+    Map<String, AttributeValue> recordedAttributes =
+        truncatedCount == 0 ? attributes : Truncation.truncate(attributes, maxLength);
+    long bytes = memoryBudget == null ? 0 : SpanMemoryBudget.attributesBytes(recordedAttributes);
+    if (attributes.isEmpty() || !acquireForSetAttributes(recordedAttributes, bytes)) {
+      return;
+    }
+    try {
+      truncatedValuesCount += truncatedCount;
+      getOrCreateAttributes().putAllAttributeValues(recordedAttributes);
+    } finally {
+      releaseWrite();
+    }
+  }
+
+  @Override
+  public void setAttribute(String key, ValueSupplier<AttributeValue> valueSupplier) {
+    Preconditions.checkNotNull(key, "key");
+    Preconditions.checkNotNull(valueSupplier, "valueSupplier");
+    if (!acquireForSetAttribute(key, SpanMemoryBudget.lazyAttributeBytes(key))) {
+      return;
+    }
+    try {
+      getOrCreateAttributes()
+          .putAttributeValueSupplier(
+              key,
+              Truncation.truncating(valueSupplier, traceConfig.getMaxAttributeValueLength()));
+    } finally {
+      releaseWrite();
+    }
+  }
+
+  @Override
+  public void setAttribute(AttributeKey<String> key, String value) {
+    Preconditions.checkNotNull(key, "key");
+    Preconditions.checkNotNull(value, "value");
+    int maxLength = traceConfig.getMaxAttributeValueLength();
+    boolean truncated = Truncation.isTooLong(value, maxLength);
+    String recordedValue = truncated ? Truncation.truncate(value, maxLength) : value;
+    long bytes = SpanMemoryBudget.attributeBytes(key.getName(), recordedValue);
+    if (!acquireForSetAttribute(key, bytes)) {
+      return;
+    }
+    try {
+      if (truncated) {
+        truncatedValuesCount++;
+      }
+      getOrCreateAttributes().putString(key, recordedValue);
+    } finally {
+      releaseWrite();
+    }
+  }
+
+  @Override
+  public void setAttribute(AttributeKey<Long> key, long value) {
+    Preconditions.checkNotNull(key, "key");
+    if (!acquireForSetAttribute(key, SpanMemoryBudget.attributeBytes(key.getName()))) {
+      return;
+    }
+    try {
+      getOrCreateAttributes().putLong(key, value);
+    } finally {
+      releaseWrite();
+    }
+  }
+
+  @Override
+  public void setAttribute(AttributeKey<Double> key, double value) {
+    Preconditions.checkNotNull(key, "key");
+    if (!acquireForSetAttribute(key, SpanMemoryBudget.attributeBytes(key.getName()))) {
+      return;
+    }
+    try {
+      getOrCreateAttributes().putDouble(key, value);
+    } finally {
+      releaseWrite();
+    }
+  }
+
+  @Override
+  public void setAttribute(AttributeKey<Boolean> key, boolean value) {
+    Preconditions.checkNotNull(key, "key");
+    if (!acquireForSetAttribute(key, SpanMemoryBudget.attributeBytes(key.getName()))) {
+      return;
+    }
+    try {
+      getOrCreateAttributes().putBoolean(key, value);
+    } finally {
+      releaseWrite();
+    }
+  }
+
+  // Must be called with exclusive access to the state.
+  private AttributesMap getOrCreateAttributes() {
+    if (attributes == null) {
+      attributes = newAttributesMap();
+    }
+    return attributes;
+  }
+
+  private AttributesMap newAttributesMap() {
+    return recycler == null
+        ? new AttributesMap(traceConfig.getMaxNumberOfAttributes())
+        : recycler.newAttributesMap(traceConfig.getMaxNumberOfAttributes());
+  }
+
+  // Acquires the state and reserves the estimated memory of the attribute, minus the memory of the
+  // entry it replaces. Returns false if the span is ended or if the memory budget is running out,
+  // in which case nothing must be recorded.
+  private boolean acquireForSetAttribute(String key, long bytes) {
+    if (!acquireForWriteAttributes()) {
+      return false;
+    }
+    if (memoryBudget != null && attributes != null) {
+      bytes -= attributes.estimatedBytesReplacedBy(key);
+    }
+    return reserveAttributesMemory(bytes);
+  }
+
+  private boolean acquireForSetAttribute(AttributeKey<?> key, long bytes) {
+    if (!acquireForWriteAttributes()) {
+      return false;
+    }
+    if (memoryBudget != null && attributes != null) {
+      bytes -= attributes.estimatedBytesReplacedBy(key);
+    }
+    return reserveAttributesMemory(bytes);
+  }
+
+  private boolean acquireForSetAttributes(Map<String, AttributeValue> newAttributes, long bytes) {
+    if (!acquireForWriteAttributes()) {
+      return false;
+    }
+    if (memoryBudget != null && attributes != null) {
+      bytes -= attributes.estimatedBytesReplacedBy(newAttributes);
+    }
+    return reserveAttributesMemory(bytes);
+  }
+
+  private boolean acquireForWriteAttributes() {
+    if (!acquireForWrite()) {
+      logger.log(Level.FINE, "Calling setAttribute() on an ended Span.");
+      return false;
+    }
+    return true;
+  }
+
+  // Must be called with exclusive access to the state, which is released if the memory cannot be
+  // reserved.
+  private boolean reserveAttributesMemory(long bytes) {
+    if (!reserveMemory(bytes)) {
+      releaseWrite();
+      logger.log(Level.FINE, "Attribute not recorded, the span memory budget is running out.");
+      return false;
+    }
+    return true;
+  }
+
+  // Must be called with exclusive access to the state. The memory is reserved from the budget in
+  // blocks, so that most calls only update the fields of this span. The bytes are negative when the
+  // new data is smaller than the data it replaces, the difference can then be used by later data.
+  private boolean reserveMemory(long bytes) {
+    if (memoryBudget == null) {
+      return true;
+    }
+    if (bytes > unusedReservedBytes) {
+      long blockBytes = Math.max(bytes - unusedReservedBytes, SpanMemoryBudget.BLOCK_BYTES);
+      if (!memoryBudget.tryReserveData(blockBytes)) {
+        return false;
+      }
+      reservedBytes += blockBytes;
+      unusedReservedBytes += blockBytes;
+      if (memoryReservation != null) {
+        memoryReservation.setBytes(reservedBytes);
       }
-      attributes.putAttribute(key, value);
     }
+    unusedReservedBytes -= bytes;
+    return true;
   }
 
   @Override
   public void addEvent(String name) {
-    addTimedEvent(TimedEvent.create(clock.now(), name));
+    addTimedEvent(now(), name, EMPTY_ATTRIBUTES);
   }
 
   @Override
   public void addEvent(String name, long timestamp) {
-    addTimedEvent(TimedEvent.create(timestamp, name));
+    addTimedEvent(timestamp, name, EMPTY_ATTRIBUTES);
   }
 
   @Override
   public void addEvent(String name, Map<String, AttributeValue> attributes) {
-    addTimedEvent(TimedEvent.create(clock.now(), name, attributes));
+    addTimedEvent(now(), name, attributes);
+  }
+
+  @Override
+  public void addEvent(
+      String name, ValueSupplier<Map<String, AttributeValue>> attributesSupplier) {
+    Preconditions.checkNotNull(attributesSupplier, "attributesSupplier");
+    LazyAttributes attributes =
+        new LazyAttributes(
+            Truncation.truncatingAttributes(
+                attributesSupplier, traceConfig.getMaxAttributeValueLength()));
+    addTimedEvent(now(), name, attributes, /* truncatedAttributesCount= */ 0);
   }
 
   @Override
   public void addEvent(String name, Map<String, AttributeValue> attributes, long timestamp) {
-    addTimedEvent(TimedEvent.create(timestamp, name, attributes));
+    addTimedEvent(timestamp, name, attributes);
   }
 
   @Override
   public void addEvent(Event event) {
-    addTimedEvent(TimedEvent.create(clock.now(), event));
+    addEvent(event, now());
   }
 
   @Override
   public void addEvent(Event event, long timestamp) {
-    addTimedEvent(TimedEvent.create(timestamp, event));
+    addTimedEvent(timestamp, event.getName(), event.getAttributes());
   }
 
-  private void addTimedEvent(TimedEvent timedEvent) {
-    synchronized (lock) {
-      if (hasBeenEnded) {
-        logger.log(Level.FINE, "Calling addEvent() on an ended Span.");
+  private void addTimedEvent(
+      long epochNanos, String name, Map<String, AttributeValue> attributes) {
+    Preconditions.checkNotNull(attributes, "attributes");
+    int maxLength = traceConfig.getMaxAttributeValueLength();
+    int truncatedCount = Truncation.countTooLong(attributes, maxLength);
+    addTimedEvent(
+        epochNanos,
+        name,
+        truncatedCount == 0 ? attributes : Truncation.truncate(attributes, maxLength),
+        truncatedCount);
+  }
+
+  private void addTimedEvent(
+      long epochNanos,
+      String name,
+      Map<String, AttributeValue> attributes,
+      int truncatedAttributesCount) {
+    Preconditions.checkNotNull(name, "name");
+    int maxNameLength = traceConfig.getMaxEventNameLength();
+    boolean nameTruncated = Truncation.isTooLong(name, maxNameLength);
+    String recordedName = nameTruncated ? Truncation.truncate(name, maxNameLength) : name;
+    long bytes =
+        memoryBudget == null ? 0 : SpanMemoryBudget.eventBytes(recordedName, attributes);
+    if (!acquireForWrite()) {
+      logger.log(Level.FINE, "Calling addEvent() on an ended Span.");
+      return;
+    }
+    try {
+      if (memoryBudget != null && events != null) {
+        // A full buffer drops its oldest event, the span does not retain more memory.
+        bytes -= events.estimatedBytesReplacedByAppend();
+      }
+      if (!reserveMemory(bytes)) {
+        logger.log(Level.FINE, "Event not recorded, the span memory budget is running out.");
         return;
       }
-      events.add(timedEvent);
-      totalRecordedEvents++;
+      truncatedValuesCount += truncatedAttributesCount + (nameTruncated ? 1 : 0);
+      if (events == null) {
+        events =
+            recycler == null
+                ? new EventsBuffer(traceConfig.getMaxNumberOfEvents())
+                : recycler.newEvents(traceConfig.getMaxNumberOfEvents());
+      }
+      events.append(epochNanos, recordedName, attributes);
+    } finally {
+      releaseWrite();
     }
   }
 
   @Override
   public void setStatus(Status status) {
     Preconditions.checkNotNull(status, "status");
-    synchronized (lock) {
-      if (hasBeenEnded) {
-        logger.log(Level.FINE, "Calling setStatus() on an ended Span.");
-        return;
-      }
+    if (!acquireForWrite()) {
+      logger.log(Level.FINE, "Calling setStatus() on an ended Span.");
+      return;
+    }
+    try {
       this.status = status;
+    } finally {
+      releaseWrite();
     }
   }
 
   @Override
   public void updateName(String name) {
     Preconditions.checkNotNull(name, "name");
-    synchronized (lock) {
-      if (hasBeenEnded) {
-        logger.log(Level.FINE, "Calling updateName() on an ended Span.");
-        return;
-      }
+    if (!acquireForWrite()) {
+      logger.log(Level.FINE, "Calling updateName() on an ended Span.");
+      return;
+    }
+    try {
       this.name = name;
+    } finally {
+      releaseWrite();
     }
   }
 
   @Override
   public void end() {
-    endInternal(clock.now());
+    endInternal(now());
   }
 
   @Override
   public void end(EndSpanOptions endOptions) {
     Preconditions.checkNotNull(endOptions, "endOptions");
-    endInternal(endOptions.getEndTimestamp() == 0 ? clock.now() : endOptions.getEndTimestamp());
+    endInternal(endOptions.getEndTimestamp() == 0 ? now() : endOptions.getEndTimestamp());
   }
 
   private void endInternal(long endEpochNanos) {
-    synchronized (lock) {
-      if (hasBeenEnded) {
-        logger.log(Level.FINE, "Calling end() on an ended Span.");
-        return;
+    if (!acquire(STATE_ENDING)) {
+      logger.log(Level.FINE, "Calling end() on an ended Span.");
+      return;
+    }
+    this.endEpochNanos = endEpochNanos;
+    if (memoryBudget != null) {
+      // Nothing is recorded anymore, keep only the memory that is used.
+      memoryBudget.release(unusedReservedBytes);
+      reservedBytes -= unusedReservedBytes;
+      unusedReservedBytes = 0;
+      // From now on the owners give back the memory when they release the span.
+      if (memoryReservation != null) {
+        memoryReservation.untrack();
       }
-      this.endEpochNanos = endEpochNanos;
-      hasBeenEnded = true;
+    }
+    // The volatile write publishes all the recorded state, which is never modified after this.
+    state = STATE_ENDED;
+    if (leakReference != null) {
+      leakReference.untrack();
     }
     spanProcessor.onEnd(this);
+    // The SDK is done with the span, the processors that still need it retained it in onEnd().
+    release();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Does nothing if neither span recycling nor a memory budget is enabled.
+   */
+  @Override
+  public void retain() {
+    if (recycler == null && memoryBudget == null) {
+      return;
+    }
+    int current;
+    do {
+      current = references;
+      if (current <= 0) {
+        throw new IllegalStateException("Cannot retain a released span.");
+      }
+    } while (!referencesUpdater.compareAndSet(this, current, current + 1));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Does nothing if neither span recycling nor a memory budget is enabled.
+   */
+  @Override
+  public void release() {
+    if (recycler == null && memoryBudget == null) {
+      return;
+    }
+    int remaining = referencesUpdater.decrementAndGet(this);
+    if (remaining == 0) {
+      // Nobody can access the frozen state anymore, no synchronization is needed.
+      if (memoryBudget != null) {
+        memoryBudget.release(reservedBytes);
+      }
+      if (recycler != null) {
+        recycler.recycle(attributes, events);
+        attributes = null;
+        events = null;
+        frozenSpanData = null;
+      }
+    } else if (remaining < 0) {
+      throw new IllegalStateException("The span was released more times than retained.");
+    }
   }
 
   @Override
@@ -446,56 +897,71 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
   }
 
   void addChild() {
-    synchronized (lock) {
-      if (hasBeenEnded) {
-        logger.log(Level.FINE, "Calling end() on an ended Span.");
-        return;
-      }
-      numberOfChildren++;
+    // Best effort, a child started concurrently with end() may still be counted.
+    if (state >= STATE_ENDING) {
+      logger.log(Level.FINE, "Calling end() on an ended Span.");
+      return;
     }
+    numberOfChildrenUpdater.incrementAndGet(this);
   }
 
-  @GuardedBy("lock")
+  // Must be called with exclusive access to the state or after the span was ended.
   private Status getStatusWithDefault() {
-    synchronized (lock) {
-      return status == null ? Status.OK : status;
-    }
+    return status == null ? Status.OK : status;
   }
 
-  // A map implementation with a fixed capacity that drops events when the map gets full. Eviction
-  // is based on the access order.
-  static final class AttributesWithCapacity extends LinkedHashMap<String, AttributeValue> {
-
-    private final long capacity;
-    private int totalRecordedAttributes = 0;
-    // Here because -Werror complains about this: [serial] serializable class AttributesWithCapacity
-    // has no definition of serialVersionUID. This class shouldn't be serialized.
-    private static final long serialVersionUID = 42L;
+  // Tries to get exclusive access to the mutable state in order to record new data. Returns false
+  // if the span is already ended (or is being ended), in which case nothing must be modified.
+  private boolean acquireForWrite() {
+    return acquire(STATE_WRITING);
+  }
 
-    private AttributesWithCapacity(long capacity) {
-      // Capacity of the map is capacity + 1 to avoid resizing because removeEldestEntry is invoked
-      // by put and putAll after inserting a new entry into the map. The loadFactor is set to 1
-      // to avoid resizing because. The accessOrder is set to true.
-      super((int) capacity + 1, 1, /*accessOrder=*/ true);
-      this.capacity = capacity;
+  // Moves the state from STATE_OPEN to newState, waiting for any other thread that currently has
+  // exclusive access. Returns false if the span is already ended or is being ended.
+  private boolean acquire(int newState) {
+    while (true) {
+      int currentState = state;
+      if (currentState == STATE_OPEN) {
+        if (stateUpdater.compareAndSet(this, STATE_OPEN, newState)) {
+          return true;
+        }
+      } else if (currentState == STATE_WRITING) {
+        // Another thread is accessing the span, this is expected to be rare and short.
+        Thread.yield();
+      } else {
+        return false;
+      }
     }
+  }
 
-    // Users must call this method instead of put to keep count of the total number of entries
-    // inserted.
-    private void putAttribute(String key, AttributeValue value) {
-      totalRecordedAttributes += 1;
-      put(key, value);
-    }
+  // Releases the exclusive access obtained by a successful acquireForWrite.
+  private void releaseWrite() {
+    // The ordered store is enough to publish the changes made while in STATE_WRITING.
+    stateUpdater.lazySet(this, STATE_OPEN);
+  }
 
-    int getNumberOfDroppedAttributes() {
-      return totalRecordedAttributes - size();
+  // Gets a consistent view of the mutable state. Returns true if exclusive access was acquired and
+  // must be released with releaseIfAcquired, or false if the span is ended and the state is frozen.
+  private boolean acquireForRead() {
+    while (true) {
+      int currentState = state;
+      if (currentState == STATE_ENDED) {
+        return false;
+      }
+      if (currentState == STATE_OPEN) {
+        if (stateUpdater.compareAndSet(this, STATE_OPEN, STATE_WRITING)) {
+          return true;
+        }
+      } else {
+        // Another thread is accessing or ending the span, this is expected to be rare and short.
+        Thread.yield();
+      }
     }
+  }
 
-    // It is called after each put or putAll call in order to determine if the eldest inserted
-    // entry should be removed or not.
-    @Override
-    protected boolean removeEldestEntry(Map.Entry<String, AttributeValue> eldest) {
-      return size() > this.capacity;
+  private void releaseIfAcquired(boolean acquired) {
+    if (acquired) {
+      releaseWrite();
     }
   }
 
@@ -507,37 +973,63 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
       TraceConfig traceConfig,
       SpanProcessor spanProcessor,
       Clock clock,
+      @Nullable RecordEventsReadableSpan parentSpan,
       Resource resource,
       Map<String, AttributeValue> attributes,
       List<Link> links,
       int totalRecordedLinks,
-      long startEpochNanos) {
+      long startEpochNanos,
+      @Nullable SpanLeakDetector leakDetector,
+      @Nullable SpanRecycler recycler,
+      @Nullable SpanMemoryBudget memoryBudget) {
     this.context = context;
     this.parentSpanId = parentSpanId;
-    this.links = links;
+    this.links = CompactLinks.copyOf(links);
     this.totalRecordedLinks = totalRecordedLinks;
     this.name = name;
     this.kind = kind;
     this.spanProcessor = spanProcessor;
     this.resource = resource;
-    this.hasBeenEnded = false;
-    this.numberOfChildren = 0;
-    this.clock = clock;
-    this.startEpochNanos = startEpochNanos;
-    this.attributes = new AttributesWithCapacity(traceConfig.getMaxNumberOfAttributes());
-    this.attributes.putAll(attributes);
-    this.events = EvictingQueue.create(traceConfig.getMaxNumberOfEvents());
-  }
-
-  @SuppressWarnings("NoFinalizer")
-  @Override
-  protected void finalize() throws Throwable {
-    synchronized (lock) {
-      if (!hasBeenEnded) {
-        logger.log(Level.SEVERE, "Span " + name + " is GC'ed without being ended.");
+    if (parentSpan != null) {
+      this.clock = parentSpan.clock;
+      this.anchorEpochNanos = parentSpan.anchorEpochNanos;
+      this.anchorNanoTime = parentSpan.anchorNanoTime;
+    } else {
+      this.clock = clock;
+      this.anchorEpochNanos = clock.now();
+      this.anchorNanoTime = clock.nanoTime();
+    }
+    this.startEpochNanos = startEpochNanos == 0 ? now() : startEpochNanos;
+    this.traceConfig = traceConfig;
+    this.recycler = recycler;
+    if (attributes instanceof AttributesMap) {
+      // Already validated and truncated when the template was created.
+      this.templateAttributes = (AttributesMap) attributes;
+    } else if (!attributes.isEmpty()) {
+      this.templateAttributes = null;
+      int maxLength = traceConfig.getMaxAttributeValueLength();
+      this.truncatedValuesCount = Truncation.countTooLong(attributes, maxLength);
+      this.attributes = newAttributesMap();
+      this.attributes.putAllAttributeValues(
+          truncatedValuesCount == 0 ? attributes : Truncation.truncate(attributes, maxLength));
+    } else {
+      this.templateAttributes = null;
+    }
+    this.memoryBudget = memoryBudget;
+    if (memoryBudget != null) {
+      // The data given at start is always recorded, even if it exceeds the budget.
+      long startBytes = SpanMemoryBudget.linksBytes(links);
+      if (this.attributes != null) {
+        startBytes += SpanMemoryBudget.attributesBytes(this.attributes);
       }
+      memoryBudget.reserve(startBytes);
+      this.reservedBytes = SpanMemoryBudget.SPAN_BYTES + startBytes;
+      this.memoryReservation = memoryBudget.track(this, reservedBytes);
+    } else {
+      this.memoryReservation = null;
     }
-    super.finalize();
+    this.leakReference =
+        leakDetector == null ? null : leakDetector.track(this, context.getSpanId(), name);
   }
 
   /**
@@ -552,15 +1044,39 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
 
   @VisibleForTesting
   int getNumberOfChildren() {
-    synchronized (lock) {
-      return numberOfChildren;
+    return numberOfChildren;
+  }
+
+  /**
+   * Returns the estimated memory retained by this span, computed without reading its data so that
+   * the lazily supplied values are not evaluated. This is the memory reserved from the budget if
+   * there is one, or an estimate based on the number of attributes, events and links otherwise.
+   *
+   * @return the estimated memory retained by this span.
+   */
+  long getEstimatedBytes() {
+    boolean acquired = acquireForRead();
+    try {
+      if (memoryBudget != null) {
+        return reservedBytes - unusedReservedBytes;
+      }
+      int attributesCount =
+          (attributes == null ? 0 : attributes.size())
+              + (templateAttributes == null ? 0 : templateAttributes.size());
+      return SpanMemoryBudget.spanBytes(
+          name, attributesCount, events == null ? 0 : events.size(), links.size());
+    } finally {
+      releaseIfAcquired(acquired);
     }
   }
 
   @VisibleForTesting
   int getTotalRecordedEvents() {
-    synchronized (lock) {
-      return totalRecordedEvents;
+    boolean acquired = acquireForRead();
+    try {
+      return events == null ? 0 : events.getTotalAddedEvents();
+    } finally {
+      releaseIfAcquired(acquired);
     }
   }
 }
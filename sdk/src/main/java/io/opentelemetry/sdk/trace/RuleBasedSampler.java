@@ -0,0 +1,403 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.base.Preconditions;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span.Kind;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link Sampler} that delegates every sampling decision to the {@link Sampler} of the first
+ * {@link Rule} that matches the new {@code Span}, or to a default {@code Sampler} if no rule
+ * matches. Rules match on the span name (exact or prefix), the {@link Kind} and whether the parent
+ * is remote.
+ *
+ * <p>The rules are compiled, for every kind and remote parent flag, into a map of the exact span
+ * names and a list of the span name prefixes. The {@code Sampler} selected for a span name is then
+ * cached in a bounded map, so that selecting the {@code Sampler} of a known span name is a single
+ * map lookup.
+ *
+ * @since 0.2.0
+ */
+@ThreadSafe
+public final class RuleBasedSampler implements Sampler {
+  private static final int DEFAULT_MAX_CACHED_SPAN_NAMES = 1024;
+  private static final Kind[] KINDS = Kind.values();
+  // One slot for each kind and remote parent flag.
+  private static final int NUM_SLOTS = KINDS.length * 2;
+
+  private final List<Rule> rules;
+  private final Sampler defaultSampler;
+  private final int maxCachedSpanNames;
+  private final CompiledRules[] compiledRules;
+  private final ConcurrentHashMap<String, Sampler[]> samplersBySpanName;
+
+  private RuleBasedSampler(List<Rule> rules, Sampler defaultSampler, int maxCachedSpanNames) {
+    this.rules = rules;
+    this.defaultSampler = defaultSampler;
+    this.maxCachedSpanNames = maxCachedSpanNames;
+    this.compiledRules = new CompiledRules[NUM_SLOTS];
+    for (Kind spanKind : KINDS) {
+      compiledRules[slot(spanKind, false)] = new CompiledRules(rules, spanKind, false);
+      compiledRules[slot(spanKind, true)] = new CompiledRules(rules, spanKind, true);
+    }
+    this.samplersBySpanName = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns a new {@link Builder} for {@link RuleBasedSampler}.
+   *
+   * @param defaultSampler the {@code Sampler} used when no rule matches the new {@code Span}.
+   * @return a new {@link Builder}.
+   * @throws NullPointerException if the {@code defaultSampler} is {@code null}.
+   * @since 0.2.0
+   */
+  public static Builder newBuilder(Sampler defaultSampler) {
+    return new Builder(defaultSampler);
+  }
+
+  @Override
+  public Decision shouldSample(
+      @Nullable SpanContext parentContext,
+      @Nullable Boolean hasRemoteParent,
+      TraceId traceId,
+      SpanId spanId,
+      String name,
+      Kind spanKind,
+      List<Link> parentLinks) {
+    return getSampler(name, spanKind, Boolean.TRUE.equals(hasRemoteParent))
+        .shouldSample(
+            parentContext, hasRemoteParent, traceId, spanId, name, spanKind, parentLinks);
+  }
+
+  // Returns the Sampler of the first rule that matches, or the default Sampler.
+  Sampler getSampler(String name, Kind spanKind, boolean hasRemoteParent) {
+    int slot = slot(spanKind, hasRemoteParent);
+    Sampler[] samplers = samplersBySpanName.get(name);
+    if (samplers != null) {
+      return samplers[slot];
+    }
+    if (samplersBySpanName.size() >= maxCachedSpanNames) {
+      // The cache is full, the span names that are not cached are matched on every decision.
+      return compiledRules[slot].match(name);
+    }
+    samplers = new Sampler[NUM_SLOTS];
+    for (int i = 0; i < NUM_SLOTS; i++) {
+      samplers[i] = compiledRules[i].match(name);
+    }
+    samplersBySpanName.putIfAbsent(name, samplers);
+    return samplers[slot];
+  }
+
+  @Override
+  public String getDescription() {
+    StringBuilder description = new StringBuilder("RuleBasedSampler{rules=[");
+    for (int i = 0; i < rules.size(); i++) {
+      if (i > 0) {
+        description.append(", ");
+      }
+      description.append(rules.get(i).getDescription());
+    }
+    return description
+        .append("], default=")
+        .append(defaultSampler.getDescription())
+        .append('}')
+        .toString();
+  }
+
+  @Override
+  public String toString() {
+    return getDescription();
+  }
+
+  private static int slot(Kind spanKind, boolean hasRemoteParent) {
+    return spanKind.ordinal() * 2 + (hasRemoteParent ? 1 : 0);
+  }
+
+  /**
+   * A rule of a {@link RuleBasedSampler}. A rule matches a new {@code Span} if all its criteria
+   * match, a rule without criteria matches all the spans.
+   *
+   * @since 0.2.0
+   */
+  @AutoValue
+  @Immutable
+  public abstract static class Rule {
+
+    Rule() {}
+
+    /**
+     * Returns a new {@link Builder} for a {@link Rule} that selects the given {@code Sampler}.
+     *
+     * @param sampler the {@code Sampler} that makes the sampling decision for the matched spans.
+     * @return a new {@link Builder}.
+     * @throws NullPointerException if the {@code sampler} is {@code null}.
+     * @since 0.2.0
+     */
+    public static Builder newBuilder(Sampler sampler) {
+      return new AutoValue_RuleBasedSampler_Rule.Builder().setSampler(sampler);
+    }
+
+    /**
+     * Returns the span name that the span must have, or {@code null} if any name matches.
+     *
+     * @return the span name that the span must have.
+     * @since 0.2.0
+     */
+    @Nullable
+    public abstract String getSpanName();
+
+    /**
+     * Returns the prefix that the span name must start with, or {@code null} if any name matches.
+     *
+     * @return the prefix that the span name must start with.
+     * @since 0.2.0
+     */
+    @Nullable
+    public abstract String getSpanNamePrefix();
+
+    /**
+     * Returns the {@link Kind} that the span must have, or {@code null} if any kind matches.
+     *
+     * @return the {@code Kind} that the span must have.
+     * @since 0.2.0
+     */
+    @Nullable
+    public abstract Kind getSpanKind();
+
+    /**
+     * Returns whether the parent of the span must be remote, or {@code null} if any parent matches.
+     * Root spans do not have a remote parent.
+     *
+     * @return whether the parent of the span must be remote.
+     * @since 0.2.0
+     */
+    @Nullable
+    public abstract Boolean getHasRemoteParent();
+
+    /**
+     * Returns the {@link Sampler} that makes the sampling decision for the matched spans.
+     *
+     * @return the {@code Sampler} that makes the sampling decision for the matched spans.
+     * @since 0.2.0
+     */
+    public abstract Sampler getSampler();
+
+    private boolean matches(Kind spanKind, boolean hasRemoteParent) {
+      return (getSpanKind() == null || getSpanKind() == spanKind)
+          && (getHasRemoteParent() == null || getHasRemoteParent() == hasRemoteParent);
+    }
+
+    private String getDescription() {
+      return "Rule{spanName="
+          + getSpanName()
+          + ", spanNamePrefix="
+          + getSpanNamePrefix()
+          + ", spanKind="
+          + getSpanKind()
+          + ", hasRemoteParent="
+          + getHasRemoteParent()
+          + ", sampler="
+          + getSampler().getDescription()
+          + "}";
+    }
+
+    /**
+     * Builder class for {@link Rule}.
+     *
+     * @since 0.2.0
+     */
+    @AutoValue.Builder
+    public abstract static class Builder {
+
+      Builder() {}
+
+      abstract Builder setSampler(Sampler sampler);
+
+      /**
+       * Sets the span name that the span must have. Cannot be used with {@link
+       * #setSpanNamePrefix(String)}.
+       *
+       * @param spanName the span name that the span must have.
+       * @return this.
+       * @since 0.2.0
+       */
+      public abstract Builder setSpanName(String spanName);
+
+      /**
+       * Sets the prefix that the span name must start with. Cannot be used with {@link
+       * #setSpanName(String)}.
+       *
+       * @param spanNamePrefix the prefix that the span name must start with.
+       * @return this.
+       * @since 0.2.0
+       */
+      public abstract Builder setSpanNamePrefix(String spanNamePrefix);
+
+      /**
+       * Sets the {@link Kind} that the span must have.
+       *
+       * @param spanKind the {@code Kind} that the span must have.
+       * @return this.
+       * @since 0.2.0
+       */
+      public abstract Builder setSpanKind(Kind spanKind);
+
+      /**
+       * Sets whether the parent of the span must be remote.
+       *
+       * @param hasRemoteParent whether the parent of the span must be remote.
+       * @return this.
+       * @since 0.2.0
+       */
+      public abstract Builder setHasRemoteParent(Boolean hasRemoteParent);
+
+      abstract Rule autoBuild();
+
+      /**
+       * Builds and returns a {@link Rule}.
+       *
+       * @return a {@code Rule}.
+       * @throws IllegalArgumentException if both the span name and the span name prefix are set.
+       * @since 0.2.0
+       */
+      public Rule build() {
+        Rule rule = autoBuild();
+        Preconditions.checkArgument(
+            rule.getSpanName() == null || rule.getSpanNamePrefix() == null,
+            "Only one of spanName and spanNamePrefix can be set.");
+        return rule;
+      }
+    }
+  }
+
+  /**
+   * Builder class for {@link RuleBasedSampler}.
+   *
+   * @since 0.2.0
+   */
+  public static final class Builder {
+    private final Sampler defaultSampler;
+    private final List<Rule> rules = new ArrayList<>();
+    private int maxCachedSpanNames = DEFAULT_MAX_CACHED_SPAN_NAMES;
+
+    private Builder(Sampler defaultSampler) {
+      this.defaultSampler = Preconditions.checkNotNull(defaultSampler, "defaultSampler");
+    }
+
+    /**
+     * Adds a rule after the rules already added. The first rule that matches a new {@code Span}
+     * selects the {@code Sampler}.
+     *
+     * @param rule the rule to add.
+     * @return this.
+     * @throws NullPointerException if the {@code rule} is {@code null}.
+     * @since 0.2.0
+     */
+    public Builder addRule(Rule rule) {
+      rules.add(Preconditions.checkNotNull(rule, "rule"));
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of span names for which the selected {@code Sampler} is cached. The
+     * default value is {@code 1024}.
+     *
+     * @param maxCachedSpanNames the maximum number of span names cached, must be positive.
+     * @return this.
+     * @throws IllegalArgumentException if {@code maxCachedSpanNames} is not positive.
+     * @since 0.2.0
+     */
+    public Builder setMaxCachedSpanNames(int maxCachedSpanNames) {
+      Preconditions.checkArgument(maxCachedSpanNames > 0, "maxCachedSpanNames must be positive.");
+      this.maxCachedSpanNames = maxCachedSpanNames;
+      return this;
+    }
+
+    /**
+     * Builds and returns a {@link RuleBasedSampler}.
+     *
+     * @return a {@code RuleBasedSampler}.
+     * @since 0.2.0
+     */
+    public RuleBasedSampler build() {
+      return new RuleBasedSampler(
+          Collections.unmodifiableList(new ArrayList<>(rules)), defaultSampler, maxCachedSpanNames);
+    }
+  }
+
+  // The rules that match one kind and remote parent flag, indexed by their span name criteria.
+  @Immutable
+  private final class CompiledRules {
+    // For every span name, the index of the first rule with that span name.
+    private final Map<String, Integer> firstRuleBySpanName = new HashMap<>();
+    // The indexes of the rules with a span name prefix, in order.
+    private final List<Integer> prefixRules = new ArrayList<>();
+    // The index of the first rule without span name criteria, or rules.size() if there is none.
+    private final int firstAnyNameRule;
+
+    private CompiledRules(List<Rule> rules, Kind spanKind, boolean hasRemoteParent) {
+      int anyNameRule = rules.size();
+      for (int i = 0; i < rules.size(); i++) {
+        Rule rule = rules.get(i);
+        if (!rule.matches(spanKind, hasRemoteParent)) {
+          continue;
+        }
+        if (rule.getSpanName() != null) {
+          if (!firstRuleBySpanName.containsKey(rule.getSpanName())) {
+            firstRuleBySpanName.put(rule.getSpanName(), i);
+          }
+        } else if (rule.getSpanNamePrefix() != null) {
+          prefixRules.add(i);
+        } else {
+          anyNameRule = i;
+          // The rules after this one never match first.
+          break;
+        }
+      }
+      this.firstAnyNameRule = anyNameRule;
+    }
+
+    private Sampler match(String name) {
+      int first = firstAnyNameRule;
+      Integer exactRule = firstRuleBySpanName.get(name);
+      if (exactRule != null && exactRule < first) {
+        first = exactRule;
+      }
+      for (int i = 0; i < prefixRules.size() && prefixRules.get(i) < first; i++) {
+        if (name.startsWith(rules.get(prefixRules.get(i)).getSpanNamePrefix())) {
+          first = prefixRules.get(i);
+          break;
+        }
+      }
+      return first < rules.size() ? rules.get(first).getSampler() : defaultSampler;
+    }
+  }
+}
@@ -45,6 +45,7 @@ public interface Sampler {
    *     the parentContext, unless this is a root span.
    * @param spanId the {@link SpanId} for the new {@code Span}.
    * @param name the name of the new {@code Span}.
+   * @param spanKind the {@link Span.Kind} of the new {@code Span}.
    * @param parentLinks the parentLinks associated with the new {@code Span}.
    * @return sampling decision whether span should be sampled or not.
    * @since 0.1.0
@@ -55,6 +56,7 @@ public interface Sampler {
       TraceId traceId,
       SpanId spanId,
       String name,
+      Span.Kind spanKind,
       List<Link> parentLinks);
 
   /**
@@ -70,7 +72,7 @@ public interface Sampler {
 
   /**
    * Sampling decision returned by {@link Sampler#shouldSample(SpanContext, Boolean, TraceId,
-   * SpanId, String, List)}.
+   * SpanId, String, Span.Kind, List)}.
    *
    * @since 0.1.0
    */
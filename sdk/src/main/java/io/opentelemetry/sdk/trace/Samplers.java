@@ -17,19 +17,26 @@
 package io.opentelemetry.sdk.trace;
 
 import com.google.auto.value.AutoValue;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.internal.MillisClock;
 import io.opentelemetry.sdk.trace.Sampler.Decision;
 import io.opentelemetry.trace.AttributeValue;
 import io.opentelemetry.trace.Link;
 import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Span.Kind;
 import io.opentelemetry.trace.SpanContext;
 import io.opentelemetry.trace.SpanId;
 import io.opentelemetry.trace.TraceId;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
 
 /**
  * Static class to access a set of pre-defined {@link Sampler Samplers}.
@@ -78,6 +85,72 @@ public final class Samplers {
     return Probability.create(probability);
   }
 
+  /**
+   * Returns a {@link Sampler} that samples a child span if and only if its parent is sampled, and
+   * delegates the decisions of the root spans to the given {@code Sampler}. Use {@link
+   * ParentBasedSampler#newBuilder(Sampler)} to configure the decisions of the child spans.
+   *
+   * @param root the {@code Sampler} that makes the sampling decision for the root spans.
+   * @return a parent based {@link Sampler}.
+   * @throws NullPointerException if the {@code root} is {@code null}.
+   * @since 0.2.0
+   */
+  public static Sampler parentBased(Sampler root) {
+    return ParentBasedSampler.newBuilder(root).build();
+  }
+
+  /**
+   * Returns a new rate limiting {@link Sampler} that samples at most {@code tracesPerSecond} new
+   * traces per second, with bursts of up to one second worth of traces.
+   *
+   * <p>The rate only applies to the root spans. Spans with a valid parent follow the sampling
+   * decision of their parent, so that the sampled traces are complete.
+   *
+   * <p>The rate is enforced with a lock-free token bucket, sampling decisions never block and do
+   * not allocate.
+   *
+   * @param tracesPerSecond the maximum number of traces sampled per second, must be positive.
+   * @return a new rate limiting {@link Sampler}.
+   * @throws IllegalArgumentException if {@code tracesPerSecond} is not positive.
+   * @since 0.2.0
+   */
+  public static Sampler rateLimiting(double tracesPerSecond) {
+    return rateLimiting(tracesPerSecond, MillisClock.getInstance());
+  }
+
+  @VisibleForTesting
+  static Sampler rateLimiting(double tracesPerSecond, Clock clock) {
+    Preconditions.checkArgument(tracesPerSecond > 0, "tracesPerSecond must be positive.");
+    return new RateLimitingSampler(tracesPerSecond, clock);
+  }
+
+  /**
+   * Returns a new adaptive {@link Sampler} that targets {@code sampledPerSecond} sampled root spans
+   * per second. Every second the sampler measures the rate of root spans it was asked about and
+   * updates its sampling probability so that the expected rate of sampled root spans matches the
+   * target. The sampler starts with a probability of {@code 1.0}.
+   *
+   * <p>The sampling decision itself is the same as the one of the {@link #probability(double)
+   * Probability} sampler with the current probability, so all the spans of a trace get the same
+   * decision as long as the probability does not change.
+   *
+   * @param sampledPerSecond the target number of sampled root spans per second, must be positive.
+   * @return a new adaptive {@link Sampler}.
+   * @throws IllegalArgumentException if {@code sampledPerSecond} is not positive.
+   * @since 0.2.0
+   */
+  public static Sampler throughputTargeting(double sampledPerSecond) {
+    return throughputTargeting(
+        sampledPerSecond, TimeUnit.SECONDS.toNanos(1), MillisClock.getInstance());
+  }
+
+  @VisibleForTesting
+  static Sampler throughputTargeting(double sampledPerSecond, long windowNanos, Clock clock) {
+    Preconditions.checkArgument(sampledPerSecond > 0, "sampledPerSecond must be positive.");
+    Preconditions.checkArgument(windowNanos > 0, "windowNanos must be positive.");
+    return new ThroughputTargetingSampler(sampledPerSecond, windowNanos, clock);
+  }
+
   @Immutable
   private static final class AlwaysOnSampler implements Sampler {
     AlwaysOnSampler() {}
@@ -90,6 +163,7 @@ public final class Samplers {
         TraceId traceId,
         SpanId spanId,
         String name,
+        Kind spanKind,
         List<Link> parentLinks) {
       return ALWAYS_ON_DECISION;
     }
@@ -117,6 +191,7 @@ public final class Samplers {
         TraceId traceId,
         SpanId spanId,
         String name,
+        Kind spanKind,
         List<Link> parentLinks) {
       return ALWAYS_OFF_DECISION;
     }
@@ -174,19 +249,12 @@ public final class Samplers {
         TraceId traceId,
         SpanId spanId,
         String name,
+        Kind spanKind,
         @Nullable List<Link> parentLinks) {
       // If the parent is sampled keep the sampling decision.
       if (parentContext != null && parentContext.getTraceFlags().isSampled()) {
         return ALWAYS_ON_DECISION;
       }
-      if (parentLinks != null) {
-        // If any parent link is sampled keep the sampling decision.
-        for (Link parentLink : parentLinks) {
-          if (parentLink.getContext().getTraceFlags().isSampled()) {
-            return ALWAYS_ON_DECISION;
-          }
-        }
-      }
       // Always sample if we are within probability range. This is true even for child spans (that
       // may have had a different sampling decision made) to allow for different sampling policies,
       // and dynamic increases to sampling probabilities for debugging purposes.
@@ -194,9 +262,19 @@ public final class Samplers {
       // while allowing for a (very) small chance of *not* sampling if the id == Long.MAX_VALUE.
       // This is considered a reasonable tradeoff for the simplicity/performance requirements (this
       // code is executed in-line for every Span creation).
-      return Math.abs(traceId.getLowerLong()) < getIdUpperBound()
-          ? ALWAYS_ON_DECISION
-          : ALWAYS_OFF_DECISION;
+      if (Math.abs(traceId.getLowerLong()) < getIdUpperBound()) {
+        return ALWAYS_ON_DECISION;
+      }
+      if (parentLinks != null) {
+        // If any parent link is sampled keep the sampling decision. Checked after the id which is
+        // cheaper and usually decides.
+        for (Link parentLink : parentLinks) {
+          if (parentLink.getContext().getTraceFlags().isSampled()) {
+            return ALWAYS_ON_DECISION;
+          }
+        }
+      }
+      return ALWAYS_OFF_DECISION;
     }
 
     @Override
@@ -205,6 +283,141 @@ public final class Samplers {
     }
   }
 
+  /**
+   * Implements the token bucket with the generic cell rate algorithm: the only state is the time at
+   * which the bucket will be full again, which a successful decision moves forward by the cost of
+   * one trace with a single compare-and-set. Decisions that find the bucket empty only read it.
+   */
+  @ThreadSafe
+  private static final class RateLimitingSampler implements Sampler {
+    private final double tracesPerSecond;
+    private final Clock clock;
+    // The time it takes to refill the bucket with one trace.
+    private final long nanosPerTrace;
+    // The time it takes to refill the empty bucket, the bucket holds one second worth of traces.
+    private final long maxDebtNanos;
+    // The nanoTime at which the bucket is full again, or a time in the past if it is already full.
+    private final AtomicLong fullAtNanos;
+
+    RateLimitingSampler(double tracesPerSecond, Clock clock) {
+      this.tracesPerSecond = tracesPerSecond;
+      this.clock = clock;
+      this.nanosPerTrace = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / tracesPerSecond));
+      this.maxDebtNanos = Math.max(1, (long) Math.ceil(tracesPerSecond)) * nanosPerTrace;
+      this.fullAtNanos = new AtomicLong(clock.nanoTime());
+    }
+
+    @Override
+    public Decision shouldSample(
+        @Nullable SpanContext parentContext,
+        @Nullable Boolean hasRemoteParent,
+        TraceId traceId,
+        SpanId spanId,
+        String name,
+        Kind spanKind,
+        List<Link> parentLinks) {
+      if (parentContext != null && parentContext.isValid()) {
+        return parentContext.getTraceFlags().isSampled() ? ALWAYS_ON_DECISION : ALWAYS_OFF_DECISION;
+      }
+      return tryAcquire() ? ALWAYS_ON_DECISION : ALWAYS_OFF_DECISION;
+    }
+
+    private boolean tryAcquire() {
+      long now = clock.nanoTime();
+      while (true) {
+        long fullAt = fullAtNanos.get();
+        // Compares differences, nanoTime values may overflow.
+        long newFullAt = (fullAt - now < 0 ? now : fullAt) + nanosPerTrace;
+        if (newFullAt - now > maxDebtNanos) {
+          return false;
+        }
+        if (fullAtNanos.compareAndSet(fullAt, newFullAt)) {
+          return true;
+        }
+      }
+    }
+
+    @Override
+    public String getDescription() {
+      return String.format("RateLimitingSampler{%.6f}", tracesPerSecond);
+    }
+
+    @Override
+    public String toString() {
+      return getDescription();
+    }
+  }
+
+  /**
+   * Counts the root spans of the current window in a {@link StripedCounter} so that threads
+   * recording decisions concurrently do not contend on a single counter. The first decision after
+   * the end of a window collects the counter and publishes a new {@link Probability} sampler that
+   * all the decisions of the next window delegate to.
+   */
+  @ThreadSafe
+  static final class ThroughputTargetingSampler implements Sampler {
+    private final double sampledPerSecond;
+    private final long windowNanos;
+    private final Clock clock;
+    private final StripedCounter rootSpans = new StripedCounter();
+    private final AtomicLong windowStartNanos;
+    private volatile Probability probability = Probability.create(1.0);
+
+    ThroughputTargetingSampler(double sampledPerSecond, long windowNanos, Clock clock) {
+      this.sampledPerSecond = sampledPerSecond;
+      this.windowNanos = windowNanos;
+      this.clock = clock;
+      this.windowStartNanos = new AtomicLong(clock.nanoTime());
+    }
+
+    @Override
+    public Decision shouldSample(
+        @Nullable SpanContext parentContext,
+        @Nullable Boolean hasRemoteParent,
+        TraceId traceId,
+        SpanId spanId,
+        String name,
+        Kind spanKind,
+        @Nullable List<Link> parentLinks) {
+      if (parentContext == null || !parentContext.isValid()) {
+        maybeUpdateProbability();
+        rootSpans.increment();
+      }
+      return probability.shouldSample(
+          parentContext, hasRemoteParent, traceId, spanId, name, spanKind, parentLinks);
+    }
+
+    private void maybeUpdateProbability() {
+      long now = clock.nanoTime();
+      long windowStart = windowStartNanos.get();
+      long elapsedNanos = now - windowStart;
+      // Only the thread that moves the window forward collects the counter.
+      if (elapsedNanos < windowNanos || !windowStartNanos.compareAndSet(windowStart, now)) {
+        return;
+      }
+      double rootSpansPerSecond =
+          rootSpans.sumThenReset() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+      probability =
+          Probability.create(
+              rootSpansPerSecond <= sampledPerSecond ? 1.0 : sampledPerSecond / rootSpansPerSecond);
+    }
+
+    @VisibleForTesting
+    double getProbability() {
+      return probability.getProbability();
+    }
+
+    @Override
+    public String getDescription() {
+      return String.format("ThroughputTargetingSampler{%.6f}", sampledPerSecond);
+    }
+
+    @Override
+    public String toString() {
+      return getDescription();
+    }
+  }
+
   /** Sampling decision without attributes. */
   @Immutable
   private static final class SimpleDecision implements Decision {
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import java.util.List;
+
+/**
+ * A {@link SpanProcessor} that can process many ended spans at once, for example with a single
+ * queue operation instead of one per span. The SDK calls {@link #onEndBatch(List)} instead of
+ * {@link #onEnd(ReadableSpan)} when the ended spans are batched with a {@link SpanEndBatcher}.
+ *
+ * @since 0.2.0
+ */
+public interface SpanBatchProcessor extends SpanProcessor {
+  /**
+   * Called with spans that ended, in the order they ended on their thread. It must behave as if
+   * {@link #onEnd(ReadableSpan)} was called for every span of the list, including for the
+   * ownership of the spans described in {@link SpanRecycler}.
+   *
+   * <p>The list must not be used after this method returns.
+   *
+   * @param spans the {@code ReadableSpan}s that ended.
+   * @since 0.2.0
+   */
+  void onEndBatch(List<ReadableSpan> spans);
+}
@@ -18,7 +18,6 @@ package io.opentelemetry.sdk.trace;
 
 import io.opentelemetry.internal.Utils;
 import io.opentelemetry.sdk.common.Clock;
-import io.opentelemetry.sdk.internal.MonotonicClock;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.trace.Sampler.Decision;
 import io.opentelemetry.sdk.trace.config.TraceConfig;
@@ -35,6 +34,7 @@ import io.opentelemetry.trace.Tracestate;
 import io.opentelemetry.trace.unsafe.ContextUtils;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -52,11 +52,16 @@ class SpanBuilderSdk implements Span.Builder {
   private final Resource resource;
   private final IdsGenerator idsGenerator;
   private final Clock clock;
+  @Nullable private final SpanLeakDetector leakDetector;
+  @Nullable private final SpanRecycler recycler;
+  @Nullable private final SpanMemoryBudget memoryBudget;
 
   @Nullable private Span parent;
   @Nullable private SpanContext remoteParent;
   private Kind spanKind = Kind.INTERNAL;
   private List<Link> links;
+  private Map<String, AttributeValue> attributes;
+  @Nullable private SpanTemplate template;
   private ParentType parentType = ParentType.CURRENT_SPAN;
   private long startEpochNanos = 0;
 
@@ -66,14 +71,28 @@ class SpanBuilderSdk implements Span.Builder {
       TraceConfig traceConfig,
       Resource resource,
       IdsGenerator idsGenerator,
-      Clock clock) {
+      Clock clock,
+      @Nullable SpanLeakDetector leakDetector,
+      @Nullable SpanRecycler recycler,
+      @Nullable SpanMemoryBudget memoryBudget) {
     this.spanName = spanName;
     this.spanProcessor = spanProcessor;
     this.traceConfig = traceConfig;
     this.resource = resource;
     this.links = Collections.emptyList();
+    this.attributes = Collections.emptyMap();
     this.idsGenerator = idsGenerator;
     this.clock = clock;
+    this.leakDetector = leakDetector;
+    this.recycler = recycler;
+    this.memoryBudget = memoryBudget;
+  }
+
+  // Starts the span from the given template, the span kind can still be changed afterwards.
+  SpanBuilderSdk setTemplate(SpanTemplate template) {
+    this.template = template;
+    this.spanKind = template.getKind();
+    return this;
   }
 
   @Override
@@ -129,6 +148,21 @@ class SpanBuilderSdk implements Span.Builder {
     return this;
   }
 
+  @Override
+  public Span.Builder setAttributes(Map<String, AttributeValue> attributes) {
+    Utils.checkNotNull(attributes, "attributes");
+    for (Map.Entry<String, AttributeValue> entry : attributes.entrySet()) {
+      Utils.checkNotNull(entry.getKey(), "key");
+      Utils.checkNotNull(entry.getValue(), "value");
+    }
+    // This is the Collections.emptyMap which is immutable.
+    if (this.attributes.isEmpty()) {
+      this.attributes = new LinkedHashMap<>();
+    }
+    this.attributes.putAll(attributes);
+    return this;
+  }
+
   @Override
   public Span.Builder setStartTimestamp(long startTimestamp) {
     Utils.checkArgument(startTimestamp >= 0, "Negative startTimestamp");
@@ -138,7 +172,12 @@ class SpanBuilderSdk implements Span.Builder {
 
   @Override
   public Span startSpan() {
-    SpanContext parentContext = parent(parentType, parent, remoteParent);
+    // Reads the current span at most once, it is both the parent context and the local parent.
+    Span parentSpan = parentSpan(parentType, parent);
+    SpanContext parentContext =
+        parentType == ParentType.EXPLICIT_REMOTE_PARENT
+            ? remoteParent
+            : parentSpan != null ? parentSpan.getContext() : null;
     TraceId traceId;
     SpanId spanId = idsGenerator.generateSpanId();
     Tracestate tracestate = Tracestate.getDefault();
@@ -152,35 +191,65 @@ class SpanBuilderSdk implements Span.Builder {
       traceId = parentContext.getTraceId();
       tracestate = parentContext.getTracestate();
     }
+    Boolean hasRemoteParent =
+        parentContext == null ? null : parentType == ParentType.EXPLICIT_REMOTE_PARENT;
     Decision samplingDecision =
         traceConfig
             .getSampler()
             .shouldSample(
-                parentContext, /* hasRemoteParent= */ false, traceId, spanId, spanName, links);
-    SpanContext spanContext =
-        SpanContext.create(
-            traceId,
-            spanId,
-            samplingDecision.isSampled() ? TRACE_OPTIONS_SAMPLED : TRACE_OPTIONS_NOT_SAMPLED,
-            tracestate);
-
+                parentContext, hasRemoteParent, traceId, spanId, spanName, spanKind, links);
     if (!samplingDecision.isSampled()) {
-      return DefaultSpan.create(spanContext);
+      // Nothing is recorded, the span only carries its context so that it can be propagated.
+      return DefaultSpan.create(
+          SpanContext.create(traceId, spanId, TRACE_OPTIONS_NOT_SAMPLED, tracestate));
+    }
+    if (memoryBudget != null && !memoryBudget.tryReserveSpan()) {
+      // The sampling decision is kept so that the rest of the trace is still recorded elsewhere.
+      return DefaultSpan.create(
+          SpanContext.create(traceId, spanId, TRACE_OPTIONS_SAMPLED, tracestate));
     }
 
     return RecordEventsReadableSpan.startSpan(
-        spanContext,
+        SpanContext.create(traceId, spanId, TRACE_OPTIONS_SAMPLED, tracestate),
         spanName,
         spanKind,
         parentContext != null ? parentContext.getSpanId() : null,
         traceConfig,
         spanProcessor,
-        getClock(parentSpan(parentType, parent), clock),
+        clock,
+        localParentSpan(parentSpan),
         resource,
-        samplingDecision.attributes(),
+        startAttributes(samplingDecision.attributes()),
         truncatedLinks(),
         links.size(),
-        startEpochNanos);
+        startEpochNanos,
+        leakDetector,
+        recycler,
+        memoryBudget);
+  }
+
+  // The attributes of the template, followed by the attributes set on the builder and by the
+  // attributes returned by the sampler. The attributes of the template are only copied if there
+  // are other attributes, otherwise the span shares them.
+  private Map<String, AttributeValue> startAttributes(
+      Map<String, AttributeValue> samplingAttributes) {
+    Map<String, AttributeValue> templateAttributes =
+        template == null
+            ? Collections.<String, AttributeValue>emptyMap()
+            : template.getAttributes();
+    if (attributes.isEmpty() && samplingAttributes.isEmpty()) {
+      return templateAttributes;
+    }
+    if (templateAttributes.isEmpty() && samplingAttributes.isEmpty()) {
+      return attributes;
+    }
+    if (templateAttributes.isEmpty() && attributes.isEmpty()) {
+      return samplingAttributes;
+    }
+    Map<String, AttributeValue> startAttributes = new LinkedHashMap<>(templateAttributes);
+    startAttributes.putAll(attributes);
+    startAttributes.putAll(samplingAttributes);
+    return startAttributes;
   }
 
   private List<Link> truncatedLinks() {
@@ -190,31 +259,14 @@ class SpanBuilderSdk implements Span.Builder {
     return links.subList(links.size() - traceConfig.getMaxNumberOfLinks(), links.size());
   }
 
-  private static Clock getClock(Span parent, Clock clock) {
+  @Nullable
+  private static RecordEventsReadableSpan localParentSpan(@Nullable Span parent) {
     if (parent instanceof RecordEventsReadableSpan) {
       RecordEventsReadableSpan parentRecordEventsSpan = (RecordEventsReadableSpan) parent;
       parentRecordEventsSpan.addChild();
-      return parentRecordEventsSpan.getClock();
-    } else {
-      return MonotonicClock.create(clock);
-    }
-  }
-
-  @Nullable
-  private static SpanContext parent(
-      ParentType parentType, Span explicitParent, SpanContext remoteParent) {
-    Span currentSpan = ContextUtils.getValue();
-    switch (parentType) {
-      case NO_PARENT:
-        return null;
-      case CURRENT_SPAN:
-        return currentSpan != null ? currentSpan.getContext() : null;
-      case EXPLICIT_PARENT:
-        return explicitParent.getContext();
-      case EXPLICIT_REMOTE_PARENT:
-        return remoteParent;
+      return parentRecordEventsSpan;
     }
-    throw new IllegalStateException("Unknown parent type");
+    return null;
   }
 
   @Nullable
@@ -47,16 +47,50 @@ public abstract class SpanData {
   /**
    * Gets the trace id for this span.
    *
+   * <p>The ids are stored as {@code long} values, a new {@code TraceId} is created on every call.
+   * Use {@link #getTraceIdHigh()} and {@link #getTraceIdLow()} to read the id without allocating.
+   *
    * @return the trace id.
    */
-  public abstract TraceId getTraceId();
+  public TraceId getTraceId() {
+    return new TraceId(getTraceIdHigh(), getTraceIdLow());
+  }
+
+  /**
+   * Returns the higher 8 bytes of the trace id for this span, see {@link TraceId#getIdHi()}.
+   *
+   * @return the higher 8 bytes of the trace id.
+   * @since 0.2.0
+   */
+  public abstract long getTraceIdHigh();
+
+  /**
+   * Returns the lower 8 bytes of the trace id for this span, see {@link TraceId#getIdLo()}.
+   *
+   * @return the lower 8 bytes of the trace id.
+   * @since 0.2.0
+   */
+  public abstract long getTraceIdLow();
 
   /**
    * Gets the span id for this span.
    *
+   * <p>A new {@code SpanId} is created on every call. Use {@link #getSpanIdAsLong()} to read the id
+   * without allocating.
+   *
    * @return the span id.
    */
-  public abstract SpanId getSpanId();
+  public SpanId getSpanId() {
+    return new SpanId(getSpanIdAsLong());
+  }
+
+  /**
+   * Returns the span id for this span as a {@code long}, see {@link SpanId#getId()}.
+   *
+   * @return the span id as a {@code long}.
+   * @since 0.2.0
+   */
+  public abstract long getSpanIdAsLong();
 
   /**
    * Gets the trace flags for this span.
@@ -79,7 +113,18 @@ public abstract class SpanData {
    * @return the parent {@code SpanId} or an invalid SpanId if this is a root {@code Span}.
    * @since 0.1.0
    */
-  public abstract SpanId getParentSpanId();
+  public SpanId getParentSpanId() {
+    long parentSpanId = getParentSpanIdAsLong();
+    return parentSpanId == 0 ? SpanId.getInvalid() : new SpanId(parentSpanId);
+  }
+
+  /**
+   * Returns the parent span id as a {@code long}, {@code 0} if this is a root {@code Span}.
+   *
+   * @return the parent span id as a {@code long}.
+   * @since 0.2.0
+   */
+  public abstract long getParentSpanIdAsLong();
 
   /**
    * Returns the resource of this {@code Span}.
@@ -153,6 +198,15 @@ public abstract class SpanData {
    */
   public abstract long getEndEpochNanos();
 
+  /**
+   * Returns the number of attribute values and event names of this {@code Span} that were truncated
+   * because they were longer than the limits of the {@code TraceConfig}.
+   *
+   * @return the number of attribute values and event names that were truncated.
+   * @since 0.2.0
+   */
+  public abstract int getNumberOfTruncatedValues();
+
   /**
    * An immutable implementation of {@link Link}.
    *
@@ -185,6 +239,11 @@ public abstract class SpanData {
       return new AutoValue_SpanData_Link(
           spanContext, Collections.unmodifiableMap(new LinkedHashMap<>(attributes)));
     }
+
+    // Creates a link that uses the given attributes without copying them, they must be immutable.
+    static Link createWithoutCopy(SpanContext spanContext, Map<String, AttributeValue> attributes) {
+      return new AutoValue_SpanData_Link(spanContext, attributes);
+    }
   }
 
   /**
@@ -226,6 +285,16 @@ public abstract class SpanData {
     TimedEvent() {}
   }
 
+  /**
+   * Returns a new Builder initialized with the values of this {@code SpanData}. The {@link
+   * Builder#build()} method copies the collections, which is how the {@code SpanData} of a span
+   * recycled by a {@link SpanRecycler} is kept after the span is released.
+   *
+   * @return a new Builder initialized with the values of this {@code SpanData}.
+   * @since 0.2.0
+   */
+  public abstract Builder toBuilder();
+
   /**
    * Creates a new Builder for creating an SpanData instance.
    *
@@ -234,13 +303,14 @@ public abstract class SpanData {
    */
   public static Builder newBuilder() {
     return new AutoValue_SpanData.Builder()
-        .setParentSpanId(SpanId.getInvalid())
+        .setParentSpanIdAsLong(0)
         .setLinks(Collections.<io.opentelemetry.trace.Link>emptyList())
         .setAttributes(Collections.<String, AttributeValue>emptyMap())
         .setTimedEvents(Collections.<TimedEvent>emptyList())
         .setResource(Resource.getEmpty())
         .setTracestate(Tracestate.getDefault())
-        .setTraceFlags(TraceFlags.getDefault());
+        .setTraceFlags(TraceFlags.getDefault())
+        .setNumberOfTruncatedValues(0);
   }
 
   /**
@@ -262,24 +332,58 @@ public abstract class SpanData {
     /**
      * Create a new SpanData instance from the data in this.
      *
+     * <p>The collections are always copied, so the new instance does not share the storage of a
+     * span that is recycled by a {@link SpanRecycler}.
+     *
      * @return a new SpanData instance
      * @since 0.1.0
      */
     public SpanData build() {
-      // make unmodifiable copies of any collections
+      // make unmodifiable copies of any collections, the attributes recorded by the SDK may be
+      // reused once their span is released.
       setAttributes(Collections.unmodifiableMap(new HashMap<>(getAttributes())));
       setTimedEvents(Collections.unmodifiableList(new ArrayList<>(getTimedEvents())));
       setLinks(Collections.unmodifiableList(new ArrayList<>(getLinks())));
       return autoBuild();
     }
 
+    /**
+     * Create a new SpanData instance that directly uses the collections set on this builder. Used
+     * by the SDK for collections that are already immutable.
+     *
+     * @return a new SpanData instance
+     */
+    SpanData buildWithoutCopy() {
+      return autoBuild();
+    }
+
     /**
      * Set the trace id on this builder.
      *
      * @param traceId the trace id.
      * @return this builder (for chaining).
      */
-    public abstract Builder setTraceId(TraceId traceId);
+    public Builder setTraceId(TraceId traceId) {
+      return setTraceIdHigh(traceId.getIdHi()).setTraceIdLow(traceId.getIdLo());
+    }
+
+    /**
+     * Set the higher 8 bytes of the trace id on this builder.
+     *
+     * @param traceIdHigh the higher 8 bytes of the trace id.
+     * @return this builder (for chaining).
+     * @since 0.2.0
+     */
+    public abstract Builder setTraceIdHigh(long traceIdHigh);
+
+    /**
+     * Set the lower 8 bytes of the trace id on this builder.
+     *
+     * @param traceIdLow the lower 8 bytes of the trace id.
+     * @return this builder (for chaining).
+     * @since 0.2.0
+     */
+    public abstract Builder setTraceIdLow(long traceIdLow);
 
     /**
      * Set the span id on this builder.
@@ -287,7 +391,18 @@ public abstract class SpanData {
      * @param spanId the span id.
      * @return this builder (for chaining).
      */
-    public abstract Builder setSpanId(SpanId spanId);
+    public Builder setSpanId(SpanId spanId) {
+      return setSpanIdAsLong(spanId.getId());
+    }
+
+    /**
+     * Set the span id as a {@code long} on this builder.
+     *
+     * @param spanId the span id as a {@code long}.
+     * @return this builder (for chaining).
+     * @since 0.2.0
+     */
+    public abstract Builder setSpanIdAsLong(long spanId);
 
     /**
      * Set the trace flags on this builder.
@@ -313,7 +428,18 @@ public abstract class SpanData {
      * @see SpanId
      * @since 0.1.0
      */
-    public abstract Builder setParentSpanId(SpanId parentSpanId);
+    public Builder setParentSpanId(SpanId parentSpanId) {
+      return setParentSpanIdAsLong(parentSpanId.getId());
+    }
+
+    /**
+     * Set the parent span id as a {@code long} on this builder, {@code 0} for a root span.
+     *
+     * @param parentSpanId the parent span id as a {@code long}.
+     * @return this builder (for chaining).
+     * @since 0.2.0
+     */
+    public abstract Builder setParentSpanIdAsLong(long parentSpanId);
 
     /**
      * Set the resource associated with this span. Must not be null.
@@ -400,5 +526,16 @@ public abstract class SpanData {
      * @since 0.1.0
      */
     public abstract Builder setLinks(List<io.opentelemetry.trace.Link> links);
+
+    /**
+     * Set the number of attribute values and event names that were truncated when recorded.
+     *
+     * <p>Default value is {@code 0}.
+     *
+     * @param numberOfTruncatedValues the number of truncated attribute values and event names.
+     * @return this
+     * @since 0.2.0
+     */
+    public abstract Builder setNumberOfTruncatedValues(int numberOfTruncatedValues);
   }
 }
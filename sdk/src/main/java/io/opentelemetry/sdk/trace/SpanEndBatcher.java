@@ -0,0 +1,325 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.internal.Utils;
+import io.opentelemetry.trace.Tracer;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Accumulates the spans that end on a thread in a buffer owned by that thread, and hands them to
+ * the {@link SpanProcessor}s in batches instead of one by one. Processors that implement {@link
+ * SpanBatchProcessor}, like {@link io.opentelemetry.sdk.trace.export.BatchSpansProcessor}, then
+ * process a whole batch with a single queue operation.
+ *
+ * <p>The buffer of a thread is flushed when:
+ *
+ * <ul>
+ *   <li>it contains {@code maxBatchSize} spans;
+ *   <li>the outermost {@link Scope} opened on the thread with {@link TracerSdk#withSpan} is closed,
+ *       which is usually the end of a request;
+ *   <li>its oldest span ended more than {@code maxDelayMillis} ago, checked by a background daemon
+ *       thread;
+ *   <li>{@link #flush()} is called.
+ * </ul>
+ *
+ * <p>{@link SpanProcessor#onEnd(ReadableSpan)} is therefore called later than the end of the span,
+ * and possibly on the background thread. The batched spans are retained until they are handed to
+ * the processors, as described in {@link SpanRecycler}.
+ *
+ * @since 0.2.0
+ */
+@ThreadSafe
+public final class SpanEndBatcher {
+  private static final Logger logger = Logger.getLogger(Tracer.class.getName());
+  private static final String WORKER_THREAD_NAME =
+      SpanEndBatcher.class.getSimpleName() + "_WorkerThread";
+
+  private final int maxBatchSize;
+  private final long maxDelayMillis;
+  private final Set<Buffer> buffers =
+      Collections.newSetFromMap(new ConcurrentHashMap<Buffer, Boolean>());
+  private final ThreadLocal<Buffer> threadBuffer =
+      new ThreadLocal<Buffer>() {
+        @Override
+        protected Buffer initialValue() {
+          Buffer buffer = new Buffer(Thread.currentThread());
+          buffers.add(buffer);
+          return buffer;
+        }
+      };
+  private final Thread workerThread;
+
+  private SpanEndBatcher(int maxBatchSize, long maxDelayMillis) {
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelayMillis = maxDelayMillis;
+    this.workerThread = newThread(new Worker());
+    this.workerThread.start();
+  }
+
+  /**
+   * Returns a new {@code SpanEndBatcher} that hands the ended spans to the processors in batches of
+   * up to {@code maxBatchSize} spans, at most {@code maxDelayMillis} milliseconds (plus the period
+   * of the background thread) after they ended.
+   *
+   * @param maxBatchSize the maximum number of ended spans buffered by a thread.
+   * @param maxDelayMillis the maximum time an ended span is buffered.
+   * @return a new {@code SpanEndBatcher}.
+   * @throws IllegalArgumentException if {@code maxBatchSize} or {@code maxDelayMillis} is not
+   *     positive.
+   * @since 0.2.0
+   */
+  public static SpanEndBatcher create(int maxBatchSize, long maxDelayMillis) {
+    Utils.checkArgument(maxBatchSize > 0, "maxBatchSize must be positive.");
+    Utils.checkArgument(maxDelayMillis > 0, "maxDelayMillis must be positive.");
+    return new SpanEndBatcher(maxBatchSize, maxDelayMillis);
+  }
+
+  /**
+   * Hands the spans buffered by every thread to the processors.
+   *
+   * @since 0.2.0
+   */
+  public void flush() {
+    for (Buffer buffer : buffers) {
+      buffer.flush();
+    }
+  }
+
+  /**
+   * Stops the background thread and flushes the buffered spans. The spans that end after this call
+   * are only handed to the processors when their buffer is full or their outermost scope closes.
+   *
+   * @since 0.2.0
+   */
+  public void shutdown() {
+    workerThread.interrupt();
+    flush();
+  }
+
+  /**
+   * Returns a {@code SpanProcessor} that buffers the ended spans and hands them to the given
+   * processor in batches.
+   *
+   * @param spanProcessor the processor the batches are handed to.
+   * @return a {@code SpanProcessor} that batches the ended spans.
+   */
+  SpanProcessor wrap(SpanProcessor spanProcessor) {
+    return new BatchingSpanProcessor(spanProcessor);
+  }
+
+  /**
+   * Returns a {@code Scope} that closes the given scope and flushes the buffer of the current
+   * thread if it is the outermost scope.
+   *
+   * @param scope the scope that was just opened on the current thread.
+   * @return a {@code Scope} that flushes the buffer of the current thread when it is closed.
+   */
+  Scope withScope(Scope scope) {
+    Buffer buffer = threadBuffer.get();
+    buffer.scopeDepth++;
+    return new FlushingScope(scope, buffer);
+  }
+
+  private static Thread newThread(Runnable runnable) {
+    Thread thread = MoreExecutors.platformThreadFactory().newThread(runnable);
+    thread.setDaemon(true);
+    try {
+      thread.setName(WORKER_THREAD_NAME);
+    } catch (SecurityException e) {
+      // OK if we can't set the name in this environment.
+    }
+    return thread;
+  }
+
+  // Hands the spans to their processors, grouping the consecutive spans with the same processor.
+  private static void dispatch(List<ReadableSpan> spans, List<SpanProcessor> spanProcessors) {
+    int start = 0;
+    for (int i = 1; i <= spans.size(); i++) {
+      if (i == spans.size() || spanProcessors.get(i) != spanProcessors.get(start)) {
+        dispatch(spanProcessors.get(start), spans.subList(start, i));
+        start = i;
+      }
+    }
+  }
+
+  private static void dispatch(SpanProcessor spanProcessor, List<ReadableSpan> spans) {
+    try {
+      if (spanProcessor instanceof SpanBatchProcessor) {
+        ((SpanBatchProcessor) spanProcessor).onEndBatch(spans);
+      } else {
+        for (ReadableSpan span : spans) {
+          spanProcessor.onEnd(span);
+        }
+      }
+    } catch (RuntimeException e) {
+      // The batch may be handed over by the background thread, which must keep running.
+      logger.log(Level.WARNING, "Exception thrown by a SpanProcessor.", e);
+    } finally {
+      // Releases the references taken when the spans were buffered.
+      for (ReadableSpan span : spans) {
+        span.release();
+      }
+    }
+  }
+
+  private final class BatchingSpanProcessor implements SpanProcessor {
+    private final SpanProcessor spanProcessor;
+
+    private BatchingSpanProcessor(SpanProcessor spanProcessor) {
+      this.spanProcessor = spanProcessor;
+    }
+
+    @Override
+    public void onStart(ReadableSpan span) {
+      spanProcessor.onStart(span);
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+      // The span is handed to the processor after onEnd returns, keep it until then.
+      span.retain();
+      threadBuffer.get().add(spanProcessor, span);
+    }
+
+    @Override
+    public void shutdown() {
+      flush();
+      spanProcessor.shutdown();
+    }
+  }
+
+  // The ended spans of a thread. The owner thread adds the spans, any thread can flush them.
+  private final class Buffer {
+    private final WeakReference<Thread> owner;
+
+    @GuardedBy("this")
+    private List<ReadableSpan> spans = new ArrayList<>();
+
+    // The processor of every span, the active processor can change while spans are buffered.
+    @GuardedBy("this")
+    private List<SpanProcessor> spanProcessors = new ArrayList<>();
+
+    @GuardedBy("this")
+    private long firstAddedNanoTime;
+
+    // The number of open scopes of the owner thread, only used by the owner thread.
+    private int scopeDepth;
+
+    private Buffer(Thread owner) {
+      this.owner = new WeakReference<>(owner);
+    }
+
+    private void add(SpanProcessor spanProcessor, ReadableSpan span) {
+      boolean full;
+      synchronized (this) {
+        if (spans.isEmpty()) {
+          firstAddedNanoTime = System.nanoTime();
+        }
+        spans.add(span);
+        spanProcessors.add(spanProcessor);
+        full = spans.size() >= maxBatchSize;
+      }
+      if (full) {
+        flush();
+      }
+    }
+
+    private void flush() {
+      List<ReadableSpan> flushedSpans;
+      List<SpanProcessor> flushedSpanProcessors;
+      synchronized (this) {
+        if (spans.isEmpty()) {
+          return;
+        }
+        flushedSpans = spans;
+        flushedSpanProcessors = spanProcessors;
+        spans = new ArrayList<>(flushedSpans.size());
+        spanProcessors = new ArrayList<>(flushedSpans.size());
+      }
+      // Outside of the lock so that the owner thread is not blocked by a slow processor.
+      dispatch(flushedSpans, flushedSpanProcessors);
+    }
+
+    private synchronized boolean isOlderThan(long maxAgeNanos, long nanoTime) {
+      return !spans.isEmpty() && nanoTime - firstAddedNanoTime >= maxAgeNanos;
+    }
+
+    private boolean isOwnerAlive() {
+      Thread thread = owner.get();
+      return thread != null && thread.isAlive();
+    }
+  }
+
+  private static final class FlushingScope implements Scope {
+    private final Scope scope;
+    private final Buffer buffer;
+
+    private FlushingScope(Scope scope, Buffer buffer) {
+      this.scope = scope;
+      this.buffer = buffer;
+    }
+
+    @Override
+    public void close() {
+      scope.close();
+      if (--buffer.scopeDepth == 0) {
+        buffer.flush();
+      }
+    }
+  }
+
+  // Worker is a thread that flushes the buffers of the threads that stopped ending spans.
+  private final class Worker implements Runnable {
+    @Override
+    public void run() {
+      long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+      while (!Thread.currentThread().isInterrupted()) {
+        try {
+          Thread.sleep(maxDelayMillis);
+        } catch (InterruptedException e) {
+          // Preserve the interruption status as per guidance and stop doing any work.
+          Thread.currentThread().interrupt();
+          return;
+        }
+        long nanoTime = System.nanoTime();
+        for (Iterator<Buffer> iterator = buffers.iterator(); iterator.hasNext(); ) {
+          Buffer buffer = iterator.next();
+          if (!buffer.isOwnerAlive()) {
+            buffer.flush();
+            iterator.remove();
+          } else if (buffer.isOlderThan(maxDelayNanos, nanoTime)) {
+            buffer.flush();
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import com.google.common.collect.EvictingQueue;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.opentelemetry.internal.Utils;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.Tracer;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Detects recording spans that are garbage collected without being ended.
+ *
+ * <p>Only one in every {@code sampleRate} spans is tracked, using a {@link PhantomReference} that
+ * is processed by a background daemon thread. The untracked spans have no extra cost, and the
+ * tracked ones only cost one reference object, so this can be enabled in production.
+ *
+ * <p>The span is considered leaked if it is collected before {@link
+ * io.opentelemetry.trace.Span#end()} was called. The name recorded for a leaked span is the name
+ * the span had when it was started.
+ *
+ * @since 0.2.0
+ */
+@ThreadSafe
+public final class SpanLeakDetector {
+  private static final Logger logger = Logger.getLogger(Tracer.class.getName());
+  private static final String WORKER_THREAD_NAME =
+      SpanLeakDetector.class.getSimpleName() + "_WorkerThread";
+  private static final int MAX_LEAKED_SPAN_NAMES = 10;
+
+  private final int sampleRate;
+  private final ReferenceQueue<Object> referenceQueue = new ReferenceQueue<>();
+  // Keeps the references reachable until the span is ended or collected.
+  private final Set<SpanReference> trackedReferences =
+      Collections.newSetFromMap(new ConcurrentHashMap<SpanReference, Boolean>());
+  private final AtomicLong trackedSpans = new AtomicLong();
+  private final AtomicLong leakedSpans = new AtomicLong();
+  private final Thread workerThread;
+
+  @GuardedBy("leakedSpanNames")
+  private final EvictingQueue<String> leakedSpanNames =
+      EvictingQueue.create(MAX_LEAKED_SPAN_NAMES);
+
+  private SpanLeakDetector(int sampleRate) {
+    this.sampleRate = sampleRate;
+    this.workerThread = newThread(new Worker());
+    this.workerThread.start();
+  }
+
+  /**
+   * Returns a new {@code SpanLeakDetector} that tracks one in every {@code sampleRate} spans.
+   *
+   * @param sampleRate the inverse of the fraction of spans that are tracked, {@code 1} tracks every
+   *     span.
+   * @return a new {@code SpanLeakDetector}.
+   * @throws IllegalArgumentException if {@code sampleRate} is not positive.
+   * @since 0.2.0
+   */
+  public static SpanLeakDetector create(int sampleRate) {
+    Utils.checkArgument(sampleRate > 0, "sampleRate must be positive.");
+    return new SpanLeakDetector(sampleRate);
+  }
+
+  /**
+   * Returns the number of spans that were tracked by this detector.
+   *
+   * @return the number of spans that were tracked by this detector.
+   * @since 0.2.0
+   */
+  public long getTrackedSpans() {
+    return trackedSpans.get();
+  }
+
+  /**
+   * Returns the number of tracked spans that were garbage collected without being ended.
+   *
+   * @return the number of tracked spans that were garbage collected without being ended.
+   * @since 0.2.0
+   */
+  public long getLeakedSpans() {
+    return leakedSpans.get();
+  }
+
+  /**
+   * Returns the names of the most recently detected leaked spans, at most 10 of them.
+   *
+   * @return the names of the most recently detected leaked spans.
+   * @since 0.2.0
+   */
+  public List<String> getLeakedSpanNames() {
+    synchronized (leakedSpanNames) {
+      return Collections.unmodifiableList(new ArrayList<>(leakedSpanNames));
+    }
+  }
+
+  /**
+   * Stops the background thread. Spans that are collected after this call are not reported.
+   *
+   * @since 0.2.0
+   */
+  public void shutdown() {
+    workerThread.interrupt();
+  }
+
+  /**
+   * Starts tracking the given span if it is selected by the sample rate.
+   *
+   * @param span the newly started span.
+   * @param spanId the id of the span.
+   * @param spanName the name of the span.
+   * @return the reference that must be untracked with {@link SpanReference#untrack()} when the
+   *     span ends, or {@code null} if the span is not tracked.
+   */
+  @Nullable
+  SpanReference track(Object span, SpanId spanId, String spanName) {
+    // The span id is random, use it instead of another random generator or a shared counter.
+    if ((spanId.hashCode() & Integer.MAX_VALUE) % sampleRate != 0) {
+      return null;
+    }
+    SpanReference reference = new SpanReference(span, spanName, this);
+    trackedReferences.add(reference);
+    trackedSpans.incrementAndGet();
+    return reference;
+  }
+
+  private void onCollected(SpanReference reference) {
+    // Ended spans were already removed, anything still tracked was never ended.
+    if (!trackedReferences.remove(reference)) {
+      return;
+    }
+    leakedSpans.incrementAndGet();
+    synchronized (leakedSpanNames) {
+      leakedSpanNames.add(reference.spanName);
+    }
+    logger.log(Level.SEVERE, "Span " + reference.spanName + " is GC'ed without being ended.");
+  }
+
+  private static Thread newThread(Runnable runnable) {
+    Thread thread = MoreExecutors.platformThreadFactory().newThread(runnable);
+    thread.setDaemon(true);
+    try {
+      thread.setName(WORKER_THREAD_NAME);
+    } catch (SecurityException e) {
+      // OK if we can't set the name in this environment.
+    }
+    return thread;
+  }
+
+  // Holds the information needed to report a leaked span without keeping the span alive.
+  static final class SpanReference extends PhantomReference<Object> {
+    private final String spanName;
+    private final SpanLeakDetector detector;
+
+    private SpanReference(Object span, String spanName, SpanLeakDetector detector) {
+      super(span, detector.referenceQueue);
+      this.spanName = spanName;
+      this.detector = detector;
+    }
+
+    /** Stops tracking the span associated with this reference, because it was ended. */
+    void untrack() {
+      // Once unreachable the reference will not be enqueued anymore.
+      detector.trackedReferences.remove(this);
+      clear();
+    }
+  }
+
+  // Worker is a thread that waits for the tracked spans to be garbage collected.
+  private final class Worker implements Runnable {
+    @Override
+    public void run() {
+      while (!Thread.currentThread().isInterrupted()) {
+        Reference<?> reference;
+        try {
+          reference = referenceQueue.remove();
+        } catch (InterruptedException ie) {
+          // Preserve the interruption status as per guidance and stop doing any work.
+          Thread.currentThread().interrupt();
+          return;
+        }
+        onCollected((SpanReference) reference);
+      }
+    }
+  }
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.internal.Utils;
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.Link;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Bounds the memory retained by the recording spans, from their start until they are released by
+ * all their owners, which includes the time they wait in the queue of a {@link
+ * io.opentelemetry.sdk.trace.export.BatchSpansProcessor}.
+ *
+ * <p>The size of every span is estimated as its data is recorded. When the budget runs out the SDK
+ * degrades in two steps:
+ *
+ * <ol>
+ *   <li>Once the data of the spans uses 7/8 of the budget, new attributes and events are not
+ *       recorded anymore. The last eighth is kept for starting new spans.
+ *   <li>Once the whole budget is used, new spans are not recorded; they only carry their context so
+ *       that it is still propagated.
+ * </ol>
+ *
+ * <p>The memory of a span is given back once every owner released it, following the ownership
+ * protocol described in {@link SpanRecycler}, so all the registered processors must follow it.
+ * The memory of a span that is garbage collected without being ended is given back too, the next
+ * time a span is started, and counted by {@link #getCollectedSpans()}.
+ *
+ * <p>The estimates are meant to be cheap, not exact. An attribute that replaces another one, with
+ * the same key or because the span reached its maximum number of attributes, and an event that
+ * evicts the oldest one only reserve the difference with what they replace.
+ *
+ * @since 0.2.0
+ */
+@ThreadSafe
+public final class SpanMemoryBudget {
+  // The approximate size of a recording span without any attribute, event or link, including its
+  // context and SpanData.
+  static final long SPAN_BYTES = 512;
+  // Spans reserve memory for their data in blocks of at least this size, so that recording an
+  // attribute rarely updates the shared counter.
+  static final long BLOCK_BYTES = 1024;
+  // An entry in the parallel arrays of AttributesMap or EventsBuffer, amortizing their growth.
+  private static final long ENTRY_BYTES = 24;
+  // A map entry and its boxed value, used for event and link attributes.
+  private static final long MAP_ENTRY_BYTES = 48;
+  private static final long MAP_BYTES = 48;
+  private static final long LINK_BYTES = 80;
+  // A value that is only supplied when the span is exported, the supplier is not inspected.
+  private static final long LAZY_BYTES = 64;
+  // An attribute or an event whose content is not inspected, assuming short keys and values.
+  private static final long TYPICAL_ATTRIBUTE_BYTES = 160;
+  private static final long TYPICAL_EVENT_BYTES = 96;
+
+  private final long maxBytes;
+  private final long maxDataBytes;
+  private final AtomicLong usedBytes = new AtomicLong();
+  private final AtomicLong droppedRecords = new AtomicLong();
+  private final AtomicLong nonRecordingSpans = new AtomicLong();
+  private final AtomicLong collectedSpans = new AtomicLong();
+  private final ReferenceQueue<Object> referenceQueue = new ReferenceQueue<>();
+  // Keeps the reservations of the spans that are not ended yet reachable.
+  private final Set<Reservation> reservations =
+      Collections.newSetFromMap(new ConcurrentHashMap<Reservation, Boolean>());
+
+  private SpanMemoryBudget(long maxBytes) {
+    this.maxBytes = maxBytes;
+    this.maxDataBytes = maxBytes - maxBytes / 8;
+  }
+
+  /**
+   * Returns a new {@code SpanMemoryBudget} that lets the recording spans retain up to {@code
+   * maxBytes} bytes.
+   *
+   * @param maxBytes the maximum number of bytes retained by the recording spans.
+   * @return a new {@code SpanMemoryBudget}.
+   * @throws IllegalArgumentException if {@code maxBytes} is not positive.
+   * @since 0.2.0
+   */
+  public static SpanMemoryBudget create(long maxBytes) {
+    Utils.checkArgument(maxBytes > 0, "maxBytes must be positive.");
+    return new SpanMemoryBudget(maxBytes);
+  }
+
+  /**
+   * Returns the maximum number of bytes retained by the recording spans.
+   *
+   * @return the maximum number of bytes retained by the recording spans.
+   * @since 0.2.0
+   */
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Returns the estimated number of bytes currently retained by the recording spans.
+   *
+   * @return the estimated number of bytes currently retained by the recording spans.
+   * @since 0.2.0
+   */
+  public long getUsedBytes() {
+    return usedBytes.get();
+  }
+
+  /**
+   * Returns the number of attributes and events that were not recorded because the budget was
+   * running out.
+   *
+   * @return the number of attributes and events that were not recorded.
+   * @since 0.2.0
+   */
+  public long getDroppedRecords() {
+    return droppedRecords.get();
+  }
+
+  /**
+   * Returns the number of sampled spans that were not recorded because the budget was exhausted.
+   *
+   * @return the number of sampled spans that were not recorded.
+   * @since 0.2.0
+   */
+  public long getNonRecordingSpans() {
+    return nonRecordingSpans.get();
+  }
+
+  /**
+   * Returns the number of recording spans that were garbage collected without being ended, whose
+   * memory was given back.
+   *
+   * @return the number of recording spans that were garbage collected without being ended.
+   * @since 0.2.0
+   */
+  public long getCollectedSpans() {
+    return collectedSpans.get();
+  }
+
+  /**
+   * Reserves the memory of a new span without any data, or counts a non recording span if the
+   * budget is exhausted.
+   *
+   * @return whether the memory was reserved and the span can be recorded.
+   */
+  boolean tryReserveSpan() {
+    releaseCollectedSpans();
+    if (tryReserve(SPAN_BYTES, maxBytes)) {
+      return true;
+    }
+    nonRecordingSpans.incrementAndGet();
+    return false;
+  }
+
+  /**
+   * Reserves memory for the data of a recording span, or counts a dropped record if the data part
+   * of the budget is exhausted.
+   *
+   * @param bytes the number of bytes to reserve.
+   * @return whether the memory was reserved and the data can be recorded.
+   */
+  boolean tryReserveData(long bytes) {
+    if (tryReserve(bytes, maxDataBytes)) {
+      return true;
+    }
+    droppedRecords.incrementAndGet();
+    return false;
+  }
+
+  /**
+   * Reserves memory even if it exceeds the budget, for the data given when a span is started.
+   *
+   * @param bytes the number of bytes to reserve.
+   */
+  void reserve(long bytes) {
+    usedBytes.addAndGet(bytes);
+  }
+
+  /**
+   * Gives back memory that was reserved.
+   *
+   * @param bytes the number of bytes to give back.
+   */
+  void release(long bytes) {
+    usedBytes.addAndGet(-bytes);
+  }
+
+  /**
+   * Tracks the memory reserved by a span until it ends, so that it is given back if the span is
+   * garbage collected without being ended.
+   *
+   * @param span the recording span.
+   * @param bytes the number of bytes reserved by the span.
+   * @return the reservation to update when the span reserves more memory, and to untrack when the
+   *     span ends.
+   */
+  Reservation track(Object span, long bytes) {
+    Reservation reservation = new Reservation(span, bytes, this);
+    reservations.add(reservation);
+    return reservation;
+  }
+
+  // Gives back the memory of the spans that were garbage collected without being ended, which no
+  // owner will ever release.
+  void releaseCollectedSpans() {
+    Reference<?> reference;
+    while ((reference = referenceQueue.poll()) != null) {
+      Reservation reservation = (Reservation) reference;
+      // Ended spans were already removed, anything still tracked was never ended.
+      if (reservations.remove(reservation)) {
+        release(reservation.bytes);
+        collectedSpans.incrementAndGet();
+      }
+    }
+  }
+
+  private boolean tryReserve(long bytes, long limit) {
+    long current;
+    do {
+      current = usedBytes.get();
+      if (current + bytes > limit) {
+        return false;
+      }
+    } while (!usedBytes.compareAndSet(current, current + bytes));
+    return true;
+  }
+
+  static long stringBytes(String value) {
+    // The String object and its char array.
+    return 40 + 2L * value.length();
+  }
+
+  static long attributeBytes(String key) {
+    return ENTRY_BYTES + stringBytes(key);
+  }
+
+  static long attributeBytes(String key, String value) {
+    return attributeBytes(key) + stringBytes(value);
+  }
+
+  static long attributeBytes(String key, AttributeValue value) {
+    return attributeBytes(key) + valueBytes(value);
+  }
+
+  static long lazyAttributeBytes(String key) {
+    return attributeBytes(key) + LAZY_BYTES;
+  }
+
+  static long attributesBytes(Map<String, AttributeValue> attributes) {
+    long bytes = 0;
+    for (Map.Entry<String, AttributeValue> entry : attributes.entrySet()) {
+      bytes += attributeBytes(entry.getKey(), entry.getValue());
+    }
+    return bytes;
+  }
+
+  static long eventBytes(String name, Map<String, AttributeValue> attributes) {
+    return ENTRY_BYTES + stringBytes(name) + mapBytes(attributes);
+  }
+
+  static long linksBytes(List<Link> links) {
+    long bytes = 0;
+    for (Link link : links) {
+      bytes += LINK_BYTES + mapBytes(link.getAttributes());
+    }
+    return bytes;
+  }
+
+  // Estimates the size of a span from the number of its attributes, events and links, without
+  // reading them.
+  static long spanBytes(String name, int attributesCount, int eventsCount, int linksCount) {
+    return SPAN_BYTES
+        + stringBytes(name)
+        + attributesCount * TYPICAL_ATTRIBUTE_BYTES
+        + eventsCount * TYPICAL_EVENT_BYTES
+        + linksCount * LINK_BYTES;
+  }
+
+  static long spanDataBytes(SpanData span) {
+    long bytes = SPAN_BYTES + stringBytes(span.getName()) + mapBytes(span.getAttributes());
+    for (SpanData.TimedEvent event : span.getTimedEvents()) {
+      bytes += eventBytes(event.getName(), event.getAttributes());
+    }
+    return bytes + linksBytes(span.getLinks());
+  }
+
+  private static long mapBytes(Map<String, AttributeValue> attributes) {
+    if (attributes instanceof LazyAttributes) {
+      // Must not be evaluated before the span is exported.
+      return LAZY_BYTES;
+    }
+    if (attributes.isEmpty()) {
+      return 0;
+    }
+    long bytes = MAP_BYTES;
+    for (Map.Entry<String, AttributeValue> entry : attributes.entrySet()) {
+      bytes += MAP_ENTRY_BYTES + stringBytes(entry.getKey()) + valueBytes(entry.getValue());
+    }
+    return bytes;
+  }
+
+  private static long valueBytes(@Nullable AttributeValue value) {
+    return value != null && value.getType() == AttributeValue.Type.STRING
+        ? 16 + stringBytes(value.getStringValue())
+        : 16;
+  }
+
+  // Holds the memory reserved by a span that is not ended yet, without keeping the span alive.
+  static final class Reservation extends PhantomReference<Object> {
+    private final SpanMemoryBudget budget;
+    private volatile long bytes;
+
+    private Reservation(Object span, long bytes, SpanMemoryBudget budget) {
+      super(span, budget.referenceQueue);
+      this.bytes = bytes;
+      this.budget = budget;
+    }
+
+    /**
+     * Sets the number of bytes reserved by the span.
+     *
+     * @param bytes the number of bytes reserved by the span.
+     */
+    void setBytes(long bytes) {
+      this.bytes = bytes;
+    }
+
+    /** Stops tracking the span, because it ended and its owners give back its memory. */
+    void untrack() {
+      // Once unreachable the reference will not be enqueued anymore.
+      budget.reservations.remove(this);
+      clear();
+    }
+  }
+}
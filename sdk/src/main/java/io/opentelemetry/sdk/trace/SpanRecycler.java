@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.internal.Utils;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Recycles the storage of the attributes and events of the recording spans, so that spans started
+ * at a high rate do not allocate it again and again.
+ *
+ * <p>When a {@code SpanRecycler} is set with {@link TracerSdkFactory#setSpanRecycler}, the storage
+ * of an ended span is recycled once every owner of the span released it:
+ *
+ * <ul>
+ *   <li>The SDK owns the span until {@link SpanProcessor#onEnd(ReadableSpan)} returns.
+ *   <li>A {@code SpanProcessor} that uses the span or its {@link SpanData} after {@code onEnd}
+ *       returns must call {@link ReadableSpan#retain()} in {@code onEnd}, and {@link
+ *       ReadableSpan#release()} once it, and the {@link
+ *       io.opentelemetry.sdk.trace.export.SpanExporter} it exports to, are done with the data.
+ * </ul>
+ *
+ * <p>The {@code SpanData} of a released span must not be used anymore, so exporters that keep the
+ * exported data must copy it with {@code spanData.toBuilder().build()}. The span objects
+ * themselves are not recycled, because the application can keep referencing them after {@link
+ * io.opentelemetry.trace.Span#end()}.
+ *
+ * <p>The instances returned by {@link #createWithReleaseChecks()} do not recycle anything. Instead,
+ * they make every access to the attributes and events of a released span fail with an {@link
+ * IllegalStateException}, which detects owners that use the spans after releasing them.
+ *
+ * @since 0.2.0
+ */
+@ThreadSafe
+public final class SpanRecycler {
+  // The maximum number of slots inspected to find a pooled instance or a free slot.
+  private static final int MAX_PROBES = 8;
+
+  private final boolean releaseChecks;
+  private final AtomicReferenceArray<AttributesMap> attributesPool;
+  private final AtomicReferenceArray<EventsBuffer> eventsPool;
+  // Spans are usually released by a few exporter threads, which spread the recycled instances over
+  // the whole pool so that every application thread finds some near its own start index.
+  private final AtomicInteger offerCursor = new AtomicInteger();
+
+  private SpanRecycler(int poolSize, boolean releaseChecks) {
+    this.releaseChecks = releaseChecks;
+    this.attributesPool = new AtomicReferenceArray<>(poolSize);
+    this.eventsPool = new AtomicReferenceArray<>(poolSize);
+  }
+
+  /**
+   * Returns a new {@code SpanRecycler} that keeps up to {@code poolSize} released attributes and
+   * events storages for reuse.
+   *
+   * @param poolSize the maximum number of storages of each kind kept for reuse.
+   * @return a new {@code SpanRecycler}.
+   * @throws IllegalArgumentException if {@code poolSize} is not positive.
+   * @since 0.2.0
+   */
+  public static SpanRecycler create(int poolSize) {
+    Utils.checkArgument(poolSize > 0, "poolSize must be positive.");
+    return new SpanRecycler(poolSize, /* releaseChecks= */ false);
+  }
+
+  /**
+   * Returns a new {@code SpanRecycler} that does not recycle anything, but detects the uses of the
+   * spans after they were released. Intended for tests and debugging.
+   *
+   * @return a new {@code SpanRecycler} that detects the uses of the spans after they were released.
+   * @since 0.2.0
+   */
+  public static SpanRecycler createWithReleaseChecks() {
+    return new SpanRecycler(0, /* releaseChecks= */ true);
+  }
+
+  AttributesMap newAttributesMap(int capacity) {
+    AttributesMap attributes = poll(attributesPool);
+    return attributes != null && attributes.getCapacity() == capacity
+        ? attributes
+        : new AttributesMap(capacity);
+  }
+
+  EventsBuffer newEvents(int capacity) {
+    EventsBuffer events = poll(eventsPool);
+    return events != null && events.getCapacity() == capacity ? events : new EventsBuffer(capacity);
+  }
+
+  // Called once all the owners released the span, nothing references the storages anymore.
+  void recycle(@Nullable AttributesMap attributes, @Nullable EventsBuffer events) {
+    if (releaseChecks) {
+      if (attributes != null) {
+        attributes.markReleased();
+      }
+      if (events != null) {
+        events.markReleased();
+      }
+      return;
+    }
+    if (attributes != null) {
+      attributes.reset();
+      offer(attributesPool, attributes);
+    }
+    if (events != null) {
+      events.reset();
+      offer(eventsPool, events);
+    }
+  }
+
+  @Nullable
+  private static <T> T poll(AtomicReferenceArray<T> pool) {
+    int length = pool.length();
+    int start = startIndex(length);
+    for (int i = 0; i < length && i < MAX_PROBES; i++) {
+      int index = (start + i) % length;
+      T value = pool.get(index);
+      if (value != null && pool.compareAndSet(index, value, null)) {
+        return value;
+      }
+    }
+    return null;
+  }
+
+  private <T> void offer(AtomicReferenceArray<T> pool, T value) {
+    int length = pool.length();
+    int start = (offerCursor.getAndIncrement() & Integer.MAX_VALUE) % length;
+    for (int i = 0; i < length && i < MAX_PROBES; i++) {
+      int index = (start + i) % length;
+      if (pool.get(index) == null && pool.compareAndSet(index, null, value)) {
+        return;
+      }
+    }
+    // The pool is full around the start index, let the garbage collector take it.
+  }
+
+  // Spreads the application threads over the pool so that they rarely compete for the same slots.
+  private static int startIndex(int length) {
+    return length == 0 ? 0 : (int) ((Thread.currentThread().getId() & Integer.MAX_VALUE) % length);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.Span.Kind;
+import java.util.Map;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The constant part of spans that are started many times with the same shape: their name, kind
+ * and constant attributes. Templates are created once with {@link TracerSdk#spanTemplate(String,
+ * Kind, Map)}, usually as constants, and spans are started from them with {@link
+ * TracerSdk#spanBuilder(SpanTemplate)}.
+ *
+ * <p>The constant attributes are validated and truncated once, when the template is created, with
+ * the {@link io.opentelemetry.sdk.trace.config.TraceConfig} active at that time. Every span started
+ * from the template shares them by reference, and only copies them if attributes are also given to
+ * its {@link io.opentelemetry.trace.Span.Builder} or returned by the sampler. Attributes set on the
+ * started span are recorded separately and take precedence over the constant ones.
+ *
+ * @since 0.2.0
+ */
+@Immutable
+public final class SpanTemplate {
+  private final String spanName;
+  private final Kind kind;
+  // Never modified, shared by all the spans started from this template.
+  private final AttributesMap attributes;
+
+  SpanTemplate(String spanName, Kind kind, AttributesMap attributes) {
+    this.spanName = spanName;
+    this.kind = kind;
+    this.attributes = attributes;
+  }
+
+  /**
+   * Returns the name of the spans started from this template.
+   *
+   * @return the name of the spans started from this template.
+   * @since 0.2.0
+   */
+  public String getSpanName() {
+    return spanName;
+  }
+
+  /**
+   * Returns the kind of the spans started from this template.
+   *
+   * @return the kind of the spans started from this template.
+   * @since 0.2.0
+   */
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Returns the immutable constant attributes of the spans started from this template.
+   *
+   * @return the immutable constant attributes of the spans started from this template.
+   * @since 0.2.0
+   */
+  public Map<String, AttributeValue> getAttributes() {
+    return attributes;
+  }
+}
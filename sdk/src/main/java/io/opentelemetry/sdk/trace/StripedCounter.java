@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A counter that spreads the increments of different threads over several cells, each on its own
+ * cache line, so that threads incrementing it concurrently do not contend on a single value.
+ */
+@ThreadSafe
+final class StripedCounter {
+  // Number of longs between two cells, to keep each cell on its own 64 bytes cache line.
+  private static final int CELL_STRIDE = 8;
+  private static final int MAX_CELLS = 64;
+
+  private final int mask;
+  private final AtomicLongArray cells;
+
+  StripedCounter() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  StripedCounter(int concurrency) {
+    int numCells = 1;
+    while (numCells < concurrency && numCells < MAX_CELLS) {
+      numCells <<= 1;
+    }
+    this.mask = numCells - 1;
+    this.cells = new AtomicLongArray(numCells * CELL_STRIDE);
+  }
+
+  /** Adds one to the counter. */
+  void increment() {
+    cells.incrementAndGet(((int) Thread.currentThread().getId() & mask) * CELL_STRIDE);
+  }
+
+  /**
+   * Returns the current value of the counter and resets it to zero. Increments that happen
+   * concurrently are either included in the returned value or kept for the next call.
+   */
+  long sumThenReset() {
+    long sum = 0;
+    for (int i = 0; i < cells.length(); i += CELL_STRIDE) {
+      sum += cells.getAndSet(i, 0);
+    }
+    return sum;
+  }
+}
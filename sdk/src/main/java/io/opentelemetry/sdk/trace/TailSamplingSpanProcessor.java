@@ -0,0 +1,721 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.opentelemetry.internal.Utils;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
+import io.opentelemetry.trace.Tracer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Implementation of the {@link SpanProcessor} that buffers the ended spans of every trace and only
+ * forwards the traces kept by one of its {@link Policy policies} to a downstream {@code
+ * SpanProcessor}.
+ *
+ * <p>The local root of a trace is the first span of the trace started in this process. The
+ * decision is made when the local root ends, or {@code decisionWaitMillis} after the first span of
+ * the trace started (plus the period of the background thread) if the local root did not end by
+ * then. The spans of the trace that end after the decision get the same decision: they are
+ * forwarded if the trace was kept, and dropped otherwise. Only the decisions of the {@code
+ * maxDecidedTraces} most recently used traces are remembered; the spans of a trace whose decision
+ * was forgotten, or that was dropped without a decision, are buffered for a new decision.
+ *
+ * <p>The spans are buffered as they are, and accounted with estimates based on their number of
+ * attributes, events and links, or on the memory they reserved from the {@link SpanMemoryBudget}.
+ * They are only converted to {@link SpanData} when a policy reads them during the decision, so the
+ * lazily supplied attribute values are not evaluated when the spans end. When the buffer would
+ * exceed {@code maxBufferedBytes}, the oldest traces are dropped without a decision and counted by
+ * {@link #getDroppedTraces()} and {@link #getDroppedSpans()}.
+ *
+ * <p>The downstream processor only sees the ended spans of the kept traces: {@link
+ * SpanProcessor#onStart(ReadableSpan)} is never called on it. The spans are retained while
+ * buffered, as described in {@link SpanRecycler}.
+ *
+ * @since 0.2.0
+ */
+@ThreadSafe
+public final class TailSamplingSpanProcessor implements SpanBatchProcessor {
+  private static final Logger logger = Logger.getLogger(Tracer.class.getName());
+  private static final String WORKER_THREAD_NAME =
+      TailSamplingSpanProcessor.class.getSimpleName() + "_WorkerThread";
+  // The estimated size of a trace in the buffer, without its spans.
+  private static final long TRACE_BYTES = 128;
+
+  private final SpanProcessor downstream;
+  private final List<Policy> policies;
+  private final long maxBufferedBytes;
+  private final long decisionWaitMillis;
+  private final int maxDecidedTraces;
+  private final Object monitor = new Object();
+
+  // The buffered traces, from the oldest to the newest.
+  @GuardedBy("monitor")
+  private final LinkedHashMap<TraceId, TraceBuffer> traces = new LinkedHashMap<>();
+
+  // The decisions of the recently decided traces, from the least to the most recently used.
+  @GuardedBy("monitor")
+  private final LinkedHashMap<TraceId, Decision> decisions =
+      new LinkedHashMap<>(16, 0.75f, /* accessOrder= */ true);
+
+  @GuardedBy("monitor")
+  private long bufferedBytes;
+
+  @GuardedBy("monitor")
+  private long droppedTraces;
+
+  @GuardedBy("monitor")
+  private long droppedSpans;
+
+  private final Thread workerThread;
+
+  private TailSamplingSpanProcessor(
+      SpanProcessor downstream,
+      List<Policy> policies,
+      long maxBufferedBytes,
+      long decisionWaitMillis,
+      int maxDecidedTraces) {
+    this.downstream = downstream;
+    this.policies = policies;
+    this.maxBufferedBytes = maxBufferedBytes;
+    this.decisionWaitMillis = decisionWaitMillis;
+    this.maxDecidedTraces = maxDecidedTraces;
+    this.workerThread = newThread(new Worker());
+    this.workerThread.start();
+  }
+
+  /**
+   * Returns a new Builder for {@link TailSamplingSpanProcessor}.
+   *
+   * @param downstream the {@code SpanProcessor} the spans of the kept traces are forwarded to.
+   * @return a new {@link Builder}.
+   * @throws NullPointerException if the {@code downstream} is {@code null}.
+   * @since 0.2.0
+   */
+  public static Builder newBuilder(SpanProcessor downstream) {
+    return new Builder(downstream);
+  }
+
+  @Override
+  public void onStart(ReadableSpan span) {
+    SpanContext context = span.getSpanContext();
+    synchronized (monitor) {
+      if (!traces.containsKey(context.getTraceId())
+          && !decisions.containsKey(context.getTraceId())) {
+        newTraceBuffer(context.getTraceId(), context.getSpanId());
+        evictOldestTraces();
+      }
+    }
+  }
+
+  @Override
+  public void onEnd(ReadableSpan span) {
+    // The span is forwarded after onEnd returns, keep it until then.
+    span.retain();
+    long bytes = estimatedBytes(span);
+    EndedSpans endedSpans = new EndedSpans();
+    synchronized (monitor) {
+      addSpan(span, bytes, endedSpans);
+    }
+    endedSpans.process();
+  }
+
+  @Override
+  public void onEndBatch(List<ReadableSpan> spans) {
+    int size = spans.size();
+    long[] bytes = new long[size];
+    for (int i = 0; i < size; i++) {
+      ReadableSpan span = spans.get(i);
+      span.retain();
+      bytes[i] = estimatedBytes(span);
+    }
+    EndedSpans endedSpans = new EndedSpans();
+    synchronized (monitor) {
+      for (int i = 0; i < size; i++) {
+        addSpan(spans.get(i), bytes[i], endedSpans);
+      }
+    }
+    endedSpans.process();
+  }
+
+  /**
+   * Makes a decision for all the buffered traces, then shuts down the downstream processor.
+   *
+   * @since 0.2.0
+   */
+  @Override
+  public void shutdown() {
+    workerThread.interrupt();
+    List<TraceBuffer> decided = new ArrayList<>();
+    synchronized (monitor) {
+      for (Iterator<Map.Entry<TraceId, TraceBuffer>> iterator = traces.entrySet().iterator();
+          iterator.hasNext(); ) {
+        Map.Entry<TraceId, TraceBuffer> entry = iterator.next();
+        iterator.remove();
+        startDecision(entry.getKey(), entry.getValue(), decided);
+      }
+    }
+    for (TraceBuffer trace : decided) {
+      decide(trace);
+    }
+    downstream.shutdown();
+  }
+
+  /**
+   * Returns the number of traces dropped without a decision because the buffer was full.
+   *
+   * @return the number of traces dropped without a decision.
+   * @since 0.2.0
+   */
+  public long getDroppedTraces() {
+    synchronized (monitor) {
+      return droppedTraces;
+    }
+  }
+
+  /**
+   * Returns the number of spans dropped without a decision because the buffer was full.
+   *
+   * @return the number of spans dropped without a decision.
+   * @since 0.2.0
+   */
+  public long getDroppedSpans() {
+    synchronized (monitor) {
+      return droppedSpans;
+    }
+  }
+
+  /**
+   * Returns the estimated number of bytes used by the buffered traces.
+   *
+   * @return the estimated number of bytes used by the buffered traces.
+   * @since 0.2.0
+   */
+  public long getBufferedBytes() {
+    synchronized (monitor) {
+      return bufferedBytes;
+    }
+  }
+
+  // Makes a decision for the traces whose first span started at least decisionWaitMillis before
+  // the given nanoTime.
+  void decideExpiredTraces(long nanoTime) {
+    long decisionWaitNanos = TimeUnit.MILLISECONDS.toNanos(decisionWaitMillis);
+    List<TraceBuffer> decided = new ArrayList<>();
+    synchronized (monitor) {
+      for (Iterator<Map.Entry<TraceId, TraceBuffer>> iterator = traces.entrySet().iterator();
+          iterator.hasNext(); ) {
+        Map.Entry<TraceId, TraceBuffer> entry = iterator.next();
+        // The traces are ordered by creation time.
+        if (nanoTime - entry.getValue().createdNanos < decisionWaitNanos) {
+          break;
+        }
+        iterator.remove();
+        startDecision(entry.getKey(), entry.getValue(), decided);
+      }
+    }
+    for (TraceBuffer trace : decided) {
+      decide(trace);
+    }
+  }
+
+  // Buffers the span with its estimated size, computed by the caller before taking the lock. Adds
+  // the trace to endedSpans if the span is the local root so the trace is ready for a decision, or
+  // the span itself if its trace was already decided.
+  @GuardedBy("monitor")
+  private void addSpan(ReadableSpan span, long bytes, EndedSpans endedSpans) {
+    SpanContext context = span.getSpanContext();
+    TraceBuffer trace = traces.get(context.getTraceId());
+    if (trace == null) {
+      Decision decision = decisions.get(context.getTraceId());
+      if (decision != null) {
+        addLateSpan(span, decision, endedSpans);
+        return;
+      }
+      // Not started through this processor, the span is its own local root.
+      trace = newTraceBuffer(context.getTraceId(), context.getSpanId());
+    }
+    trace.spans.add(span);
+    trace.bytes += bytes;
+    bufferedBytes += bytes;
+    if (context.getSpanId().equals(trace.localRootSpanId)) {
+      trace.localRoot = span;
+      traces.remove(context.getTraceId());
+      // The trace is not buffered anymore so it cannot be dropped.
+      startDecision(context.getTraceId(), trace, endedSpans.decidedTraces);
+      return;
+    }
+    evictOldestTraces();
+  }
+
+  // Applies the decision of its trace to a span that ended after the decision was started.
+  @GuardedBy("monitor")
+  private void addLateSpan(ReadableSpan span, Decision decision, EndedSpans endedSpans) {
+    if (decision.keep == null) {
+      // The policies are running, the span gets the decision once they return.
+      if (decision.pendingSpans == null) {
+        decision.pendingSpans = new ArrayList<>();
+      }
+      decision.pendingSpans.add(span);
+    } else if (decision.keep) {
+      endedSpans.keptSpans.add(span);
+    } else {
+      span.release();
+    }
+  }
+
+  // Removes the trace from the buffer, which must already be done by the caller for the traces map,
+  // and remembers that its decision is being made. A trace without any ended span has nothing to
+  // decide on, its spans that end later are buffered for a new decision.
+  @GuardedBy("monitor")
+  private void startDecision(TraceId traceId, TraceBuffer trace, List<TraceBuffer> decided) {
+    bufferedBytes -= trace.bytes;
+    if (trace.spans.isEmpty()) {
+      return;
+    }
+    decisions.put(traceId, trace.decision);
+    if (decisions.size() > maxDecidedTraces) {
+      // The least recently used decision is forgotten.
+      Iterator<Decision> eldest = decisions.values().iterator();
+      eldest.next();
+      eldest.remove();
+    }
+    decided.add(trace);
+  }
+
+  // Estimates the size of the span without converting it to SpanData, which would evaluate its lazy
+  // attribute values even if the trace is dropped.
+  private static long estimatedBytes(ReadableSpan span) {
+    if (span instanceof RecordEventsReadableSpan) {
+      return ((RecordEventsReadableSpan) span).getEstimatedBytes();
+    }
+    return SpanMemoryBudget.spanDataBytes(span.toSpanData());
+  }
+
+  @GuardedBy("monitor")
+  private TraceBuffer newTraceBuffer(TraceId traceId, SpanId localRootSpanId) {
+    TraceBuffer trace = new TraceBuffer(localRootSpanId, System.nanoTime());
+    traces.put(traceId, trace);
+    bufferedBytes += trace.bytes;
+    return trace;
+  }
+
+  // Drops the oldest traces until the buffer fits in maxBufferedBytes.
+  @GuardedBy("monitor")
+  private void evictOldestTraces() {
+    for (Iterator<TraceBuffer> iterator = traces.values().iterator();
+        bufferedBytes > maxBufferedBytes && iterator.hasNext(); ) {
+      TraceBuffer trace = iterator.next();
+      iterator.remove();
+      bufferedBytes -= trace.bytes;
+      droppedTraces++;
+      droppedSpans += trace.spans.size();
+      releaseSpans(trace.spans);
+    }
+  }
+
+  // Forwards the spans of the trace to the downstream processor if a policy keeps it, then applies
+  // the decision to the spans of the trace that ended while the policies ran.
+  private void decide(TraceBuffer trace) {
+    boolean keep;
+    try {
+      keep = shouldKeep(trace);
+    } catch (RuntimeException e) {
+      logger.log(Level.WARNING, "Exception thrown by a TailSamplingSpanProcessor.Policy.", e);
+      keep = false;
+    }
+    List<ReadableSpan> spans = trace.spans;
+    synchronized (monitor) {
+      trace.decision.keep = keep;
+      if (trace.decision.pendingSpans != null) {
+        spans.addAll(trace.decision.pendingSpans);
+        trace.decision.pendingSpans = null;
+      }
+    }
+    if (keep) {
+      forward(spans);
+    } else {
+      releaseSpans(spans);
+    }
+  }
+
+  // Forwards the spans to the downstream processor, then releases them.
+  private void forward(List<ReadableSpan> spans) {
+    try {
+      if (downstream instanceof SpanBatchProcessor) {
+        ((SpanBatchProcessor) downstream).onEndBatch(spans);
+      } else {
+        for (ReadableSpan span : spans) {
+          downstream.onEnd(span);
+        }
+      }
+    } catch (RuntimeException e) {
+      logger.log(Level.WARNING, "Exception thrown by the downstream SpanProcessor.", e);
+    } finally {
+      releaseSpans(spans);
+    }
+  }
+
+  private boolean shouldKeep(TraceBuffer trace) {
+    List<SpanData> spans = new SpanDataList(trace.spans);
+    SpanData localRoot = trace.localRoot == null ? null : trace.localRoot.toSpanData();
+    for (Policy policy : policies) {
+      if (policy.shouldKeep(spans, localRoot)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void releaseSpans(List<ReadableSpan> spans) {
+    for (ReadableSpan span : spans) {
+      span.release();
+    }
+  }
+
+  private static Thread newThread(Runnable runnable) {
+    Thread thread = MoreExecutors.platformThreadFactory().newThread(runnable);
+    thread.setDaemon(true);
+    try {
+      thread.setName(WORKER_THREAD_NAME);
+    } catch (SecurityException e) {
+      // OK if we can't set the name in this environment.
+    }
+    return thread;
+  }
+
+  /**
+   * A policy that decides whether a trace is kept. A trace is kept if any of the policies of the
+   * {@link TailSamplingSpanProcessor} keeps it.
+   *
+   * @since 0.2.0
+   */
+  @ThreadSafe
+  public abstract static class Policy {
+
+    /**
+     * Returns whether the trace is kept.
+     *
+     * @param spans the buffered spans of the trace, in the order they ended.
+     * @param localRoot the local root of the trace, or {@code null} if the decision is made because
+     *     the local root did not end in time.
+     * @return whether the trace is kept.
+     * @since 0.2.0
+     */
+    public abstract boolean shouldKeep(List<SpanData> spans, @Nullable SpanData localRoot);
+
+    /**
+     * Returns a {@code Policy} that keeps the traces with at least one span whose status is not
+     * OK.
+     *
+     * @return a {@code Policy} that keeps the traces with an error.
+     * @since 0.2.0
+     */
+    public static Policy anySpanWithError() {
+      return AnySpanWithError.INSTANCE;
+    }
+
+    /**
+     * Returns a {@code Policy} that keeps the traces whose local root took longer than {@code
+     * latencyMillis}. If the local root did not end in time, the latency is the time between the
+     * earliest start and the latest end of the buffered spans.
+     *
+     * @param latencyMillis the latency above which the traces are kept.
+     * @return a {@code Policy} that keeps the slow traces.
+     * @throws IllegalArgumentException if {@code latencyMillis} is negative.
+     * @since 0.2.0
+     */
+    public static Policy latencyAboveMillis(long latencyMillis) {
+      Utils.checkArgument(latencyMillis >= 0, "latencyMillis must be non-negative.");
+      return new LatencyAbove(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+    }
+
+    /**
+     * Returns a {@code Policy} that keeps the given fraction of the traces, with the same decision
+     * as {@link Samplers#probability(double)} for the trace id.
+     *
+     * @param probability the fraction of the traces kept, must be within [0.0, 1.0].
+     * @return a {@code Policy} that keeps a fraction of the traces.
+     * @throws IllegalArgumentException if {@code probability} is out of range.
+     * @since 0.2.0
+     */
+    public static Policy probability(double probability) {
+      return new ProbabilityPolicy(Samplers.probability(probability));
+    }
+  }
+
+  @Immutable
+  private static final class AnySpanWithError extends Policy {
+    private static final AnySpanWithError INSTANCE = new AnySpanWithError();
+
+    @Override
+    public boolean shouldKeep(List<SpanData> spans, @Nullable SpanData localRoot) {
+      for (SpanData span : spans) {
+        if (!span.getStatus().isOk()) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  @Immutable
+  private static final class LatencyAbove extends Policy {
+    private final long latencyNanos;
+
+    private LatencyAbove(long latencyNanos) {
+      this.latencyNanos = latencyNanos;
+    }
+
+    @Override
+    public boolean shouldKeep(List<SpanData> spans, @Nullable SpanData localRoot) {
+      if (localRoot != null) {
+        return localRoot.getEndEpochNanos() - localRoot.getStartEpochNanos() > latencyNanos;
+      }
+      long startEpochNanos = Long.MAX_VALUE;
+      long endEpochNanos = Long.MIN_VALUE;
+      for (SpanData span : spans) {
+        startEpochNanos = Math.min(startEpochNanos, span.getStartEpochNanos());
+        endEpochNanos = Math.max(endEpochNanos, span.getEndEpochNanos());
+      }
+      return endEpochNanos - startEpochNanos > latencyNanos;
+    }
+  }
+
+  @Immutable
+  private static final class ProbabilityPolicy extends Policy {
+    private final Sampler sampler;
+
+    private ProbabilityPolicy(Sampler sampler) {
+      this.sampler = sampler;
+    }
+
+    @Override
+    public boolean shouldKeep(List<SpanData> spans, @Nullable SpanData localRoot) {
+      SpanData span = localRoot != null ? localRoot : spans.get(0);
+      return sampler
+          .shouldSample(
+              /* parentContext= */ null,
+              /* hasRemoteParent= */ null,
+              new TraceId(span.getTraceIdHigh(), span.getTraceIdLow()),
+              new SpanId(span.getSpanIdAsLong()),
+              span.getName(),
+              span.getKind(),
+              Collections.<Link>emptyList())
+          .isSampled();
+    }
+  }
+
+  /**
+   * Builder class for {@link TailSamplingSpanProcessor}.
+   *
+   * @since 0.2.0
+   */
+  public static final class Builder {
+    private static final long MAX_BUFFERED_BYTES = 64 * 1024 * 1024;
+    private static final long DECISION_WAIT_MILLIS = 30_000;
+    private static final int MAX_DECIDED_TRACES = 10_000;
+    private final SpanProcessor downstream;
+    private final List<Policy> policies = new ArrayList<>();
+    private long maxBufferedBytes = MAX_BUFFERED_BYTES;
+    private long decisionWaitMillis = DECISION_WAIT_MILLIS;
+    private int maxDecidedTraces = MAX_DECIDED_TRACES;
+
+    private Builder(SpanProcessor downstream) {
+      this.downstream = Utils.checkNotNull(downstream, "downstream");
+    }
+
+    /**
+     * Adds a policy. A trace is kept if any policy keeps it, a processor without policies drops
+     * all the traces.
+     *
+     * @param policy the policy to add.
+     * @return this.
+     * @throws NullPointerException if the {@code policy} is {@code null}.
+     * @since 0.2.0
+     */
+    public Builder addPolicy(Policy policy) {
+      policies.add(Utils.checkNotNull(policy, "policy"));
+      return this;
+    }
+
+    /**
+     * Sets the maximum estimated number of bytes used by the buffered traces.
+     *
+     * <p>Default value is {@code 64} MiB.
+     *
+     * @param maxBufferedBytes the maximum estimated number of bytes used by the buffered traces.
+     * @return this.
+     * @throws IllegalArgumentException if {@code maxBufferedBytes} is not positive.
+     * @since 0.2.0
+     */
+    public Builder setMaxBufferedBytes(long maxBufferedBytes) {
+      Utils.checkArgument(maxBufferedBytes > 0, "maxBufferedBytes must be positive.");
+      this.maxBufferedBytes = maxBufferedBytes;
+      return this;
+    }
+
+    /**
+     * Sets the time after which a decision is made for a trace whose local root did not end.
+     *
+     * <p>Default value is {@code 30000}ms.
+     *
+     * @param decisionWaitMillis the time after which a decision is made for a trace.
+     * @return this.
+     * @throws IllegalArgumentException if {@code decisionWaitMillis} is not positive.
+     * @since 0.2.0
+     */
+    public Builder setDecisionWaitMillis(long decisionWaitMillis) {
+      Utils.checkArgument(decisionWaitMillis > 0, "decisionWaitMillis must be positive.");
+      this.decisionWaitMillis = decisionWaitMillis;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of traces whose decision is remembered and applied to their spans
+     * that end after the decision.
+     *
+     * <p>Default value is {@code 10000}.
+     *
+     * @param maxDecidedTraces the maximum number of traces whose decision is remembered.
+     * @return this.
+     * @throws IllegalArgumentException if {@code maxDecidedTraces} is negative.
+     * @since 0.2.0
+     */
+    public Builder setMaxDecidedTraces(int maxDecidedTraces) {
+      Utils.checkArgument(maxDecidedTraces >= 0, "maxDecidedTraces must be non-negative.");
+      this.maxDecidedTraces = maxDecidedTraces;
+      return this;
+    }
+
+    /**
+     * Returns a new {@link TailSamplingSpanProcessor} that forwards the kept traces to the
+     * downstream {@code SpanProcessor}.
+     *
+     * @return a new {@link TailSamplingSpanProcessor}.
+     * @since 0.2.0
+     */
+    public TailSamplingSpanProcessor build() {
+      return new TailSamplingSpanProcessor(
+          downstream,
+          Collections.unmodifiableList(new ArrayList<>(policies)),
+          maxBufferedBytes,
+          decisionWaitMillis,
+          maxDecidedTraces);
+    }
+  }
+
+  // A read-only view of the buffered spans that converts each span to SpanData when it is first
+  // read, so that a policy that only reads the local root does not convert the other spans.
+  private static final class SpanDataList extends AbstractList<SpanData> implements RandomAccess {
+    private final List<ReadableSpan> spans;
+    private final SpanData[] spanDatas;
+
+    private SpanDataList(List<ReadableSpan> spans) {
+      this.spans = spans;
+      this.spanDatas = new SpanData[spans.size()];
+    }
+
+    @Override
+    public SpanData get(int index) {
+      SpanData spanData = spanDatas[index];
+      if (spanData == null) {
+        spanData = spans.get(index).toSpanData();
+        spanDatas[index] = spanData;
+      }
+      return spanData;
+    }
+
+    @Override
+    public int size() {
+      return spanDatas.length;
+    }
+  }
+
+  // The buffered spans of a trace.
+  private static final class TraceBuffer {
+    private final SpanId localRootSpanId;
+    private final long createdNanos;
+    private final List<ReadableSpan> spans = new ArrayList<>();
+    private final Decision decision = new Decision();
+    private long bytes = TRACE_BYTES;
+    @Nullable private ReadableSpan localRoot;
+
+    private TraceBuffer(SpanId localRootSpanId, long createdNanos) {
+      this.localRootSpanId = localRootSpanId;
+      this.createdNanos = createdNanos;
+    }
+  }
+
+  // The decision made for a trace, applied to the spans of the trace that end after it.
+  private static final class Decision {
+    // Null while the policies run.
+    @Nullable private Boolean keep;
+    // The spans that ended while the policies ran.
+    @Nullable private List<ReadableSpan> pendingSpans;
+  }
+
+  // The traces ready for a decision and the late spans of kept traces, collected while holding the
+  // monitor and processed once it is released.
+  private final class EndedSpans {
+    private final List<TraceBuffer> decidedTraces = new ArrayList<>();
+    private final List<ReadableSpan> keptSpans = new ArrayList<>();
+
+    private void process() {
+      for (TraceBuffer trace : decidedTraces) {
+        decide(trace);
+      }
+      if (!keptSpans.isEmpty()) {
+        forward(keptSpans);
+      }
+    }
+  }
+
+  // Makes a decision for the expired traces every decisionWaitMillis.
+  private final class Worker implements Runnable {
+    @Override
+    public void run() {
+      while (!Thread.currentThread().isInterrupted()) {
+        try {
+          Thread.sleep(decisionWaitMillis);
+        } catch (InterruptedException e) {
+          // Preserve the interruption status as per guidance and stop doing any work.
+          Thread.currentThread().interrupt();
+          return;
+        }
+        decideExpiredTraces(System.nanoTime());
+      }
+    }
+  }
+}
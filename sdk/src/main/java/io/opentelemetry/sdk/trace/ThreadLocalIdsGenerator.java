@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * {@link IdsGenerator} that uses a different random generator for every thread, so generating ids
+ * never contends on a shared seed.
+ *
+ * <p>Every thread has its own SplitMix64 generator (the algorithm used by {@code
+ * java.util.SplittableRandom}), whose state is only accessed by the owning thread and is not
+ * updated with atomic operations. {@code ThreadLocalRandom} and {@code SplittableRandom} cannot be
+ * used directly because they are not available on the supported Android API levels.
+ */
+@ThreadSafe
+final class ThreadLocalIdsGenerator implements IdsGenerator {
+  private static final ThreadLocalIdsGenerator INSTANCE = new ThreadLocalIdsGenerator();
+  private static final long INVALID_ID = 0;
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+  // Spreads the initial seeds of the threads, same as in ThreadLocalRandom.
+  private static final long SEEDER_INCREMENT = 0xbb67ae8584caa73bL;
+
+  private static final AtomicLong seeder =
+      new AtomicLong(mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
+  private static final ThreadLocal<SplitMix64> threadRandom =
+      new ThreadLocal<SplitMix64>() {
+        @Override
+        protected SplitMix64 initialValue() {
+          return new SplitMix64(mix64(seeder.getAndAdd(SEEDER_INCREMENT)));
+        }
+      };
+
+  private ThreadLocalIdsGenerator() {}
+
+  /**
+   * Returns the {@code ThreadLocalIdsGenerator} instance, which is shared by all tracers.
+   *
+   * @return the {@code ThreadLocalIdsGenerator} instance.
+   */
+  static ThreadLocalIdsGenerator getInstance() {
+    return INSTANCE;
+  }
+
+  @Override
+  public SpanId generateSpanId() {
+    SplitMix64 random = threadRandom.get();
+    long id;
+    do {
+      id = random.nextLong();
+    } while (id == INVALID_ID);
+    return new SpanId(id);
+  }
+
+  @Override
+  public TraceId generateTraceId() {
+    SplitMix64 random = threadRandom.get();
+    long idHi;
+    long idLo;
+    do {
+      idHi = random.nextLong();
+      idLo = random.nextLong();
+    } while (idHi == INVALID_ID && idLo == INVALID_ID);
+    return new TraceId(idHi, idLo);
+  }
+
+  // Variant 13 of the MurmurHash3 finalizer, same as SplittableRandom.mix64.
+  private static long mix64(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  // A SplitMix64 generator, must only be used by the thread that owns it.
+  private static final class SplitMix64 {
+    private long seed;
+
+    private SplitMix64(long seed) {
+      this.seed = seed;
+    }
+
+    private long nextLong() {
+      seed += GOLDEN_GAMMA;
+      return mix64(seed);
+    }
+  }
+}
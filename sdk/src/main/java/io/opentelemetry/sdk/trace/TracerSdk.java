@@ -19,7 +19,9 @@ package io.opentelemetry.sdk.trace;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.context.propagation.BinaryFormat;
 import io.opentelemetry.context.propagation.HttpTextFormat;
+import io.opentelemetry.internal.Utils;
 import io.opentelemetry.sdk.trace.config.TraceConfig;
+import io.opentelemetry.trace.AttributeValue;
 import io.opentelemetry.trace.DefaultTracer;
 import io.opentelemetry.trace.Span;
 import io.opentelemetry.trace.SpanContext;
@@ -27,6 +29,9 @@ import io.opentelemetry.trace.Tracer;
 import io.opentelemetry.trace.propagation.BinaryTraceContext;
 import io.opentelemetry.trace.propagation.HttpTraceContext;
 import io.opentelemetry.trace.unsafe.ContextUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /** {@link TracerSdk} is SDK implementation of {@link Tracer}. */
 public class TracerSdk implements Tracer {
@@ -50,7 +55,9 @@ public class TracerSdk implements Tracer {
 
   @Override
   public Scope withSpan(Span span) {
-    return ContextUtils.withSpan(span);
+    SpanEndBatcher spanEndBatcher = sharedState.getSpanEndBatcher();
+    Scope scope = ContextUtils.withSpan(span);
+    return spanEndBatcher == null ? scope : spanEndBatcher.withScope(scope);
   }
 
   @Override
@@ -64,7 +71,123 @@ public class TracerSdk implements Tracer {
         sharedState.getActiveTraceConfig(),
         sharedState.getResource(),
         sharedState.getIdsGenerator(),
-        sharedState.getClock());
+        sharedState.getClock(),
+        sharedState.getSpanLeakDetector(),
+        sharedState.getSpanRecycler(),
+        sharedState.getSpanMemoryBudget());
+  }
+
+  /**
+   * Returns a new {@link SpanTemplate} for spans with the given name, kind and constant attributes.
+   * The attributes are validated, copied and truncated to the limits of the active {@link
+   * TraceConfig} once, here, instead of for every span.
+   *
+   * @param spanName the name of the spans started from the template.
+   * @param kind the kind of the spans started from the template.
+   * @param attributes the constant attributes of the spans started from the template.
+   * @return a new {@code SpanTemplate}.
+   * @throws NullPointerException if any argument, attribute key or attribute value is {@code null}.
+   * @since 0.2.0
+   */
+  public SpanTemplate spanTemplate(
+      String spanName, Span.Kind kind, Map<String, AttributeValue> attributes) {
+    Utils.checkNotNull(spanName, "spanName");
+    Utils.checkNotNull(kind, "kind");
+    Utils.checkNotNull(attributes, "attributes");
+    for (Map.Entry<String, AttributeValue> entry : attributes.entrySet()) {
+      Utils.checkNotNull(entry.getKey(), "key");
+      Utils.checkNotNull(entry.getValue(), "value");
+    }
+    TraceConfig traceConfig = sharedState.getActiveTraceConfig();
+    int maxLength = traceConfig.getMaxAttributeValueLength();
+    AttributesMap templateAttributes = new AttributesMap(traceConfig.getMaxNumberOfAttributes());
+    templateAttributes.putAllAttributeValues(
+        Truncation.countTooLong(attributes, maxLength) == 0
+            ? attributes
+            : Truncation.truncate(attributes, maxLength));
+    return new SpanTemplate(spanName, kind, templateAttributes);
+  }
+
+  /**
+   * Returns a {@link Span.Builder} for a span with the name, kind and constant attributes of the
+   * given template.
+   *
+   * @param template the template of the span.
+   * @return a {@code Span.Builder} for a span started from the given template.
+   * @since 0.2.0
+   */
+  public Span.Builder spanBuilder(SpanTemplate template) {
+    Utils.checkNotNull(template, "template");
+    Span.Builder spanBuilder = spanBuilder(template.getSpanName());
+    if (spanBuilder instanceof SpanBuilderSdk) {
+      return ((SpanBuilderSdk) spanBuilder).setTemplate(template);
+    }
+    return spanBuilder.setSpanKind(template.getKind());
+  }
+
+  /**
+   * Records a span that was completed outside of this SDK, for example replayed from logs or
+   * measured by a batch job. The span is handed to the active {@link SpanProcessor}s as a {@link
+   * ReadableSpan} that is already ended, without going through the sampler, the clock or the
+   * limits of the active {@link TraceConfig}.
+   *
+   * <p>The {@code SpanData} is used as is, including its ids, parent, times, {@link
+   * io.opentelemetry.sdk.resources.Resource}, attributes, events and links. Nothing is recorded
+   * after {@link #shutdown()}.
+   *
+   * @param spanData the data of the completed span.
+   * @throws NullPointerException if {@code spanData} is {@code null}.
+   * @throws IllegalArgumentException if the span ends before it starts.
+   * @since 0.2.0
+   */
+  public void recordSpan(SpanData spanData) {
+    checkSpanData(spanData);
+    if (sharedState.isStopped()) {
+      return;
+    }
+    SpanProcessor spanProcessor = sharedState.getActiveSpanProcessor();
+    ReadableSpan span = new CompletedSpan(spanData);
+    spanProcessor.onStart(span);
+    spanProcessor.onEnd(span);
+  }
+
+  /**
+   * Records many spans that were completed outside of this SDK, see {@link #recordSpan(SpanData)}.
+   * The spans are handed at once to the processors that implement {@link SpanBatchProcessor}.
+   *
+   * @param spans the data of the completed spans.
+   * @throws NullPointerException if {@code spans} or any of its elements is {@code null}.
+   * @throws IllegalArgumentException if any span ends before it starts.
+   * @since 0.2.0
+   */
+  public void recordSpans(List<SpanData> spans) {
+    Utils.checkNotNull(spans, "spans");
+    List<ReadableSpan> readableSpans = new ArrayList<>(spans.size());
+    for (SpanData spanData : spans) {
+      checkSpanData(spanData);
+      readableSpans.add(new CompletedSpan(spanData));
+    }
+    if (sharedState.isStopped()) {
+      return;
+    }
+    SpanProcessor spanProcessor = sharedState.getActiveSpanProcessor();
+    for (ReadableSpan span : readableSpans) {
+      spanProcessor.onStart(span);
+    }
+    if (spanProcessor instanceof SpanBatchProcessor) {
+      ((SpanBatchProcessor) spanProcessor).onEndBatch(readableSpans);
+      return;
+    }
+    for (ReadableSpan span : readableSpans) {
+      spanProcessor.onEnd(span);
+    }
+  }
+
+  private static void checkSpanData(SpanData spanData) {
+    Utils.checkNotNull(spanData, "spanData");
+    Utils.checkArgument(
+        spanData.getEndEpochNanos() >= spanData.getStartEpochNanos(),
+        "The span ends before it starts.");
   }
 
   @Override
@@ -16,6 +16,7 @@
 
 package io.opentelemetry.sdk.trace;
 
+import io.opentelemetry.internal.Utils;
 import io.opentelemetry.sdk.trace.config.TraceConfig;
 import io.opentelemetry.trace.Tracer;
 import io.opentelemetry.trace.TracerFactory;
@@ -23,6 +24,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 
 /**
  * {@code Tracer} provider implementation for {@link TracerFactory}.
@@ -70,6 +72,76 @@ public class TracerSdkFactory implements TracerFactory {
     sharedState.updateActiveTraceConfig(traceConfig);
   }
 
+  /**
+   * Sets the {@link IdsGenerator} used to generate the ids of the new spans. It applies to the
+   * spans started after this call by all the {@code Tracer}s of this factory.
+   *
+   * <p>The default {@code IdsGenerator} uses a different random generator for every thread, so it
+   * does not contend when many threads start spans concurrently. Custom implementations must be
+   * thread-safe.
+   *
+   * @param idsGenerator the new {@code IdsGenerator}.
+   * @throws NullPointerException if {@code idsGenerator} is {@code null}.
+   */
+  public void setIdsGenerator(IdsGenerator idsGenerator) {
+    sharedState.updateIdsGenerator(Utils.checkNotNull(idsGenerator, "idsGenerator"));
+  }
+
+  /**
+   * Sets the {@link SpanLeakDetector} used to report spans that are garbage collected without being
+   * ended. Leak detection is disabled by default.
+   *
+   * <p>The previous {@code SpanLeakDetector}, if any, is shut down and stops reporting leaks.
+   *
+   * @param spanLeakDetector the new {@code SpanLeakDetector}, or {@code null} to disable leak
+   *     detection.
+   */
+  public void setSpanLeakDetector(@Nullable SpanLeakDetector spanLeakDetector) {
+    sharedState.updateSpanLeakDetector(spanLeakDetector);
+  }
+
+  /**
+   * Sets the {@link SpanRecycler} used to recycle the storage of the spans once they are ended and
+   * released by all the {@link SpanProcessor}s. Span recycling is disabled by default.
+   *
+   * <p>Only enable it if all the registered processors and exporters follow the ownership protocol
+   * described in {@link SpanRecycler}. It applies to the spans started after this call.
+   *
+   * @param spanRecycler the new {@code SpanRecycler}, or {@code null} to disable span recycling.
+   */
+  public void setSpanRecycler(@Nullable SpanRecycler spanRecycler) {
+    sharedState.updateSpanRecycler(spanRecycler);
+  }
+
+  /**
+   * Sets the {@link SpanMemoryBudget} that bounds the memory retained by the recording spans. The
+   * memory is not bounded by default.
+   *
+   * <p>Only enable it if all the registered processors and exporters follow the ownership protocol
+   * described in {@link SpanRecycler}. It applies to the spans started after this call, the spans
+   * that are already started keep using the previous budget.
+   *
+   * @param spanMemoryBudget the new {@code SpanMemoryBudget}, or {@code null} to not bound the
+   *     memory.
+   */
+  public void setSpanMemoryBudget(@Nullable SpanMemoryBudget spanMemoryBudget) {
+    sharedState.updateSpanMemoryBudget(spanMemoryBudget);
+  }
+
+  /**
+   * Sets the {@link SpanEndBatcher} used to hand the ended spans to the {@link SpanProcessor}s in
+   * batches. The ended spans are handed to the processors one by one by default.
+   *
+   * <p>The previous {@code SpanEndBatcher}, if any, is shut down after the spans it buffered are
+   * handed to the processors. It applies to the spans started after this call.
+   *
+   * @param spanEndBatcher the new {@code SpanEndBatcher}, or {@code null} to not batch the ended
+   *     spans.
+   */
+  public void setSpanEndBatcher(@Nullable SpanEndBatcher spanEndBatcher) {
+    sharedState.updateSpanEndBatcher(spanEndBatcher);
+  }
+
   /**
    * Adds a new {@code SpanProcessor} to this {@code Tracer}.
    *
@@ -17,26 +17,30 @@
 package io.opentelemetry.sdk.trace;
 
 import io.opentelemetry.sdk.common.Clock;
-import io.opentelemetry.sdk.internal.MillisClock;
+import io.opentelemetry.sdk.internal.CalibratedClock;
 import io.opentelemetry.sdk.resources.EnvVarResource;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.trace.config.TraceConfig;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 
 // Represents the shared state/config between all Tracers created by the same TracerFactory.
 final class TracerSharedState {
   private final Object lock = new Object();
-  private final Clock clock = MillisClock.getInstance();
-  private final IdsGenerator idsGenerator = new RandomIdsGenerator(new Random());
+  private final Clock clock = CalibratedClock.getInstance();
   private final Resource resource = EnvVarResource.getResource();
 
   // Reads and writes are atomic for reference variables. Use volatile to ensure that these
   // operations are visible on other CPUs as well.
   private volatile TraceConfig activeTraceConfig = TraceConfig.getDefault();
   private volatile SpanProcessor activeSpanProcessor = NoopSpanProcessor.getInstance();
+  private volatile IdsGenerator idsGenerator = ThreadLocalIdsGenerator.getInstance();
+  @Nullable private volatile SpanLeakDetector spanLeakDetector = null;
+  @Nullable private volatile SpanRecycler spanRecycler = null;
+  @Nullable private volatile SpanMemoryBudget spanMemoryBudget = null;
+  @Nullable private volatile SpanEndBatcher spanEndBatcher = null;
   private volatile boolean isStopped = false;
 
   @GuardedBy("lock")
@@ -46,10 +50,24 @@ final class TracerSharedState {
     return clock;
   }
 
+  /**
+   * Returns the active {@code IdsGenerator}.
+   *
+   * @return the active {@code IdsGenerator}.
+   */
   IdsGenerator getIdsGenerator() {
     return idsGenerator;
   }
 
+  /**
+   * Updates the active {@link IdsGenerator}.
+   *
+   * @param idsGenerator the new active {@code IdsGenerator}.
+   */
+  void updateIdsGenerator(IdsGenerator idsGenerator) {
+    this.idsGenerator = idsGenerator;
+  }
+
   Resource getResource() {
     return resource;
   }
@@ -89,7 +107,108 @@ final class TracerSharedState {
   void addSpanProcessor(SpanProcessor spanProcessor) {
     synchronized (lock) {
       registeredSpanProcessors.add(spanProcessor);
-      activeSpanProcessor = MultiSpanProcessor.create(registeredSpanProcessors);
+      updateActiveSpanProcessor();
+    }
+  }
+
+  @GuardedBy("lock")
+  private void updateActiveSpanProcessor() {
+    SpanProcessor spanProcessor = MultiSpanProcessor.create(registeredSpanProcessors);
+    activeSpanProcessor =
+        spanEndBatcher == null ? spanProcessor : spanEndBatcher.wrap(spanProcessor);
+  }
+
+  /**
+   * Returns the active {@code SpanLeakDetector}, or {@code null} if leak detection is disabled.
+   *
+   * @return the active {@code SpanLeakDetector}, or {@code null} if leak detection is disabled.
+   */
+  @Nullable
+  SpanLeakDetector getSpanLeakDetector() {
+    return spanLeakDetector;
+  }
+
+  /**
+   * Updates the active {@link SpanLeakDetector}, shutting down the previous one if any.
+   *
+   * @param spanLeakDetector the new {@code SpanLeakDetector}, or {@code null} to disable leak
+   *     detection.
+   */
+  void updateSpanLeakDetector(@Nullable SpanLeakDetector spanLeakDetector) {
+    synchronized (lock) {
+      SpanLeakDetector previous = this.spanLeakDetector;
+      this.spanLeakDetector = spanLeakDetector;
+      if (previous != null && previous != spanLeakDetector) {
+        previous.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Returns the active {@code SpanRecycler}, or {@code null} if span recycling is disabled.
+   *
+   * @return the active {@code SpanRecycler}, or {@code null} if span recycling is disabled.
+   */
+  @Nullable
+  SpanRecycler getSpanRecycler() {
+    return spanRecycler;
+  }
+
+  /**
+   * Updates the active {@link SpanRecycler}.
+   *
+   * @param spanRecycler the new {@code SpanRecycler}, or {@code null} to disable span recycling.
+   */
+  void updateSpanRecycler(@Nullable SpanRecycler spanRecycler) {
+    this.spanRecycler = spanRecycler;
+  }
+
+  /**
+   * Returns the active {@code SpanMemoryBudget}, or {@code null} if the memory is not bounded.
+   *
+   * @return the active {@code SpanMemoryBudget}, or {@code null} if the memory is not bounded.
+   */
+  @Nullable
+  SpanMemoryBudget getSpanMemoryBudget() {
+    return spanMemoryBudget;
+  }
+
+  /**
+   * Updates the active {@link SpanMemoryBudget}.
+   *
+   * @param spanMemoryBudget the new {@code SpanMemoryBudget}, or {@code null} to not bound the
+   *     memory.
+   */
+  void updateSpanMemoryBudget(@Nullable SpanMemoryBudget spanMemoryBudget) {
+    this.spanMemoryBudget = spanMemoryBudget;
+  }
+
+  /**
+   * Returns the active {@code SpanEndBatcher}, or {@code null} if the ended spans are not batched.
+   *
+   * @return the active {@code SpanEndBatcher}, or {@code null} if the ended spans are not batched.
+   */
+  @Nullable
+  SpanEndBatcher getSpanEndBatcher() {
+    return spanEndBatcher;
+  }
+
+  /**
+   * Updates the active {@link SpanEndBatcher}, shutting down the previous one if any.
+   *
+   * @param spanEndBatcher the new {@code SpanEndBatcher}, or {@code null} to not batch the ended
+   *     spans.
+   */
+  void updateSpanEndBatcher(@Nullable SpanEndBatcher spanEndBatcher) {
+    synchronized (lock) {
+      SpanEndBatcher previous = this.spanEndBatcher;
+      this.spanEndBatcher = spanEndBatcher;
+      if (!registeredSpanProcessors.isEmpty()) {
+        updateActiveSpanProcessor();
+      }
+      if (previous != null && previous != spanEndBatcher) {
+        previous.shutdown();
+      }
     }
   }
 
@@ -111,6 +230,12 @@ final class TracerSharedState {
         return;
       }
       activeSpanProcessor.shutdown();
+      if (spanEndBatcher != null) {
+        spanEndBatcher.shutdown();
+      }
+      if (spanLeakDetector != null) {
+        spanLeakDetector.shutdown();
+      }
       isStopped = true;
     }
   }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.ValueSupplier;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Truncation of the {@code String} values recorded on spans. Values that are within the limit are
+ * always returned as they are, so recording them never copies. Lazily supplied values are
+ * truncated when they are evaluated.
+ */
+final class Truncation {
+
+  /**
+   * Returns whether the given value is longer than the max length.
+   *
+   * @param value the value.
+   * @param maxLength the max length.
+   * @return whether the given value is longer than the max length.
+   */
+  static boolean isTooLong(String value, int maxLength) {
+    return value.length() > maxLength;
+  }
+
+  /**
+   * Returns whether the given value is a {@code String} value longer than the max length.
+   *
+   * @param value the value.
+   * @param maxLength the max length.
+   * @return whether the given value is a {@code String} value longer than the max length.
+   */
+  static boolean isTooLong(AttributeValue value, int maxLength) {
+    return value.getType() == AttributeValue.Type.STRING
+        && isTooLong(value.getStringValue(), maxLength);
+  }
+
+  /**
+   * Returns the given value truncated to the max length. A surrogate pair is never split, so the
+   * result may be one char shorter than the max length.
+   *
+   * @param value the value.
+   * @param maxLength the max length.
+   * @return the given value truncated to the max length.
+   */
+  static String truncate(String value, int maxLength) {
+    if (!isTooLong(value, maxLength)) {
+      return value;
+    }
+    int length = maxLength;
+    if (Character.isHighSurrogate(value.charAt(length - 1))) {
+      length--;
+    }
+    // Only the kept prefix is copied, the original value can be collected once recorded.
+    return value.substring(0, length);
+  }
+
+  /**
+   * Returns the given value truncated to the max length if it is a {@code String} value.
+   *
+   * @param value the value.
+   * @param maxLength the max length.
+   * @return the given value truncated to the max length if it is a {@code String} value.
+   */
+  static AttributeValue truncate(AttributeValue value, int maxLength) {
+    if (!isTooLong(value, maxLength)) {
+      return value;
+    }
+    return AttributeValue.stringAttributeValue(truncate(value.getStringValue(), maxLength));
+  }
+
+  /**
+   * Returns the number of {@code String} values longer than the max length in the given
+   * attributes.
+   *
+   * @param attributes the attributes.
+   * @param maxLength the max length of the {@code String} values.
+   * @return the number of {@code String} values longer than the max length.
+   */
+  static int countTooLong(Map<String, AttributeValue> attributes, int maxLength) {
+    if (maxLength == Integer.MAX_VALUE) {
+      return 0;
+    }
+    int count = 0;
+    for (AttributeValue value : attributes.values()) {
+      if (value != null && isTooLong(value, maxLength)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns a copy of the given attributes where the {@code String} values are truncated to the
+   * max length.
+   *
+   * @param attributes the attributes.
+   * @param maxLength the max length of the {@code String} values.
+   * @return a copy of the given attributes where the {@code String} values are truncated.
+   */
+  static Map<String, AttributeValue> truncate(
+      Map<String, AttributeValue> attributes, int maxLength) {
+    Map<String, AttributeValue> copy = new LinkedHashMap<>();
+    for (Map.Entry<String, AttributeValue> entry : attributes.entrySet()) {
+      copy.put(entry.getKey(), truncate(entry.getValue(), maxLength));
+    }
+    return copy;
+  }
+
+  /**
+   * Returns a supplier that truncates the {@code String} values of the given supplier to the max
+   * length.
+   *
+   * @param valueSupplier the supplier of the value.
+   * @param maxLength the max length of the {@code String} values.
+   * @return a supplier that truncates the {@code String} values of the given supplier.
+   */
+  static ValueSupplier<AttributeValue> truncating(
+      final ValueSupplier<AttributeValue> valueSupplier, final int maxLength) {
+    if (maxLength == Integer.MAX_VALUE) {
+      return valueSupplier;
+    }
+    return new ValueSupplier<AttributeValue>() {
+      @Override
+      @Nullable
+      public AttributeValue get() {
+        AttributeValue value = valueSupplier.get();
+        return value == null ? null : truncate(value, maxLength);
+      }
+    };
+  }
+
+  /**
+   * Returns a supplier that truncates the {@code String} values of the attributes returned by the
+   * given supplier to the max length.
+   *
+   * @param attributesSupplier the supplier of the attributes.
+   * @param maxLength the max length of the {@code String} values.
+   * @return a supplier that truncates the {@code String} values of the supplied attributes.
+   */
+  static ValueSupplier<Map<String, AttributeValue>> truncatingAttributes(
+      final ValueSupplier<Map<String, AttributeValue>> attributesSupplier, final int maxLength) {
+    if (maxLength == Integer.MAX_VALUE) {
+      return attributesSupplier;
+    }
+    return new ValueSupplier<Map<String, AttributeValue>>() {
+      @Override
+      @Nullable
+      public Map<String, AttributeValue> get() {
+        Map<String, AttributeValue> attributes = attributesSupplier.get();
+        if (attributes == null || countTooLong(attributes, maxLength) == 0) {
+          return attributes;
+        }
+        return truncate(attributes, maxLength);
+      }
+    };
+  }
+
+  private Truncation() {}
+}
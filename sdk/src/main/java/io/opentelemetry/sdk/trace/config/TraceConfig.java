@@ -37,6 +37,9 @@ public abstract class TraceConfig {
   private static final int DEFAULT_SPAN_MAX_NUM_LINKS = 32;
   private static final int DEFAULT_SPAN_MAX_NUM_ATTRIBUTES_PER_EVENT = 32;
   private static final int DEFAULT_SPAN_MAX_NUM_ATTRIBUTES_PER_LINK = 32;
+  // String values and event names are not truncated by default.
+  private static final int DEFAULT_SPAN_MAX_ATTRIBUTE_VALUE_LENGTH = Integer.MAX_VALUE;
+  private static final int DEFAULT_SPAN_MAX_EVENT_NAME_LENGTH = Integer.MAX_VALUE;
 
   /**
    * Returns the default {@code TraceConfig}.
@@ -56,6 +59,8 @@ public abstract class TraceConfig {
           .setMaxNumberOfLinks(DEFAULT_SPAN_MAX_NUM_LINKS)
           .setMaxNumberOfAttributesPerEvent(DEFAULT_SPAN_MAX_NUM_ATTRIBUTES_PER_EVENT)
           .setMaxNumberOfAttributesPerLink(DEFAULT_SPAN_MAX_NUM_ATTRIBUTES_PER_LINK)
+          .setMaxAttributeValueLength(DEFAULT_SPAN_MAX_ATTRIBUTE_VALUE_LENGTH)
+          .setMaxEventNameLength(DEFAULT_SPAN_MAX_EVENT_NAME_LENGTH)
           .build();
 
   /**
@@ -100,6 +105,24 @@ public abstract class TraceConfig {
    */
   public abstract int getMaxNumberOfAttributesPerLink();
 
+  /**
+   * Returns the global default max length of the {@code String} attribute values, in chars. Longer
+   * values of the span and event attributes are truncated when they are recorded.
+   *
+   * @return the global default max length of the {@code String} attribute values.
+   * @since 0.2.0
+   */
+  public abstract int getMaxAttributeValueLength();
+
+  /**
+   * Returns the global default max length of the {@link Event} names, in chars. Longer names are
+   * truncated when the event is recorded.
+   *
+   * @return the global default max length of the {@link Event} names.
+   * @since 0.2.0
+   */
+  public abstract int getMaxEventNameLength();
+
   /**
    * Returns a new {@link Builder}.
    *
@@ -174,6 +197,26 @@ public abstract class TraceConfig {
      */
     public abstract Builder setMaxNumberOfAttributesPerLink(int maxNumberOfAttributesPerLink);
 
+    /**
+     * Sets the global default max length of the {@code String} attribute values, in chars.
+     *
+     * @param maxAttributeValueLength the global default max length of the {@code String} attribute
+     *     values. It must be positive otherwise {@link #build()} will throw an exception.
+     * @return this.
+     * @since 0.2.0
+     */
+    public abstract Builder setMaxAttributeValueLength(int maxAttributeValueLength);
+
+    /**
+     * Sets the global default max length of the {@link Event} names, in chars.
+     *
+     * @param maxEventNameLength the global default max length of the {@link Event} names. It must
+     *     be positive otherwise {@link #build()} will throw an exception.
+     * @return this.
+     * @since 0.2.0
+     */
+    public abstract Builder setMaxEventNameLength(int maxEventNameLength);
+
     abstract TraceConfig autoBuild();
 
     /**
@@ -192,6 +235,9 @@ public abstract class TraceConfig {
           traceConfig.getMaxNumberOfAttributesPerEvent() > 0, "maxNumberOfAttributesPerEvent");
       Preconditions.checkArgument(
           traceConfig.getMaxNumberOfAttributesPerLink() > 0, "maxNumberOfAttributesPerLink");
+      Preconditions.checkArgument(
+          traceConfig.getMaxAttributeValueLength() > 0, "maxAttributeValueLength");
+      Preconditions.checkArgument(traceConfig.getMaxEventNameLength() > 0, "maxEventNameLength");
       return traceConfig;
     }
   }
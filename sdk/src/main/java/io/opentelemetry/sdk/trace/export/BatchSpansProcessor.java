@@ -19,6 +19,7 @@ package io.opentelemetry.sdk.trace.export;
 import com.google.common.util.concurrent.MoreExecutors;
 import io.opentelemetry.internal.Utils;
 import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanBatchProcessor;
 import io.opentelemetry.sdk.trace.SpanData;
 import io.opentelemetry.sdk.trace.SpanProcessor;
 import java.util.ArrayList;
@@ -42,8 +43,11 @@ import javax.annotation.concurrent.GuardedBy;
  *
  * <p>This batch {@link SpanProcessor} can cause high contention in a very high traffic service.
  * TODO: Add a link to the SpanProcessor that uses Disruptor as alternative with low contention.
+ *
+ * <p>The contention is reduced by batching the ended spans with a {@link
+ * io.opentelemetry.sdk.trace.SpanEndBatcher}: every batch is then added to the queue at once.
  */
-public final class BatchSpansProcessor implements SpanProcessor {
+public final class BatchSpansProcessor implements SpanBatchProcessor {
   private static final String WORKER_THREAD_NAME =
       BatchSpansProcessor.class.getSimpleName() + "_WorkerThread";
   private final Worker worker;
@@ -70,9 +74,26 @@ public final class BatchSpansProcessor implements SpanProcessor {
     if (sampled && !span.getSpanContext().getTraceFlags().isSampled()) {
       return;
     }
+    // The span is exported after onEnd returns, keep it until then.
+    span.retain();
     worker.addSpan(span);
   }
 
+  @Override
+  public void onEndBatch(List<ReadableSpan> spans) {
+    List<ReadableSpan> exportedSpans = new ArrayList<>(spans.size());
+    for (ReadableSpan span : spans) {
+      if (sampled && !span.getSpanContext().getTraceFlags().isSampled()) {
+        continue;
+      }
+      span.retain();
+      exportedSpans.add(span);
+    }
+    if (!exportedSpans.isEmpty()) {
+      worker.addSpans(exportedSpans);
+    }
+  }
+
   @Override
   public void shutdown() {
     workerThread.interrupt();
@@ -221,6 +242,7 @@ public final class BatchSpansProcessor implements SpanProcessor {
       synchronized (monitor) {
         if (spansList.size() == maxQueueSize) {
           // TODO: Record a counter for dropped spans.
+          span.release();
           return;
         }
         // TODO: Record a gauge for referenced spans.
@@ -233,6 +255,20 @@ public final class BatchSpansProcessor implements SpanProcessor {
       }
     }
 
+    // Adds all the spans with a single acquisition of the monitor.
+    private void addSpans(List<ReadableSpan> spans) {
+      synchronized (monitor) {
+        int added = Math.min(spans.size(), maxQueueSize - spansList.size());
+        spansList.addAll(spans.subList(0, added));
+        for (int i = added; i < spans.size(); i++) {
+          spans.get(i).release();
+        }
+        if (spansList.size() >= halfMaxQueueSize) {
+          monitor.notifyAll();
+        }
+      }
+    }
+
     @Override
     public void run() {
       while (!Thread.currentThread().isInterrupted()) {
@@ -277,6 +313,7 @@ public final class BatchSpansProcessor implements SpanProcessor {
       for (int i = 0; i < spanList.size(); ) {
         int batchSizeLimit = Math.min(i + maxExportBatchSize, spanList.size());
         onBatchExport(createSpanDataForExport(spanList, i, batchSizeLimit));
+        releaseSpans(spanList, i, batchSizeLimit);
         i = batchSizeLimit;
       }
     }
@@ -286,10 +323,17 @@ public final class BatchSpansProcessor implements SpanProcessor {
       List<SpanData> spanDataBuffer = new ArrayList<>(numberToTake);
       for (int i = startIndex; i < numberToTake; i++) {
         spanDataBuffer.add(spanList.get(i).toSpanData());
+      }
+      return Collections.unmodifiableList(spanDataBuffer);
+    }
+
+    // Called once the exporter returned, it must not use the exported SpanData anymore.
+    private static void releaseSpans(List<ReadableSpan> spanList, int startIndex, int endIndex) {
+      for (int i = startIndex; i < endIndex; i++) {
+        spanList.get(i).release();
         // Remove the reference to the ReadableSpan to allow GC to free the memory.
         spanList.set(i, null);
       }
-      return Collections.unmodifiableList(spanDataBuffer);
     }
 
     // Exports the list of Span protos to all the ServiceHandlers.
@@ -49,6 +49,9 @@ public interface SpanExporter {
   /**
    * Called to export sampled {@code Span}s.
    *
+   * <p>If span recycling is enabled with {@link io.opentelemetry.sdk.trace.SpanRecycler}, the given
+   * {@code SpanData} must not be used after this method returns; copy them to keep them longer.
+   *
    * @param spans the list of sampled Spans to be exported.
    * @return the result of the export.
    */
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.sdk.common.Clock;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link CalibratedClock}. */
+@RunWith(JUnit4.class)
+public class CalibratedClockTest {
+  private static final long EPOCH_NANOS = 1234_000_005_678L;
+  private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long SECONDS = TimeUnit.SECONDS.toNanos(1);
+
+  private final DriftingClock driftingClock = new DriftingClock();
+
+  @Test
+  public void now_FollowsNanoTime() {
+    CalibratedClock clock = CalibratedClock.create(driftingClock);
+    assertThat(clock.now()).isEqualTo(EPOCH_NANOS);
+    driftingClock.advanceNanos(12345);
+    assertThat(clock.now()).isEqualTo(EPOCH_NANOS + 12345);
+    assertThat(clock.nanoTime()).isEqualTo(driftingClock.nanoTime());
+  }
+
+  @Test
+  public void now_DoesNotReadEpochClockBeforeRecalibration() {
+    CalibratedClock clock = CalibratedClock.create(driftingClock);
+    driftingClock.epochNanos += 5 * MILLIS;
+    driftingClock.advanceNanos(SECONDS / 2);
+    assertThat(clock.now()).isEqualTo(EPOCH_NANOS + SECONDS / 2);
+  }
+
+  @Test
+  public void recalibrate_EpochClockAhead() {
+    CalibratedClock clock = CalibratedClock.create(driftingClock);
+    driftingClock.epochNanos += 5 * MILLIS;
+    driftingClock.advanceNanos(SECONDS);
+    assertThat(clock.now()).isEqualTo(EPOCH_NANOS + SECONDS + 5 * MILLIS);
+    driftingClock.advanceNanos(100);
+    assertThat(clock.now()).isEqualTo(EPOCH_NANOS + SECONDS + 5 * MILLIS + 100);
+  }
+
+  @Test
+  public void recalibrate_EpochClockBehind() {
+    CalibratedClock clock = CalibratedClock.create(driftingClock);
+    driftingClock.epochNanos -= 5 * MILLIS;
+    driftingClock.advanceNanos(SECONDS);
+    // Does not move back, but runs 5% slower until it caught up with the latest time allowed by
+    // the resolution of the epoch clock.
+    assertThat(clock.now()).isEqualTo(EPOCH_NANOS + SECONDS);
+    driftingClock.advanceNanos(40 * MILLIS);
+    assertThat(clock.now()).isEqualTo(EPOCH_NANOS + SECONDS + 38 * MILLIS);
+    driftingClock.advanceNanos(40 * MILLIS);
+    assertThat(clock.now()).isEqualTo(EPOCH_NANOS + SECONDS + 76 * MILLIS);
+    driftingClock.advanceNanos(40 * MILLIS);
+    assertThat(clock.now()).isEqualTo(EPOCH_NANOS + SECONDS + 116 * MILLIS);
+  }
+
+  @Test
+  public void recalibrate_EpochClockSteppedBack_NeverGoesBackward() {
+    CalibratedClock clock = CalibratedClock.create(driftingClock);
+    long previous = clock.now();
+    driftingClock.epochNanos -= 10 * SECONDS;
+    for (int i = 0; i < 1000; i++) {
+      driftingClock.advanceNanos(SECONDS / 2);
+      long now = clock.now();
+      assertThat(now).isAtLeast(previous);
+      previous = now;
+    }
+    // Caught up with the epoch clock.
+    assertThat(previous).isAtMost(driftingClock.now() + MILLIS);
+    assertThat(previous).isAtLeast(driftingClock.now());
+  }
+
+  @Test
+  public void recalibrate_DriftWithinResolutionIgnored() {
+    CalibratedClock clock = CalibratedClock.create(driftingClock);
+    driftingClock.epochNanos -= MILLIS / 2;
+    driftingClock.advanceNanos(SECONDS);
+    assertThat(clock.now()).isEqualTo(EPOCH_NANOS + SECONDS);
+  }
+
+  @Test
+  public void getInstance() {
+    assertThat(CalibratedClock.getInstance()).isSameInstanceAs(CalibratedClock.getInstance());
+    long before = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    long now = CalibratedClock.getInstance().now();
+    long after = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    assertThat(now).isAtLeast(before - 2 * MILLIS);
+    assertThat(now).isAtMost(after + 2 * MILLIS);
+  }
+
+  // A clock whose epoch time can drift from its nanoTime.
+  private static final class DriftingClock implements Clock {
+    private long epochNanos = EPOCH_NANOS;
+    private long nanoTime = 0;
+
+    private void advanceNanos(long nanos) {
+      epochNanos += nanos;
+      nanoTime += nanos;
+    }
+
+    @Override
+    public long now() {
+      return epochNanos;
+    }
+
+    @Override
+    public long nanoTime() {
+      return nanoTime;
+    }
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.trace.AttributeKey;
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.ValueSupplier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link AttributesMap}. */
+@RunWith(JUnit4.class)
+public class AttributesMapTest {
+
+  @Test
+  public void putTypedValues() {
+    AttributesMap attributes = new AttributesMap(8);
+    attributes.putString("string", "value");
+    attributes.putLong("long", 123L);
+    attributes.putDouble("double", 1.5);
+    attributes.putBoolean("boolean", true);
+    attributes.putAttributeValue("attributeValue", AttributeValue.longAttributeValue(7));
+
+    Map<String, AttributeValue> expected = new HashMap<>();
+    expected.put("string", AttributeValue.stringAttributeValue("value"));
+    expected.put("long", AttributeValue.longAttributeValue(123L));
+    expected.put("double", AttributeValue.doubleAttributeValue(1.5));
+    expected.put("boolean", AttributeValue.booleanAttributeValue(true));
+    expected.put("attributeValue", AttributeValue.longAttributeValue(7));
+    assertThat(attributes).isEqualTo(expected);
+    assertThat(attributes.get("double")).isEqualTo(AttributeValue.doubleAttributeValue(1.5));
+    assertThat(attributes.get("missing")).isNull();
+    assertThat(attributes.getNumberOfDroppedAttributes()).isEqualTo(0);
+  }
+
+  @Test
+  public void dropsLeastRecentlyUpdated() {
+    AttributesMap attributes = new AttributesMap(3);
+    attributes.putLong("a", 1);
+    attributes.putLong("b", 2);
+    attributes.putLong("c", 3);
+    // Updating "a" makes "b" the least recently updated.
+    attributes.putString("a", "one");
+    attributes.putLong("d", 4);
+
+    assertThat(attributes.keySet()).containsExactly("c", "a", "d").inOrder();
+    assertThat(attributes.get("a")).isEqualTo(AttributeValue.stringAttributeValue("one"));
+    assertThat(attributes.getNumberOfDroppedAttributes()).isEqualTo(2);
+  }
+
+  @Test
+  public void estimatedBytesReplacedBy() {
+    AttributesMap attributes = new AttributesMap(2);
+    assertThat(attributes.estimatedBytesReplacedBy("a")).isEqualTo(0);
+    attributes.putString("a", "value");
+    attributes.putLong("b", 1);
+    // The same key, then the oldest entry of the full map.
+    assertThat(attributes.estimatedBytesReplacedBy("b"))
+        .isEqualTo(SpanMemoryBudget.attributeBytes("b"));
+    assertThat(attributes.estimatedBytesReplacedBy("c"))
+        .isEqualTo(SpanMemoryBudget.attributeBytes("a", "value"));
+
+    Map<String, AttributeValue> newAttributes = new HashMap<>();
+    newAttributes.put("a", AttributeValue.longAttributeValue(2));
+    newAttributes.put("c", AttributeValue.longAttributeValue(3));
+    // "a" is replaced and "c" drops "b", the oldest entry not set again.
+    assertThat(attributes.estimatedBytesReplacedBy(newAttributes))
+        .isEqualTo(
+            SpanMemoryBudget.attributeBytes("a", "value") + SpanMemoryBudget.attributeBytes("b"));
+  }
+
+  @Test
+  public void putWithKeys() {
+    AttributeKey<Long> longKey = AttributeKey.longKey("AttributesMapTest.long");
+    AttributeKey<Boolean> booleanKey = AttributeKey.booleanKey("AttributesMapTest.boolean");
+    AttributesMap attributes = new AttributesMap(3);
+    attributes.putLong(longKey, 1);
+    attributes.putBoolean(booleanKey, true);
+    attributes.putString("name", "value");
+    attributes.putLong(longKey, 2);
+
+    assertThat(attributes.keySet())
+        .containsExactly("AttributesMapTest.boolean", "name", "AttributesMapTest.long")
+        .inOrder();
+    assertThat(attributes.get("AttributesMapTest.long"))
+        .isEqualTo(AttributeValue.longAttributeValue(2));
+    assertThat(attributes.getNumberOfDroppedAttributes()).isEqualTo(1);
+  }
+
+  @Test
+  public void putWithKeys_SharesNamesWithStringKeys() {
+    AttributeKey<String> key = AttributeKey.stringKey("AttributesMapTest.shared");
+    AttributesMap attributes = new AttributesMap(4);
+    attributes.putString("AttributesMapTest.shared", "byName");
+    attributes.putString(key, "byKey");
+    assertThat(attributes)
+        .containsExactly(
+            "AttributesMapTest.shared", AttributeValue.stringAttributeValue("byKey"));
+
+    attributes.putString("AttributesMapTest.shared", "byNameAgain");
+    attributes.putString(key, "byKeyAgain");
+    assertThat(attributes)
+        .containsExactly(
+            "AttributesMapTest.shared", AttributeValue.stringAttributeValue("byKeyAgain"));
+  }
+
+  @Test
+  public void putWithKeysOutsideKeyTable() {
+    // Registers enough keys for some of them to have an index above the bounded key table.
+    List<AttributeKey<Long>> keys = new ArrayList<>();
+    for (int i = 0; i < 64; i++) {
+      keys.add(AttributeKey.longKey("AttributesMapTest.many" + i));
+    }
+    AttributeKey<Long> high = keys.get(keys.size() - 1);
+    assertThat(high.getIndex()).isAtLeast(32);
+    AttributesMap attributes = new AttributesMap(2);
+    attributes.putLong(high, 1);
+    attributes.putLong(keys.get(0), 2);
+    attributes.putLong(high, 3);
+    assertThat(attributes.keySet())
+        .containsExactly("AttributesMapTest.many0", "AttributesMapTest.many63")
+        .inOrder();
+    assertThat(attributes.get("AttributesMapTest.many63"))
+        .isEqualTo(AttributeValue.longAttributeValue(3));
+    // Drops "many0", then updates "many63" found by scanning the entry key indexes.
+    attributes.putLong(keys.get(1), 4);
+    attributes.putLong(keys.get(1), 5);
+    attributes.putLong(high, 6);
+    assertThat(attributes.keySet())
+        .containsExactly("AttributesMapTest.many1", "AttributesMapTest.many63")
+        .inOrder();
+    assertThat(attributes.getNumberOfDroppedAttributes()).isEqualTo(4);
+  }
+
+  @Test
+  public void putWithKeys_DropsLeastRecentlyUpdated() {
+    AttributeKey<Long> a = AttributeKey.longKey("AttributesMapTest.a");
+    AttributeKey<Long> b = AttributeKey.longKey("AttributesMapTest.b");
+    AttributeKey<Long> c = AttributeKey.longKey("AttributesMapTest.c");
+    AttributesMap attributes = new AttributesMap(2);
+    attributes.putLong(a, 1);
+    attributes.putLong(b, 2);
+    attributes.putLong(c, 3);
+    // "a" was dropped, so setting it again adds a new entry and drops "b".
+    attributes.putLong(a, 4);
+    attributes.putLong(c, 5);
+
+    assertThat(attributes.keySet())
+        .containsExactly("AttributesMapTest.a", "AttributesMapTest.c")
+        .inOrder();
+    assertThat(attributes.get("AttributesMapTest.c"))
+        .isEqualTo(AttributeValue.longAttributeValue(5));
+    assertThat(attributes.getNumberOfDroppedAttributes()).isEqualTo(3);
+  }
+
+  @Test
+  public void resolve_EvaluatesLazyValues() {
+    AttributesMap attributes = new AttributesMap(4);
+    attributes.putLong("long", 1);
+    assertThat(attributes.hasLazyValues()).isFalse();
+    attributes.putAttributeValueSupplier(
+        "lazy",
+        new ValueSupplier<AttributeValue>() {
+          @Override
+          public AttributeValue get() {
+            return AttributeValue.stringAttributeValue("value");
+          }
+        });
+    attributes.putAttributeValueSupplier(
+        "null",
+        new ValueSupplier<AttributeValue>() {
+          @Override
+          public AttributeValue get() {
+            return null;
+          }
+        });
+    assertThat(attributes.hasLazyValues()).isTrue();
+
+    AttributesMap resolved = attributes.resolve();
+    assertThat(resolved.keySet()).containsExactly("long", "lazy").inOrder();
+    assertThat(resolved.get("lazy")).isEqualTo(AttributeValue.stringAttributeValue("value"));
+    assertThat(resolved.getNumberOfDroppedAttributes()).isEqualTo(1);
+  }
+
+  @Test
+  public void withOverrides() {
+    AttributesMap base = new AttributesMap(8);
+    base.putString("a", "base");
+    base.putLong("b", 1);
+    AttributesMap overrides = new AttributesMap(3);
+    overrides.putString("a", "override");
+    overrides.putBoolean("c", true);
+    overrides.putBoolean("d", false);
+
+    AttributesMap merged = base.withOverrides(overrides);
+    // The capacity of the overrides applies, so the base entries are dropped first.
+    assertThat(merged.keySet()).containsExactly("a", "c", "d").inOrder();
+    assertThat(merged.get("a")).isEqualTo(AttributeValue.stringAttributeValue("override"));
+    assertThat(merged.getNumberOfDroppedAttributes()).isEqualTo(2);
+    assertThat(base).hasSize(2);
+    assertThat(overrides).hasSize(3);
+  }
+
+  @Test
+  public void copy_NotAffectedByLaterUpdates() {
+    AttributesMap attributes = new AttributesMap(4);
+    attributes.putBoolean("a", false);
+    AttributesMap copy = attributes.copy();
+    attributes.putBoolean("a", true);
+    attributes.putBoolean("b", true);
+
+    assertThat(copy).containsExactly("a", AttributeValue.booleanAttributeValue(false));
+    assertThat(attributes).hasSize(2);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void readOnlyView() {
+    new AttributesMap(4).put("a", AttributeValue.longAttributeValue(1));
+  }
+}
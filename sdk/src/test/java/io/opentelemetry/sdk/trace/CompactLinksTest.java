@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceFlags;
+import io.opentelemetry.trace.TraceId;
+import io.opentelemetry.trace.Tracestate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link CompactLinks}. */
+@RunWith(JUnit4.class)
+public class CompactLinksTest {
+  private static final SpanContext localContext =
+      SpanContext.create(
+          new TraceId(1, 2),
+          new SpanId(3),
+          TraceFlags.builder().setIsSampled(true).build(),
+          Tracestate.builder().set("foo", "bar").build());
+  private static final SpanContext remoteContext =
+      SpanContext.createFromRemoteParent(
+          new TraceId(4, 5), new SpanId(6), TraceFlags.getDefault(), Tracestate.getDefault());
+
+  @Test
+  public void copyOf_Empty() {
+    assertThat(CompactLinks.copyOf(Collections.<Link>emptyList())).isEmpty();
+  }
+
+  @Test
+  public void copyOf_MaterializesEqualLinks() {
+    Map<String, AttributeValue> attributes = new HashMap<>();
+    attributes.put("key", AttributeValue.stringAttributeValue("value"));
+    Link first = SpanData.Link.create(localContext, attributes);
+    Link second = SpanData.Link.create(remoteContext);
+
+    List<Link> links = CompactLinks.copyOf(Arrays.asList(first, second));
+    assertThat(links).containsExactly(first, second).inOrder();
+    assertThat(links.get(0).getContext().getTracestate()).isEqualTo(localContext.getTracestate());
+    assertThat(links.get(1).getContext().isRemote()).isTrue();
+  }
+
+  @Test
+  public void copyOf_CopiesMutableAttributes() {
+    final Map<String, AttributeValue> attributes = new HashMap<>();
+    attributes.put("key", AttributeValue.longAttributeValue(1));
+    Link link =
+        new Link() {
+          @Override
+          public SpanContext getContext() {
+            return localContext;
+          }
+
+          @Override
+          public Map<String, AttributeValue> getAttributes() {
+            return attributes;
+          }
+        };
+
+    List<Link> links = CompactLinks.copyOf(Collections.singletonList(link));
+    attributes.clear();
+    assertThat(links.get(0).getAttributes())
+        .containsExactly("key", AttributeValue.longAttributeValue(1));
+  }
+}
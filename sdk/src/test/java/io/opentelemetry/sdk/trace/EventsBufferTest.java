@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.trace.AttributeValue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link EventsBuffer}. */
+@RunWith(JUnit4.class)
+public class EventsBufferTest {
+  private static final Map<String, AttributeValue> ATTRIBUTES =
+      Collections.singletonMap("key", AttributeValue.longAttributeValue(1));
+
+  @Test
+  public void empty() {
+    EventsBuffer buffer = new EventsBuffer(10);
+    assertThat(buffer).isEmpty();
+    assertThat(buffer.getTotalAddedEvents()).isEqualTo(0);
+  }
+
+  @Test
+  public void growsUpToCapacity() {
+    EventsBuffer buffer = new EventsBuffer(10);
+    for (int i = 0; i < 10; i++) {
+      buffer.append(i, "event" + i, ATTRIBUTES);
+    }
+    assertThat(epochNanos(buffer))
+        .containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L)
+        .inOrder();
+    assertThat(buffer.getTotalAddedEvents()).isEqualTo(10);
+  }
+
+  @Test
+  public void keepsNewestEvents() {
+    EventsBuffer buffer = new EventsBuffer(3);
+    for (int i = 0; i < 8; i++) {
+      buffer.append(i, "event" + i, ATTRIBUTES);
+    }
+    assertThat(epochNanos(buffer)).containsExactly(5L, 6L, 7L).inOrder();
+    assertThat(buffer.get(0)).isEqualTo(SpanData.TimedEvent.create(5, "event5", ATTRIBUTES));
+    assertThat(buffer.get(2)).isEqualTo(SpanData.TimedEvent.create(7, "event7", ATTRIBUTES));
+    assertThat(buffer.getTotalAddedEvents()).isEqualTo(8);
+  }
+
+  @Test
+  public void copy_StartsAtOldestEvent() {
+    EventsBuffer buffer = new EventsBuffer(3);
+    for (int i = 0; i < 5; i++) {
+      buffer.append(i, "event" + i, ATTRIBUTES);
+    }
+    EventsBuffer copy = buffer.copy();
+    buffer.append(5, "event5", ATTRIBUTES);
+
+    assertThat(epochNanos(copy)).containsExactly(2L, 3L, 4L).inOrder();
+    assertThat(copy.getTotalAddedEvents()).isEqualTo(5);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void get_OutOfBounds() {
+    EventsBuffer buffer = new EventsBuffer(3);
+    buffer.append(1, "event", ATTRIBUTES);
+    buffer.get(1);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void readOnlyView() {
+    new EventsBuffer(3).add(SpanData.TimedEvent.create(1, "event", ATTRIBUTES));
+  }
+
+  private static List<Long> epochNanos(List<SpanData.TimedEvent> events) {
+    List<Long> result = new ArrayList<>();
+    for (SpanData.TimedEvent event : events) {
+      result.add(event.getEpochNanos());
+    }
+    return result;
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span.Kind;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceFlags;
+import io.opentelemetry.trace.TraceId;
+import io.opentelemetry.trace.Tracestate;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ParentBasedSampler}. */
+@RunWith(JUnit4.class)
+public class ParentBasedSamplerTest {
+  private static final String SPAN_NAME = "MySpanName";
+  private static final List<Link> NO_LINKS = Collections.emptyList();
+  private final TraceId traceId = new TraceId(1, 2);
+  private final SpanId spanId = new SpanId(3);
+  private final SpanContext sampledParent =
+      SpanContext.create(
+          traceId,
+          new SpanId(4),
+          TraceFlags.builder().setIsSampled(true).build(),
+          Tracestate.builder().build());
+  private final SpanContext notSampledParent =
+      SpanContext.create(
+          traceId, new SpanId(4), TraceFlags.getDefault(), Tracestate.builder().build());
+  private final List<Link> sampledLinks =
+      Collections.<Link>singletonList(SpanData.Link.create(sampledParent));
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void newBuilder_NullRoot() {
+    thrown.expect(NullPointerException.class);
+    ParentBasedSampler.newBuilder(null);
+  }
+
+  @Test
+  public void defaultSampler_FollowsParent() {
+    Sampler sampler = Samplers.parentBased(Samplers.alwaysOff());
+    assertThat(shouldSample(sampler, null, null, NO_LINKS)).isFalse();
+    assertThat(shouldSample(sampler, sampledParent, false, NO_LINKS)).isTrue();
+    assertThat(shouldSample(sampler, sampledParent, true, NO_LINKS)).isTrue();
+    assertThat(shouldSample(sampler, notSampledParent, false, NO_LINKS)).isFalse();
+    assertThat(shouldSample(sampler, notSampledParent, true, NO_LINKS)).isFalse();
+    // Links are ignored by default.
+    assertThat(shouldSample(sampler, notSampledParent, false, sampledLinks)).isFalse();
+  }
+
+  @Test
+  public void rootSpans_DelegatedToRootSampler() {
+    assertThat(shouldSample(Samplers.parentBased(Samplers.alwaysOn()), null, null, NO_LINKS))
+        .isTrue();
+    assertThat(
+            shouldSample(
+                Samplers.parentBased(Samplers.alwaysOn()),
+                SpanContext.create(
+                    TraceId.getInvalid(),
+                    SpanId.getInvalid(),
+                    TraceFlags.getDefault(),
+                    Tracestate.builder().build()),
+                null,
+                NO_LINKS))
+        .isTrue();
+  }
+
+  @Test
+  public void remoteAndLocalParentsConfiguredSeparately() {
+    Sampler sampler =
+        ParentBasedSampler.newBuilder(Samplers.alwaysOff())
+            .setRemoteParentSampled(Samplers.alwaysOff())
+            .setRemoteParentNotSampled(Samplers.alwaysOn())
+            .setLocalParentSampled(Samplers.alwaysOn())
+            .setLocalParentNotSampled(Samplers.alwaysOff())
+            .build();
+    assertThat(shouldSample(sampler, sampledParent, true, NO_LINKS)).isFalse();
+    assertThat(shouldSample(sampler, notSampledParent, true, NO_LINKS)).isTrue();
+    assertThat(shouldSample(sampler, sampledParent, false, NO_LINKS)).isTrue();
+    assertThat(shouldSample(sampler, notSampledParent, false, NO_LINKS)).isFalse();
+  }
+
+  @Test
+  public void sampledParentLinks() {
+    Sampler sampler =
+        ParentBasedSampler.newBuilder(Samplers.alwaysOff()).setSampledParentLinks(true).build();
+    assertThat(shouldSample(sampler, null, null, sampledLinks)).isTrue();
+    assertThat(shouldSample(sampler, notSampledParent, false, sampledLinks)).isTrue();
+    assertThat(shouldSample(sampler, notSampledParent, false, NO_LINKS)).isFalse();
+  }
+
+  @Test
+  public void linksNotReadByDefault() {
+    List<Link> unreadableLinks =
+        new AbstractList<Link>() {
+          @Override
+          public Link get(int index) {
+            throw new AssertionError("Links must not be read.");
+          }
+
+          @Override
+          public int size() {
+            throw new AssertionError("Links must not be read.");
+          }
+        };
+    Sampler sampler = Samplers.parentBased(Samplers.alwaysOff());
+    assertThat(shouldSample(sampler, sampledParent, false, unreadableLinks)).isTrue();
+    assertThat(shouldSample(sampler, notSampledParent, true, unreadableLinks)).isFalse();
+  }
+
+  @Test
+  public void getDescription() {
+    assertThat(Samplers.parentBased(Samplers.alwaysOn()).getDescription())
+        .isEqualTo(
+            "ParentBasedSampler{root=AlwaysOnSampler, remoteParentSampled=AlwaysOnSampler, "
+                + "remoteParentNotSampled=AlwaysOffSampler, localParentSampled=AlwaysOnSampler, "
+                + "localParentNotSampled=AlwaysOffSampler, sampledParentLinks=false}");
+  }
+
+  private boolean shouldSample(
+      Sampler sampler,
+      @Nullable SpanContext parentContext,
+      @Nullable Boolean hasRemoteParent,
+      List<Link> parentLinks) {
+    return sampler
+        .shouldSample(
+            parentContext, hasRemoteParent, traceId, spanId, SPAN_NAME, Kind.INTERNAL, parentLinks)
+        .isSampled();
+  }
+}
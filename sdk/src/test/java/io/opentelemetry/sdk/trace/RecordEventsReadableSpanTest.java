@@ -19,10 +19,12 @@ package io.opentelemetry.sdk.trace;
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
 
 import io.opentelemetry.sdk.internal.TestClock;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.trace.config.TraceConfig;
+import io.opentelemetry.trace.AttributeKey;
 import io.opentelemetry.trace.AttributeValue;
 import io.opentelemetry.trace.Event;
 import io.opentelemetry.trace.Link;
@@ -33,13 +35,19 @@ import io.opentelemetry.trace.Status;
 import io.opentelemetry.trace.TraceFlags;
 import io.opentelemetry.trace.TraceId;
 import io.opentelemetry.trace.Tracestate;
+import io.opentelemetry.trace.ValueSupplier;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nullable;
 import org.junit.Before;
 import org.junit.Rule;
@@ -163,6 +171,19 @@ public class RecordEventsReadableSpanTest {
         Status.CANCELLED);
   }
 
+  @Test
+  public void toSpanData_EndedSpanIsFrozen() {
+    RecordEventsReadableSpan span = createTestSpan(Kind.INTERNAL);
+    spanDoWork(span, Status.CANCELLED);
+    SpanData activeSpanData = span.toSpanData();
+    assertThat(span.toSpanData()).isNotSameInstanceAs(activeSpanData);
+    span.end();
+    SpanData spanData = span.toSpanData();
+    assertThat(span.toSpanData()).isSameInstanceAs(spanData);
+    assertThat(spanData.getLinks()).isSameInstanceAs(span.getLinks());
+    assertThat(spanData.getAttributes()).isEqualTo(activeSpanData.getAttributes());
+  }
+
   @Test
   public void toSpanData_RootSpan() {
     RecordEventsReadableSpan span = createTestRootSpan();
@@ -260,6 +281,114 @@ public class RecordEventsReadableSpanTest {
     assertThat(spanData.getAttributes().size()).isEqualTo(4);
   }
 
+  @Test
+  public void setAttributes() {
+    Map<String, AttributeValue> moreAttributes = new HashMap<>();
+    moreAttributes.put("MyLongAttributeKey", AttributeValue.longAttributeValue(456L));
+    moreAttributes.put("OtherKey", AttributeValue.doubleAttributeValue(1.5));
+    RecordEventsReadableSpan span = createTestRootSpan();
+    try {
+      span.setAttributes(attributes);
+      span.setAttributes(moreAttributes);
+      span.setAttributes(Collections.<String, AttributeValue>emptyMap());
+    } finally {
+      span.end();
+    }
+    span.setAttributes(Collections.singletonMap("AfterEnd", AttributeValue.longAttributeValue(1)));
+    Map<String, AttributeValue> expected = new HashMap<>(attributes);
+    expected.putAll(moreAttributes);
+    assertThat(span.toSpanData().getAttributes()).isEqualTo(expected);
+  }
+
+  @Test
+  public void setAttributes_NullValueLeavesSpanUsable() {
+    RecordEventsReadableSpan span = createTestRootSpan();
+    Map<String, AttributeValue> invalid = new HashMap<>();
+    invalid.put("ValidKey", AttributeValue.longAttributeValue(1));
+    invalid.put("NullKey", null);
+    try {
+      span.setAttributes(invalid);
+      fail("Expected NullPointerException");
+    } catch (NullPointerException e) {
+      // Expected.
+    }
+    span.setAttribute("StringKey", "StringVal");
+    span.end();
+    assertThat(span.toSpanData().getAttributes())
+        .containsExactly("StringKey", AttributeValue.stringAttributeValue("StringVal"));
+  }
+
+  @Test
+  public void truncateLongValues() {
+    TraceConfig traceConfig =
+        TraceConfig.getDefault()
+            .toBuilder()
+            .setMaxAttributeValueLength(4)
+            .setMaxEventNameLength(3)
+            .build();
+    RecordEventsReadableSpan span = createTestSpan(traceConfig);
+    try {
+      span.setAttribute("StringKey", "StringVal");
+      span.setAttribute("ShortKey", "Str");
+      span.setAttribute("AttributeValueKey", AttributeValue.stringAttributeValue("LongValue"));
+      span.setAttribute("LongKey", 1000L);
+      span.addEvent(
+          "LongEventName",
+          Collections.singletonMap("EventKey", AttributeValue.stringAttributeValue("EventVal")));
+      assertThat(span.toSpanData().getNumberOfTruncatedValues()).isEqualTo(4);
+    } finally {
+      span.end();
+    }
+    SpanData spanData = span.toSpanData();
+    assertThat(spanData.getAttributes())
+        .containsExactly(
+            "StringKey", AttributeValue.stringAttributeValue("Stri"),
+            "ShortKey", AttributeValue.stringAttributeValue("Str"),
+            "AttributeValueKey", AttributeValue.stringAttributeValue("Long"),
+            "LongKey", AttributeValue.longAttributeValue(1000L));
+    SpanData.TimedEvent event = spanData.getTimedEvents().get(0);
+    assertThat(event.getName()).isEqualTo("Lon");
+    assertThat(event.getAttributes())
+        .containsExactly("EventKey", AttributeValue.stringAttributeValue("Even"));
+    assertThat(spanData.getNumberOfTruncatedValues()).isEqualTo(4);
+  }
+
+  @Test
+  public void truncateLongValues_DoesNotSplitSurrogatePairs() {
+    TraceConfig traceConfig =
+        TraceConfig.getDefault().toBuilder().setMaxAttributeValueLength(2).build();
+    RecordEventsReadableSpan span = createTestSpan(traceConfig);
+    try {
+      span.setAttribute("Key", "a\uD83D\uDE00b");
+    } finally {
+      span.end();
+    }
+    assertThat(span.toSpanData().getAttributes())
+        .containsExactly("Key", AttributeValue.stringAttributeValue("a"));
+  }
+
+  @Test
+  public void setAttribute_WithKeys() {
+    RecordEventsReadableSpan span = createTestRootSpan();
+    try {
+      span.setAttribute(AttributeKey.stringKey("StringKey"), "StringVal");
+      span.setAttribute(AttributeKey.longKey("LongKey"), 1000L);
+      span.setAttribute(AttributeKey.doubleKey("DoubleKey"), 10.0);
+      span.setAttribute(AttributeKey.booleanKey("BooleanKey"), false);
+      span.setAttribute("LongKey", 2000L);
+    } finally {
+      span.end();
+    }
+    span.setAttribute(AttributeKey.booleanKey("BooleanKey"), true);
+    SpanData spanData = span.toSpanData();
+    assertThat(spanData.getAttributes())
+        .containsExactly(
+            "StringKey", AttributeValue.stringAttributeValue("StringVal"),
+            "DoubleKey", AttributeValue.doubleAttributeValue(10.0),
+            "BooleanKey", AttributeValue.booleanAttributeValue(false),
+            "LongKey", AttributeValue.longAttributeValue(2000L));
+  }
+
   @Test
   public void addEvent() {
     RecordEventsReadableSpan span = createTestRootSpan();
@@ -285,6 +414,96 @@ public class RecordEventsReadableSpanTest {
     assertThat(spanData.getTimedEvents().size()).isEqualTo(3);
   }
 
+  @Test
+  public void lazyValues_EvaluatedOnlyWhenExported() {
+    CountingSupplier<AttributeValue> valueSupplier =
+        new CountingSupplier<>(AttributeValue.stringAttributeValue("lazy"));
+    CountingSupplier<Map<String, AttributeValue>> attributesSupplier =
+        new CountingSupplier<>(attributes);
+    RecordEventsReadableSpan span = createTestRootSpan();
+    try {
+      span.setAttribute("LazyKey", valueSupplier);
+      span.addEvent("event", attributesSupplier);
+    } finally {
+      span.end();
+    }
+    assertThat(valueSupplier.calls).isEqualTo(0);
+    assertThat(attributesSupplier.calls).isEqualTo(0);
+
+    SpanData spanData = span.toSpanData();
+    assertThat(spanData.getAttributes())
+        .containsExactly("LazyKey", AttributeValue.stringAttributeValue("lazy"));
+    assertThat(spanData.getTimedEvents().get(0).getAttributes()).isEqualTo(attributes);
+    assertThat(span.toSpanData().getAttributes()).isEqualTo(spanData.getAttributes());
+    assertThat(valueSupplier.calls).isEqualTo(1);
+    assertThat(attributesSupplier.calls).isEqualTo(1);
+  }
+
+  @Test
+  public void lazyValues_FailuresAreDropped() {
+    RecordEventsReadableSpan span = createTestRootSpan();
+    try {
+      span.setAttribute("StringKey", "StringVal");
+      span.setAttribute("NullKey", new CountingSupplier<AttributeValue>(null));
+      span.setAttribute(
+          "FailingKey",
+          new ValueSupplier<AttributeValue>() {
+            @Override
+            public AttributeValue get() {
+              throw new IllegalStateException("failed");
+            }
+          });
+      span.addEvent("event", new CountingSupplier<Map<String, AttributeValue>>(null));
+    } finally {
+      span.end();
+    }
+    SpanData spanData = span.toSpanData();
+    assertThat(spanData.getAttributes())
+        .containsExactly("StringKey", AttributeValue.stringAttributeValue("StringVal"));
+    assertThat(spanData.getTimedEvents().get(0).getAttributes()).isEmpty();
+  }
+
+  @Test(timeout = 10000L)
+  public void lazyValues_EvaluatedByTheCallerWithoutLockingTheSpan() {
+    final RecordEventsReadableSpan span = createTestRootSpan();
+    final AtomicReference<Thread> supplierThread = new AtomicReference<>();
+    try {
+      span.setAttribute(
+          "LazyKey",
+          new ValueSupplier<AttributeValue>() {
+            @Override
+            public AttributeValue get() {
+              supplierThread.set(Thread.currentThread());
+              // Would spin forever if toSpanData still had exclusive access to the span.
+              return AttributeValue.stringAttributeValue(span.getName());
+            }
+          });
+      SpanData spanData = span.toSpanData();
+      assertThat(spanData.getAttributes())
+          .containsExactly("LazyKey", AttributeValue.stringAttributeValue(SPAN_NAME));
+      assertThat(supplierThread.get()).isSameInstanceAs(Thread.currentThread());
+    } finally {
+      span.end();
+    }
+  }
+
+  @Test
+  public void lazyValues_NotEvaluatedWhenDropped() {
+    CountingSupplier<AttributeValue> valueSupplier =
+        new CountingSupplier<>(AttributeValue.stringAttributeValue("lazy"));
+    RecordEventsReadableSpan span = createTestRootSpan();
+    try {
+      span.setAttribute("LazyKey", valueSupplier);
+      for (int i = 0; i < TraceConfig.getDefault().getMaxNumberOfAttributes(); i++) {
+        span.setAttribute("Key" + i, i);
+      }
+    } finally {
+      span.end();
+    }
+    assertThat(span.toSpanData().getAttributes()).doesNotContainKey("LazyKey");
+    assertThat(valueSupplier.calls).isEqualTo(0);
+  }
+
   @Test
   public void droppingAttributes() {
     final int maxNumberOfAttributes = 8;
@@ -400,6 +619,92 @@ public class RecordEventsReadableSpanTest {
     }
   }
 
+  @Test
+  public void concurrentMutations() throws InterruptedException {
+    final int numberOfThreads = 4;
+    final int eventsPerThread = 100;
+    final RecordEventsReadableSpan span = createTestRootSpan();
+    List<Thread> threads = new ArrayList<>(numberOfThreads);
+    for (int i = 0; i < numberOfThreads; i++) {
+      final int threadIndex = i;
+      threads.add(
+          new Thread(
+              new Runnable() {
+                @Override
+                public void run() {
+                  for (int j = 0; j < eventsPerThread; j++) {
+                    span.addEvent("event");
+                    span.setAttribute("key" + threadIndex, j);
+                    span.addChild();
+                    span.toSpanData();
+                  }
+                }
+              }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    span.end();
+    assertThat(span.getTotalRecordedEvents()).isEqualTo(numberOfThreads * eventsPerThread);
+    assertThat(span.getNumberOfChildren()).isEqualTo(numberOfThreads * eventsPerThread);
+    SpanData spanData = span.toSpanData();
+    assertThat(spanData.getAttributes().size()).isEqualTo(numberOfThreads);
+    for (int i = 0; i < numberOfThreads; i++) {
+      assertThat(spanData.getAttributes().get("key" + i))
+          .isEqualTo(AttributeValue.longAttributeValue(eventsPerThread - 1));
+    }
+  }
+
+  @Test
+  public void addChild_AfterEndIgnored() {
+    RecordEventsReadableSpan span = createTestRootSpan();
+    span.addChild();
+    span.end();
+    span.addChild();
+    assertThat(span.getNumberOfChildren()).isEqualTo(1);
+  }
+
+  @Test
+  public void setAttributes_ThrowingMapDoesNotBlockTheSpan() {
+    // Counts the iterations of the map done by setAttributes, then fails the last one, which is
+    // done with exclusive access to the span.
+    EntrySetCountingMap countingMap = new EntrySetCountingMap(Integer.MAX_VALUE);
+    createTestRootSpan().setAttributes(countingMap);
+    RecordEventsReadableSpan span = createTestRootSpan();
+    try {
+      span.setAttributes(new EntrySetCountingMap(countingMap.entrySetCalls));
+      fail("Expected ConcurrentModificationException");
+    } catch (ConcurrentModificationException e) {
+      // Expected.
+    }
+    span.setAttribute("key", "value");
+    span.end();
+    assertThat(span.toSpanData().getAttributes())
+        .containsEntry("key", AttributeValue.stringAttributeValue("value"));
+  }
+
+  private static final class EntrySetCountingMap extends AbstractMap<String, AttributeValue> {
+    private final int failingCall;
+    private final Map<String, AttributeValue> delegate =
+        Collections.singletonMap("map", AttributeValue.longAttributeValue(1));
+    private int entrySetCalls;
+
+    private EntrySetCountingMap(int failingCall) {
+      this.failingCall = failingCall;
+    }
+
+    @Override
+    public Set<Entry<String, AttributeValue>> entrySet() {
+      if (++entrySetCalls == failingCall) {
+        throw new ConcurrentModificationException();
+      }
+      return delegate.entrySet();
+    }
+  }
+
   private RecordEventsReadableSpan createTestSpanWithAttributes(
       Map<String, AttributeValue> attributes) {
     return createTestSpan(Kind.INTERNAL, TraceConfig.getDefault(), null, attributes);
@@ -440,11 +745,15 @@ public class RecordEventsReadableSpanTest {
             config,
             spanProcessor,
             testClock,
+            null,
             resource,
             attributes,
             Collections.singletonList(link),
             1,
-            0);
+            0,
+            null,
+            null,
+            null);
     Mockito.verify(spanProcessor, Mockito.times(1)).onStart(span);
     return span;
   }
@@ -519,11 +828,15 @@ public class RecordEventsReadableSpanTest {
             traceConfig,
             spanProcessor,
             clock,
+            null,
             resource,
             attributes,
             links,
             1,
-            0);
+            0,
+            null,
+            null,
+            null);
     long startEpochNanos = clock.now();
     clock.advanceMillis(4);
     long firstEventEpochNanos = clock.now();
@@ -558,4 +871,20 @@ public class RecordEventsReadableSpanTest {
     SpanData result = readableSpan.toSpanData();
     assertEquals(expected, result);
   }
+
+  private static final class CountingSupplier<T> implements ValueSupplier<T> {
+    @Nullable private final T value;
+    private int calls;
+
+    private CountingSupplier(@Nullable T value) {
+      this.value = value;
+    }
+
+    @Override
+    @Nullable
+    public T get() {
+      calls++;
+      return value;
+    }
+  }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.sdk.trace.RuleBasedSampler.Rule;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span.Kind;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceFlags;
+import io.opentelemetry.trace.TraceId;
+import io.opentelemetry.trace.Tracestate;
+import java.util.Collections;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link RuleBasedSampler}. */
+@RunWith(JUnit4.class)
+public class RuleBasedSamplerTest {
+  private final TraceId traceId = new TraceId(1, 2);
+  private final SpanId spanId = new SpanId(3);
+  private final SpanContext remoteParent =
+      SpanContext.create(
+          traceId, new SpanId(4), TraceFlags.getDefault(), Tracestate.builder().build());
+  private final Sampler alwaysOn = Samplers.alwaysOn();
+  private final Sampler alwaysOff = Samplers.alwaysOff();
+
+  @org.junit.Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void noRules_UsesDefaultSampler() {
+    RuleBasedSampler sampler = RuleBasedSampler.newBuilder(alwaysOn).build();
+    assertThat(sampler.getSampler("span", Kind.INTERNAL, false)).isSameInstanceAs(alwaysOn);
+    assertThat(shouldSample(sampler, "span", Kind.INTERNAL)).isTrue();
+  }
+
+  @Test
+  public void firstMatchingRuleWins() {
+    Sampler probability = Samplers.probability(0.5);
+    RuleBasedSampler sampler =
+        RuleBasedSampler.newBuilder(probability)
+            .addRule(Rule.newBuilder(alwaysOn).setSpanName("/health/deep").build())
+            .addRule(Rule.newBuilder(alwaysOff).setSpanNamePrefix("/health").build())
+            .addRule(Rule.newBuilder(probability).setSpanName("/health/shallow").build())
+            .build();
+    assertThat(sampler.getSampler("/health/deep", Kind.SERVER, false)).isSameInstanceAs(alwaysOn);
+    assertThat(sampler.getSampler("/health/shallow", Kind.SERVER, false))
+        .isSameInstanceAs(alwaysOff);
+    assertThat(sampler.getSampler("/healthz", Kind.SERVER, false)).isSameInstanceAs(alwaysOff);
+    assertThat(sampler.getSampler("/orders", Kind.SERVER, false)).isSameInstanceAs(probability);
+  }
+
+  @Test
+  public void ruleWithoutCriteria_MatchesAllSpans() {
+    Sampler probability = Samplers.probability(0.5);
+    RuleBasedSampler sampler =
+        RuleBasedSampler.newBuilder(alwaysOn)
+            .addRule(Rule.newBuilder(alwaysOff).setSpanKind(Kind.CLIENT).build())
+            .addRule(Rule.newBuilder(probability).build())
+            .addRule(Rule.newBuilder(alwaysOn).setSpanName("never").build())
+            .build();
+    assertThat(sampler.getSampler("never", Kind.CLIENT, false)).isSameInstanceAs(alwaysOff);
+    assertThat(sampler.getSampler("never", Kind.SERVER, false)).isSameInstanceAs(probability);
+  }
+
+  @Test
+  public void matchesSpanKindAndRemoteParent() {
+    RuleBasedSampler sampler =
+        RuleBasedSampler.newBuilder(alwaysOff)
+            .addRule(
+                Rule.newBuilder(alwaysOn)
+                    .setSpanNamePrefix("cache.")
+                    .setSpanKind(Kind.CLIENT)
+                    .setHasRemoteParent(false)
+                    .build())
+            .build();
+    assertThat(sampler.getSampler("cache.get", Kind.CLIENT, false)).isSameInstanceAs(alwaysOn);
+    assertThat(sampler.getSampler("cache.get", Kind.CLIENT, true)).isSameInstanceAs(alwaysOff);
+    assertThat(sampler.getSampler("cache.get", Kind.SERVER, false)).isSameInstanceAs(alwaysOff);
+    assertThat(shouldSample(sampler, "cache.get", Kind.CLIENT)).isTrue();
+    assertThat(
+            sampler
+                .shouldSample(
+                    remoteParent,
+                    true,
+                    traceId,
+                    spanId,
+                    "cache.get",
+                    Kind.CLIENT,
+                    Collections.<Link>emptyList())
+                .isSampled())
+        .isFalse();
+  }
+
+  @Test
+  public void cacheFull_StillMatchesRules() {
+    RuleBasedSampler sampler =
+        RuleBasedSampler.newBuilder(alwaysOff)
+            .addRule(Rule.newBuilder(alwaysOn).setSpanNamePrefix("a").build())
+            .setMaxCachedSpanNames(1)
+            .build();
+    assertThat(sampler.getSampler("b", Kind.INTERNAL, false)).isSameInstanceAs(alwaysOff);
+    assertThat(sampler.getSampler("a1", Kind.INTERNAL, false)).isSameInstanceAs(alwaysOn);
+    assertThat(sampler.getSampler("a2", Kind.INTERNAL, false)).isSameInstanceAs(alwaysOn);
+    assertThat(sampler.getSampler("b", Kind.INTERNAL, false)).isSameInstanceAs(alwaysOff);
+  }
+
+  @Test
+  public void rule_SpanNameAndPrefix() {
+    thrown.expect(IllegalArgumentException.class);
+    Rule.newBuilder(alwaysOn).setSpanName("a").setSpanNamePrefix("a").build();
+  }
+
+  @Test
+  public void nullDefaultSampler() {
+    thrown.expect(NullPointerException.class);
+    RuleBasedSampler.newBuilder(null);
+  }
+
+  @Test
+  public void getDescription() {
+    RuleBasedSampler sampler =
+        RuleBasedSampler.newBuilder(alwaysOff)
+            .addRule(Rule.newBuilder(alwaysOn).setSpanKind(Kind.SERVER).build())
+            .build();
+    assertThat(sampler.getDescription())
+        .isEqualTo(
+            "RuleBasedSampler{rules=[Rule{spanName=null, spanNamePrefix=null, spanKind=SERVER, "
+                + "hasRemoteParent=null, sampler=AlwaysOnSampler}], default=AlwaysOffSampler}");
+  }
+
+  private boolean shouldSample(Sampler sampler, String name, Kind spanKind) {
+    return sampler
+        .shouldSample(null, null, traceId, spanId, name, spanKind, Collections.<Link>emptyList())
+        .isSampled();
+  }
+}
@@ -19,8 +19,10 @@ package io.opentelemetry.sdk.trace;
 import static com.google.common.truth.Truth.assertThat;
 
 import com.google.common.truth.Truth;
+import io.opentelemetry.sdk.internal.TestClock;
 import io.opentelemetry.sdk.trace.Sampler.Decision;
 import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span.Kind;
 import io.opentelemetry.trace.SpanContext;
 import io.opentelemetry.trace.SpanId;
 import io.opentelemetry.trace.TraceFlags;
@@ -29,6 +31,7 @@ import io.opentelemetry.trace.Tracestate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -65,6 +68,7 @@ public class SamplersTest {
                     traceId,
                     spanId,
                     SPAN_NAME,
+                    Kind.INTERNAL,
                     Collections.<Link>emptyList())
                 .isSampled())
         .isTrue();
@@ -77,6 +81,7 @@ public class SamplersTest {
                     traceId,
                     spanId,
                     SPAN_NAME,
+                    Kind.INTERNAL,
                     Collections.<Link>emptyList())
                 .isSampled())
         .isTrue();
@@ -98,6 +103,7 @@ public class SamplersTest {
                     traceId,
                     spanId,
                     SPAN_NAME,
+                    Kind.INTERNAL,
                     Collections.<Link>emptyList())
                 .isSampled())
         .isFalse();
@@ -110,6 +116,7 @@ public class SamplersTest {
                     traceId,
                     spanId,
                     SPAN_NAME,
+                    Kind.INTERNAL,
                     Collections.<Link>emptyList())
                 .isSampled())
         .isFalse();
@@ -167,6 +174,7 @@ public class SamplersTest {
               idsGenerator.generateTraceId(),
               idsGenerator.generateSpanId(),
               SPAN_NAME,
+              Kind.INTERNAL,
               parentLinks)
           .isSampled()) {
         count++;
@@ -256,6 +264,7 @@ public class SamplersTest {
             notSampledtraceId,
             idsGenerator.generateSpanId(),
             SPAN_NAME,
+            Kind.INTERNAL,
             Collections.<Link>emptyList());
     assertThat(decision1.isSampled()).isFalse();
     assertThat(decision1.attributes()).isEmpty();
@@ -289,8 +298,168 @@ public class SamplersTest {
             sampledtraceId,
             idsGenerator.generateSpanId(),
             SPAN_NAME,
+            Kind.INTERNAL,
             Collections.<Link>emptyList());
     assertThat(decision2.isSampled()).isTrue();
     assertThat(decision2.attributes()).isEmpty();
   }
+
+  @Test
+  public void rateLimitingSampler_NonPositiveRate() {
+    thrown.expect(IllegalArgumentException.class);
+    Samplers.rateLimiting(0);
+  }
+
+  @Test
+  public void rateLimitingSampler_BurstThenRate() {
+    TestClock clock = TestClock.create();
+    Sampler sampler = Samplers.rateLimiting(2, clock);
+    // The bucket starts full with one second worth of traces.
+    assertThat(shouldSampleRoot(sampler)).isTrue();
+    assertThat(shouldSampleRoot(sampler)).isTrue();
+    assertThat(shouldSampleRoot(sampler)).isFalse();
+    clock.advanceMillis(499);
+    assertThat(shouldSampleRoot(sampler)).isFalse();
+    clock.advanceMillis(1);
+    assertThat(shouldSampleRoot(sampler)).isTrue();
+    assertThat(shouldSampleRoot(sampler)).isFalse();
+    // The bucket does not hold more than one second worth of traces.
+    clock.advanceMillis(10_000);
+    assertThat(shouldSampleRoot(sampler)).isTrue();
+    assertThat(shouldSampleRoot(sampler)).isTrue();
+    assertThat(shouldSampleRoot(sampler)).isFalse();
+  }
+
+  @Test
+  public void rateLimitingSampler_FractionalRate() {
+    TestClock clock = TestClock.create();
+    Sampler sampler = Samplers.rateLimiting(0.5, clock);
+    assertThat(shouldSampleRoot(sampler)).isTrue();
+    assertThat(shouldSampleRoot(sampler)).isFalse();
+    clock.advanceMillis(1999);
+    assertThat(shouldSampleRoot(sampler)).isFalse();
+    clock.advanceMillis(1);
+    assertThat(shouldSampleRoot(sampler)).isTrue();
+  }
+
+  @Test
+  public void rateLimitingSampler_FollowsParent() {
+    Sampler sampler = Samplers.rateLimiting(1, TestClock.create());
+    assertThat(shouldSampleRoot(sampler)).isTrue();
+    assertThat(shouldSampleRoot(sampler)).isFalse();
+    assertThat(
+            sampler
+                .shouldSample(
+                    sampledSpanContext,
+                    false,
+                    traceId,
+                    spanId,
+                    SPAN_NAME,
+                    Kind.INTERNAL,
+                    Collections.<Link>emptyList())
+                .isSampled())
+        .isTrue();
+    assertThat(
+            Samplers.rateLimiting(1, TestClock.create())
+                .shouldSample(
+                    notSampledSpanContext,
+                    false,
+                    traceId,
+                    spanId,
+                    SPAN_NAME,
+                    Kind.INTERNAL,
+                    Collections.<Link>emptyList())
+                .isSampled())
+        .isFalse();
+  }
+
+  @Test
+  public void rateLimitingSampler_GetDescription() {
+    assertThat(Samplers.rateLimiting(10).getDescription())
+        .isEqualTo(String.format("RateLimitingSampler{%.6f}", 10.0));
+  }
+
+  @Test
+  public void throughputTargetingSampler_NonPositiveTarget() {
+    thrown.expect(IllegalArgumentException.class);
+    Samplers.throughputTargeting(0);
+  }
+
+  @Test
+  public void throughputTargetingSampler_AdjustsProbabilityEveryWindow() {
+    TestClock clock = TestClock.create();
+    Samplers.ThroughputTargetingSampler sampler =
+        (Samplers.ThroughputTargetingSampler)
+            Samplers.throughputTargeting(10, TimeUnit.SECONDS.toNanos(1), clock);
+    assertThat(sampler.getProbability()).isEqualTo(1.0);
+    for (int i = 0; i < 100; i++) {
+      shouldSampleRoot(sampler);
+    }
+    assertThat(sampler.getProbability()).isEqualTo(1.0);
+    clock.advanceMillis(1000);
+    // The first root span of the new window updates the probability from the previous window.
+    shouldSampleRoot(sampler);
+    assertThat(sampler.getProbability()).isWithin(1e-9).of(0.1);
+    for (int i = 0; i < 4; i++) {
+      shouldSampleRoot(sampler);
+    }
+    clock.advanceMillis(1000);
+    shouldSampleRoot(sampler);
+    assertThat(sampler.getProbability()).isEqualTo(1.0);
+  }
+
+  @Test
+  public void throughputTargetingSampler_DoesNotCountChildSpans() {
+    TestClock clock = TestClock.create();
+    Samplers.ThroughputTargetingSampler sampler =
+        (Samplers.ThroughputTargetingSampler)
+            Samplers.throughputTargeting(10, TimeUnit.SECONDS.toNanos(1), clock);
+    for (int i = 0; i < 100; i++) {
+      assertThat(
+              sampler
+                  .shouldSample(
+                      sampledSpanContext,
+                      false,
+                      traceId,
+                      spanId,
+                      SPAN_NAME,
+                      Kind.INTERNAL,
+                      Collections.<Link>emptyList())
+                  .isSampled())
+          .isTrue();
+    }
+    clock.advanceMillis(1000);
+    shouldSampleRoot(sampler);
+    assertThat(sampler.getProbability()).isEqualTo(1.0);
+  }
+
+  @Test
+  public void throughputTargetingSampler_SamplesWithCurrentProbability() {
+    TestClock clock = TestClock.create();
+    Sampler sampler = Samplers.throughputTargeting(10, TimeUnit.SECONDS.toNanos(1), clock);
+    for (int i = 0; i < 20; i++) {
+      shouldSampleRoot(sampler);
+    }
+    clock.advanceMillis(1000);
+    assertSamplerSamplesWithProbability(sampler, null, Collections.<Link>emptyList(), 0.5);
+  }
+
+  @Test
+  public void throughputTargetingSampler_GetDescription() {
+    assertThat(Samplers.throughputTargeting(10).getDescription())
+        .isEqualTo(String.format("ThroughputTargetingSampler{%.6f}", 10.0));
+  }
+
+  private boolean shouldSampleRoot(Sampler sampler) {
+    return sampler
+        .shouldSample(
+            null,
+            false,
+            idsGenerator.generateTraceId(),
+            idsGenerator.generateSpanId(),
+            SPAN_NAME,
+            Kind.INTERNAL,
+            Collections.<Link>emptyList())
+        .isSampled();
+  }
 }
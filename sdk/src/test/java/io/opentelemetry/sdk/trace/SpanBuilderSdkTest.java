@@ -92,6 +92,118 @@ public class SpanBuilderSdkTest {
     }
   }
 
+  @Test
+  public void setAttributes() {
+    Map<String, AttributeValue> attributes = new LinkedHashMap<>();
+    attributes.put("first", AttributeValue.longAttributeValue(1));
+    attributes.put("second", AttributeValue.stringAttributeValue("two"));
+    Span.Builder spanBuilder =
+        tracer
+            .spanBuilder(SPAN_NAME)
+            .setAttributes(attributes)
+            .setAttributes(
+                Collections.singletonMap("first", AttributeValue.booleanAttributeValue(true)));
+    // The builder keeps its own copy.
+    attributes.clear();
+
+    RecordEventsReadableSpan span = (RecordEventsReadableSpan) spanBuilder.startSpan();
+    try {
+      assertThat(span.getAttributes())
+          .containsExactly(
+              "first", AttributeValue.booleanAttributeValue(true),
+              "second", AttributeValue.stringAttributeValue("two"));
+    } finally {
+      span.end();
+    }
+  }
+
+  @Test
+  public void setAttributes_nullValue() {
+    thrown.expect(NullPointerException.class);
+    tracer
+        .spanBuilder(SPAN_NAME)
+        .setAttributes(Collections.<String, AttributeValue>singletonMap("key", null));
+  }
+
+  @Test
+  public void spanTemplate() {
+    Map<String, AttributeValue> attributes = new LinkedHashMap<>();
+    attributes.put("http.method", AttributeValue.stringAttributeValue("GET"));
+    attributes.put("http.route", AttributeValue.stringAttributeValue("/users"));
+    SpanTemplate template = tracer.spanTemplate(SPAN_NAME, Kind.SERVER, attributes);
+    // The template keeps its own copy.
+    attributes.clear();
+    assertThat(template.getSpanName()).isEqualTo(SPAN_NAME);
+    assertThat(template.getKind()).isEqualTo(Kind.SERVER);
+    assertThat(template.getAttributes()).hasSize(2);
+
+    RecordEventsReadableSpan span =
+        (RecordEventsReadableSpan) tracer.spanBuilder(template).startSpan();
+    try {
+      assertThat(span.getName()).isEqualTo(SPAN_NAME);
+      assertThat(span.getKind()).isEqualTo(Kind.SERVER);
+      // Shared with the template until the span records its own attributes.
+      assertThat(span.getAttributes()).isSameInstanceAs(template.getAttributes());
+      span.setAttribute("http.route", "/users/{id}");
+      span.setAttribute("http.status_code", 200);
+      assertThat(span.getAttributes())
+          .containsExactly(
+              "http.method", AttributeValue.stringAttributeValue("GET"),
+              "http.route", AttributeValue.stringAttributeValue("/users/{id}"),
+              "http.status_code", AttributeValue.longAttributeValue(200))
+          .inOrder();
+      assertThat(template.getAttributes())
+          .containsEntry("http.route", AttributeValue.stringAttributeValue("/users"));
+    } finally {
+      span.end();
+    }
+  }
+
+  @Test
+  public void spanTemplate_withBuilderAttributes() {
+    SpanTemplate template =
+        tracer.spanTemplate(
+            SPAN_NAME,
+            Kind.CLIENT,
+            Collections.singletonMap("peer.service", AttributeValue.stringAttributeValue("db")));
+    RecordEventsReadableSpan span =
+        (RecordEventsReadableSpan)
+            tracer
+                .spanBuilder(template)
+                .setSpanKind(Kind.PRODUCER)
+                .setAttributes(
+                    Collections.singletonMap(
+                        "peer.service", AttributeValue.stringAttributeValue("cache")))
+                .startSpan();
+    try {
+      assertThat(span.getKind()).isEqualTo(Kind.PRODUCER);
+      assertThat(span.getAttributes())
+          .containsExactly("peer.service", AttributeValue.stringAttributeValue("cache"));
+    } finally {
+      span.end();
+    }
+  }
+
+  @Test
+  public void spanTemplate_truncatesAttributes() {
+    tracer.updateActiveTraceConfig(
+        TraceConfig.getDefault().toBuilder().setMaxAttributeValueLength(3).build());
+    SpanTemplate template =
+        tracer.spanTemplate(
+            SPAN_NAME,
+            Kind.INTERNAL,
+            Collections.singletonMap("key", AttributeValue.stringAttributeValue("value")));
+    assertThat(template.getAttributes())
+        .containsExactly("key", AttributeValue.stringAttributeValue("val"));
+  }
+
+  @Test
+  public void spanTemplate_nullValue() {
+    thrown.expect(NullPointerException.class);
+    tracer.spanTemplate(
+        SPAN_NAME, Kind.INTERNAL, Collections.<String, AttributeValue>singletonMap("key", null));
+  }
+
   @Test
   public void truncateLink() {
     final int maxNumberOfLinks = 8;
@@ -183,6 +295,26 @@ public class SpanBuilderSdkTest {
     }
   }
 
+  @Test
+  public void sampler_UnsampledChildOfCurrentSpan() {
+    Span parent = tracer.spanBuilder(SPAN_NAME).startSpan();
+    Scope scope = tracer.withSpan(parent);
+    try {
+      Span span =
+          TestUtils.startSpanWithSampler(tracer, SPAN_NAME, Samplers.alwaysOff()).startSpan();
+      assertThat(span).isInstanceOf(DefaultSpan.class);
+      assertThat(span.getContext().getTraceFlags().isSampled()).isFalse();
+      assertThat(span.getContext().getTraceId()).isEqualTo(parent.getContext().getTraceId());
+      assertThat(span.getContext().getTracestate())
+          .isSameInstanceAs(parent.getContext().getTracestate());
+      assertThat(span.getContext().getSpanId()).isNotEqualTo(parent.getContext().getSpanId());
+      span.end();
+    } finally {
+      scope.close();
+      parent.end();
+    }
+  }
+
   @Test
   public void sampler_decisionAttributes() {
     RecordEventsReadableSpan span =
@@ -198,6 +330,7 @@ public class SpanBuilderSdkTest {
                           TraceId traceId,
                           SpanId spanId,
                           String name,
+                          Kind spanKind,
                           List<Link> parentLinks) {
                         return new Decision() {
                           @Override
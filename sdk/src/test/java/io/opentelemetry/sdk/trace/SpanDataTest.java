@@ -55,6 +55,26 @@ public class SpanDataTest {
     assertEquals(Collections.<String, AttributeValue>emptyMap(), spanData.getAttributes());
     assertEquals(emptyList(), spanData.getTimedEvents());
     assertEquals(emptyList(), spanData.getLinks());
+    assertEquals(0, spanData.getNumberOfTruncatedValues());
+  }
+
+  @Test
+  public void idsStoredAsLongs() {
+    TraceId traceId = new TraceId(1, 2);
+    SpanData spanData =
+        createBasicSpanBuilder()
+            .setTraceId(traceId)
+            .setSpanId(new SpanId(3))
+            .setParentSpanId(new SpanId(4))
+            .build();
+
+    assertEquals(1, spanData.getTraceIdHigh());
+    assertEquals(2, spanData.getTraceIdLow());
+    assertEquals(3, spanData.getSpanIdAsLong());
+    assertEquals(4, spanData.getParentSpanIdAsLong());
+    assertEquals(traceId, spanData.getTraceId());
+    assertEquals(new SpanId(3), spanData.getSpanId());
+    assertEquals(new SpanId(4), spanData.getParentSpanId());
   }
 
   @Test
@@ -83,6 +103,21 @@ public class SpanDataTest {
         .add(TimedEvent.create(1234, "foo", Collections.<String, AttributeValue>emptyMap()));
   }
 
+  @Test
+  public void build_CopiesRecyclableAttributes() {
+    AttributesMap attributes = new AttributesMap(8);
+    attributes.putString("key", "value");
+    SpanData spanData = createBasicSpanBuilder().setAttributes(attributes).buildWithoutCopy();
+
+    SpanData copy = spanData.toBuilder().build();
+    // The SDK resets the map once its span is released, to reuse it for another span.
+    attributes.reset();
+
+    assertEquals(
+        Collections.singletonMap("key", AttributeValue.stringAttributeValue("value")),
+        copy.getAttributes());
+  }
+
   private static SpanData createSpanDataWithMutableCollections() {
     return createBasicSpanBuilder()
         .setLinks(new ArrayList<Link>())
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link SpanEndBatcher}. */
+@RunWith(JUnit4.class)
+// Need to suppress warnings for MustBeClosed because Android 14 does not support
+// try-with-resources.
+@SuppressWarnings("MustBeClosedChecker")
+public class SpanEndBatcherTest {
+  // Long enough for the background thread to never flush during a test.
+  private static final long MAX_DELAY_MILLIS = 60 * 60 * 1000;
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  private final TracerSdkFactory tracerFactory = new TracerSdkFactory();
+  private final Tracer tracer = tracerFactory.get("test");
+
+  @After
+  public void tearDown() {
+    tracerFactory.shutdown();
+  }
+
+  @Test
+  public void create_NonPositiveMaxBatchSize() {
+    thrown.expect(IllegalArgumentException.class);
+    SpanEndBatcher.create(0, MAX_DELAY_MILLIS);
+  }
+
+  @Test
+  public void create_NonPositiveMaxDelay() {
+    thrown.expect(IllegalArgumentException.class);
+    SpanEndBatcher.create(1, 0);
+  }
+
+  @Test
+  public void flushedWhenFull() {
+    RecordingSpanProcessor spanProcessor = new RecordingSpanProcessor();
+    tracerFactory.addSpanProcessor(spanProcessor);
+    tracerFactory.setSpanEndBatcher(SpanEndBatcher.create(2, MAX_DELAY_MILLIS));
+
+    tracer.spanBuilder("first").startSpan().end();
+    assertThat(spanProcessor.batchSizes).isEmpty();
+    tracer.spanBuilder("second").startSpan().end();
+    tracer.spanBuilder("third").startSpan().end();
+    assertThat(spanProcessor.batchSizes).containsExactly(2);
+    assertThat(spanProcessor.endedSpanNames).containsExactly("first", "second").inOrder();
+  }
+
+  @Test
+  public void flushedWhenOutermostScopeCloses() {
+    RecordingSpanProcessor spanProcessor = new RecordingSpanProcessor();
+    tracerFactory.addSpanProcessor(spanProcessor);
+    tracerFactory.setSpanEndBatcher(SpanEndBatcher.create(100, MAX_DELAY_MILLIS));
+
+    Span parent = tracer.spanBuilder("parent").startSpan();
+    Scope parentScope = tracer.withSpan(parent);
+    try {
+      Span child = tracer.spanBuilder("child").startSpan();
+      Scope childScope = tracer.withSpan(child);
+      childScope.close();
+      child.end();
+      parent.end();
+      assertThat(spanProcessor.endedSpanNames).isEmpty();
+    } finally {
+      parentScope.close();
+    }
+    assertThat(spanProcessor.batchSizes).containsExactly(2);
+    assertThat(spanProcessor.endedSpanNames).containsExactly("child", "parent").inOrder();
+  }
+
+  @Test
+  public void flush() {
+    RecordingSpanProcessor spanProcessor = new RecordingSpanProcessor();
+    tracerFactory.addSpanProcessor(spanProcessor);
+    SpanEndBatcher spanEndBatcher = SpanEndBatcher.create(100, MAX_DELAY_MILLIS);
+    tracerFactory.setSpanEndBatcher(spanEndBatcher);
+
+    tracer.spanBuilder("span").startSpan().end();
+    spanEndBatcher.flush();
+    assertThat(spanProcessor.endedSpanNames).containsExactly("span");
+  }
+
+  @Test
+  public void flushedOnShutdown() {
+    RecordingSpanProcessor spanProcessor = new RecordingSpanProcessor();
+    tracerFactory.addSpanProcessor(spanProcessor);
+    tracerFactory.setSpanEndBatcher(SpanEndBatcher.create(100, MAX_DELAY_MILLIS));
+
+    tracer.spanBuilder("span").startSpan().end();
+    tracerFactory.shutdown();
+    assertThat(spanProcessor.endedSpanNames).containsExactly("span");
+    assertThat(spanProcessor.isShutdown).isTrue();
+  }
+
+  @Test
+  public void processorWithoutBatchSupport() {
+    final List<String> endedSpanNames = new ArrayList<>();
+    tracerFactory.addSpanProcessor(
+        new SpanProcessor() {
+          @Override
+          public void onStart(ReadableSpan span) {}
+
+          @Override
+          public void onEnd(ReadableSpan span) {
+            endedSpanNames.add(span.getName());
+          }
+
+          @Override
+          public void shutdown() {}
+        });
+    tracerFactory.setSpanEndBatcher(SpanEndBatcher.create(2, MAX_DELAY_MILLIS));
+
+    tracer.spanBuilder("first").startSpan().end();
+    tracer.spanBuilder("second").startSpan().end();
+    assertThat(endedSpanNames).containsExactly("first", "second").inOrder();
+  }
+
+  private static final class RecordingSpanProcessor implements SpanBatchProcessor {
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final List<String> endedSpanNames = new ArrayList<>();
+    private boolean isShutdown;
+
+    @Override
+    public void onStart(ReadableSpan span) {}
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+      onEndBatch(Collections.singletonList(span));
+    }
+
+    @Override
+    public void onEndBatch(List<ReadableSpan> spans) {
+      batchSizes.add(spans.size());
+      for (ReadableSpan span : spans) {
+        endedSpanNames.add(span.getName());
+      }
+    }
+
+    @Override
+    public void shutdown() {
+      isShutdown = true;
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.testing.GcFinalization;
+import io.opentelemetry.trace.SpanId;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link SpanLeakDetector}. */
+@RunWith(JUnit4.class)
+public class SpanLeakDetectorTest {
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+  private final SpanLeakDetector detector = SpanLeakDetector.create(1);
+
+  @After
+  public void tearDown() {
+    detector.shutdown();
+  }
+
+  @Test
+  public void create_NonPositiveSampleRate() {
+    thrown.expect(IllegalArgumentException.class);
+    SpanLeakDetector.create(0);
+  }
+
+  @Test
+  public void reportsOnlyNotEndedSpans() {
+    SpanLeakDetector.SpanReference ended = detector.track(new Object(), new SpanId(1), "ended");
+    assertThat(ended).isNotNull();
+    ended.untrack();
+    assertThat(detector.track(new Object(), new SpanId(2), "leaked")).isNotNull();
+    assertThat(detector.getTrackedSpans()).isEqualTo(2);
+    GcFinalization.awaitDone(
+        new GcFinalization.FinalizationPredicate() {
+          @Override
+          public boolean isDone() {
+            return detector.getLeakedSpans() == 1;
+          }
+        });
+    assertThat(detector.getLeakedSpanNames()).containsExactly("leaked");
+  }
+
+  @Test
+  public void tracksOneInSampleRateSpans() {
+    SpanLeakDetector sampledDetector = SpanLeakDetector.create(4);
+    try {
+      for (int i = 0; i < 8; i++) {
+        sampledDetector.track(new Object(), new SpanId(i), "span");
+      }
+      // SpanId#hashCode is the id itself for small ids.
+      assertThat(sampledDetector.getTrackedSpans()).isEqualTo(2);
+    } finally {
+      sampledDetector.shutdown();
+    }
+  }
+}
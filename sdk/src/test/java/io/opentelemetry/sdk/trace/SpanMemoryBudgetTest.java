@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Strings;
+import com.google.common.testing.GcFinalization;
+import io.opentelemetry.sdk.trace.config.TraceConfig;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link SpanMemoryBudget}. */
+@RunWith(JUnit4.class)
+public class SpanMemoryBudgetTest {
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  private final TracerSdkFactory tracerFactory = new TracerSdkFactory();
+  private final Tracer tracer = tracerFactory.get("test");
+  private final RetainingSpanProcessor spanProcessor = new RetainingSpanProcessor();
+
+  @Before
+  public void setUp() {
+    tracerFactory.addSpanProcessor(spanProcessor);
+  }
+
+  @Test
+  public void create_NonPositiveMaxBytes() {
+    thrown.expect(IllegalArgumentException.class);
+    SpanMemoryBudget.create(0);
+  }
+
+  @Test
+  public void newSpansNotRecordedWhenExhausted() {
+    SpanMemoryBudget memoryBudget = SpanMemoryBudget.create(SpanMemoryBudget.SPAN_BYTES);
+    tracerFactory.setSpanMemoryBudget(memoryBudget);
+    Span first = tracer.spanBuilder("first").startSpan();
+    Span second = tracer.spanBuilder("second").startSpan();
+
+    assertThat(first.isRecording()).isTrue();
+    assertThat(second.isRecording()).isFalse();
+    assertThat(second.getContext().getTraceFlags().isSampled()).isTrue();
+    assertThat(memoryBudget.getNonRecordingSpans()).isEqualTo(1);
+
+    first.end();
+    assertThat(tracer.spanBuilder("third").startSpan().isRecording()).isTrue();
+  }
+
+  @Test
+  public void dataNotRecordedWhenRunningOut() {
+    SpanMemoryBudget memoryBudget = SpanMemoryBudget.create(2048);
+    tracerFactory.setSpanMemoryBudget(memoryBudget);
+    RecordEventsReadableSpan span =
+        (RecordEventsReadableSpan) tracer.spanBuilder("span").startSpan();
+    String largeValue = Strings.repeat("a", 1000);
+    span.setAttribute("small", "value");
+    span.setAttribute("large", largeValue);
+    span.addEvent(largeValue);
+    span.setAttribute("number", 1);
+    span.addEvent("event");
+
+    assertThat(span.getAttributes().keySet()).containsExactly("small", "number");
+    assertThat(span.toSpanData().getTimedEvents()).hasSize(1);
+    assertThat(memoryBudget.getDroppedRecords()).isEqualTo(2);
+    assertThat(memoryBudget.getNonRecordingSpans()).isEqualTo(0);
+    // New spans can still be started.
+    assertThat(tracer.spanBuilder("other").startSpan().isRecording()).isTrue();
+  }
+
+  @Test
+  public void memoryGivenBackOnceReleased() {
+    SpanMemoryBudget memoryBudget = SpanMemoryBudget.create(1024 * 1024);
+    tracerFactory.setSpanMemoryBudget(memoryBudget);
+    spanProcessor.retainEndedSpans = true;
+    Span span = tracer.spanBuilder("span").startSpan();
+    span.setAttribute("key", "value");
+    long inFlightBytes = memoryBudget.getUsedBytes();
+    span.end();
+
+    // The unused part of the reserved memory is given back when the span ends.
+    long queuedBytes = memoryBudget.getUsedBytes();
+    assertThat(queuedBytes).isGreaterThan(SpanMemoryBudget.SPAN_BYTES);
+    assertThat(queuedBytes).isLessThan(inFlightBytes);
+    spanProcessor.lastEndedSpan.release();
+    assertThat(memoryBudget.getUsedBytes()).isEqualTo(0);
+  }
+
+  @Test
+  public void memoryGivenBackWhenNotRetained() {
+    SpanMemoryBudget memoryBudget = SpanMemoryBudget.create(1024 * 1024);
+    tracerFactory.setSpanMemoryBudget(memoryBudget);
+    Span span = tracer.spanBuilder("span").startSpan();
+    span.setAttribute("key", "value");
+    span.addEvent("event");
+    span.end();
+
+    assertThat(memoryBudget.getUsedBytes()).isEqualTo(0);
+  }
+
+  @Test
+  public void replacedAttributesDoNotUseMoreMemory() {
+    SpanMemoryBudget memoryBudget = SpanMemoryBudget.create(4 * SpanMemoryBudget.BLOCK_BYTES);
+    tracerFactory.setSpanMemoryBudget(memoryBudget);
+    Span span = tracer.spanBuilder("span").startSpan();
+    for (int i = 0; i < 10_000; i++) {
+      span.setAttribute("progress", i);
+      span.setAttribute("status", i % 2 == 0 ? "running" : "waiting");
+    }
+
+    assertThat(memoryBudget.getDroppedRecords()).isEqualTo(0);
+    assertThat(memoryBudget.getUsedBytes())
+        .isAtMost(SpanMemoryBudget.SPAN_BYTES + SpanMemoryBudget.BLOCK_BYTES);
+    span.end();
+    assertThat(memoryBudget.getUsedBytes()).isEqualTo(0);
+  }
+
+  @Test
+  public void evictedEventsDoNotUseMoreMemory() {
+    tracerFactory.updateActiveTraceConfig(
+        TraceConfig.getDefault().toBuilder().setMaxNumberOfEvents(4).build());
+    SpanMemoryBudget memoryBudget = SpanMemoryBudget.create(4 * SpanMemoryBudget.BLOCK_BYTES);
+    tracerFactory.setSpanMemoryBudget(memoryBudget);
+    Span span = tracer.spanBuilder("span").startSpan();
+    for (int i = 0; i < 10_000; i++) {
+      span.addEvent("event");
+    }
+
+    assertThat(memoryBudget.getDroppedRecords()).isEqualTo(0);
+    assertThat(memoryBudget.getUsedBytes())
+        .isAtMost(SpanMemoryBudget.SPAN_BYTES + SpanMemoryBudget.BLOCK_BYTES);
+    span.end();
+    assertThat(memoryBudget.getUsedBytes()).isEqualTo(0);
+  }
+
+  @Test
+  public void memoryGivenBackWhenCollectedWithoutEnd() {
+    final SpanMemoryBudget memoryBudget = SpanMemoryBudget.create(1024 * 1024);
+    tracerFactory.setSpanMemoryBudget(memoryBudget);
+    startSpanWithoutEnding();
+    assertThat(memoryBudget.getUsedBytes()).isGreaterThan(0L);
+
+    GcFinalization.awaitDone(
+        new GcFinalization.FinalizationPredicate() {
+          @Override
+          public boolean isDone() {
+            memoryBudget.releaseCollectedSpans();
+            return memoryBudget.getCollectedSpans() == 1;
+          }
+        });
+    assertThat(memoryBudget.getUsedBytes()).isEqualTo(0);
+  }
+
+  // Does not keep a reference to the span, so that it can be garbage collected.
+  private void startSpanWithoutEnding() {
+    tracer.spanBuilder("leaked").startSpan().setAttribute("key", "value");
+  }
+
+  private static final class RetainingSpanProcessor implements SpanProcessor {
+    private boolean retainEndedSpans;
+    private ReadableSpan lastEndedSpan;
+
+    @Override
+    public void onStart(ReadableSpan span) {}
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+      if (retainEndedSpans) {
+        span.retain();
+      }
+      lastEndedSpan = span;
+    }
+
+    @Override
+    public void shutdown() {}
+  }
+}
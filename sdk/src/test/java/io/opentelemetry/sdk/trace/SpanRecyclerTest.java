@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link SpanRecycler}. */
+@RunWith(JUnit4.class)
+public class SpanRecyclerTest {
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  private final TracerSdkFactory tracerFactory = new TracerSdkFactory();
+  private final Tracer tracer = tracerFactory.get("test");
+  private final RetainingSpanProcessor spanProcessor = new RetainingSpanProcessor();
+
+  @Before
+  public void setUp() {
+    tracerFactory.addSpanProcessor(spanProcessor);
+  }
+
+  @Test
+  public void create_NonPositivePoolSize() {
+    thrown.expect(IllegalArgumentException.class);
+    SpanRecycler.create(0);
+  }
+
+  @Test
+  public void storageReusedAfterRelease() {
+    tracerFactory.setSpanRecycler(SpanRecycler.create(1));
+    spanProcessor.retainEndedSpans = true;
+    Map<String, AttributeValue> firstAttributes = startAndEndSpan("first").getAttributes();
+    spanProcessor.lastEndedSpan.release();
+
+    SpanData secondSpanData = startAndEndSpan("second");
+    assertThat(secondSpanData.getAttributes()).isSameInstanceAs(firstAttributes);
+    assertThat(secondSpanData.getAttributes())
+        .containsExactly("second", AttributeValue.stringAttributeValue("value"));
+  }
+
+  @Test
+  public void storageNotReusedWhileRetained() {
+    tracerFactory.setSpanRecycler(SpanRecycler.create(1));
+    spanProcessor.retainEndedSpans = true;
+    SpanData firstSpanData = startAndEndSpan("first");
+
+    startAndEndSpan("second");
+    assertThat(firstSpanData.getAttributes())
+        .containsExactly("first", AttributeValue.stringAttributeValue("value"));
+  }
+
+  @Test
+  public void releaseChecks_SpanDataUsedAfterRelease() {
+    tracerFactory.setSpanRecycler(SpanRecycler.createWithReleaseChecks());
+    spanProcessor.retainEndedSpans = true;
+    SpanData spanData = startAndEndSpan("span");
+    assertThat(spanData.getAttributes()).hasSize(1);
+    spanProcessor.lastEndedSpan.release();
+
+    thrown.expect(IllegalStateException.class);
+    spanData.getAttributes().size();
+  }
+
+  @Test
+  public void releaseChecks_SpanUsedAfterRelease() {
+    tracerFactory.setSpanRecycler(SpanRecycler.createWithReleaseChecks());
+    startAndEndSpan("span");
+
+    thrown.expect(IllegalStateException.class);
+    spanProcessor.lastEndedSpan.toSpanData();
+  }
+
+  @Test
+  public void retainAfterRelease() {
+    tracerFactory.setSpanRecycler(SpanRecycler.create(1));
+    startAndEndSpan("span");
+
+    thrown.expect(IllegalStateException.class);
+    spanProcessor.lastEndedSpan.retain();
+  }
+
+  @Test
+  public void releaseMoreThanRetained() {
+    tracerFactory.setSpanRecycler(SpanRecycler.create(1));
+    startAndEndSpan("span");
+
+    thrown.expect(IllegalStateException.class);
+    spanProcessor.lastEndedSpan.release();
+  }
+
+  @Test
+  public void recyclingDisabled_RetainAndReleaseIgnored() {
+    SpanData spanData = startAndEndSpan("span");
+    spanProcessor.lastEndedSpan.release();
+    spanProcessor.lastEndedSpan.release();
+    assertThat(spanProcessor.lastEndedSpan.toSpanData()).isSameInstanceAs(spanData);
+  }
+
+  // Starts and ends a span with one attribute, and returns the SpanData seen by the processor.
+  private SpanData startAndEndSpan(String name) {
+    Span span = tracer.spanBuilder(name).startSpan();
+    span.setAttribute(name, "value");
+    span.end();
+    return spanProcessor.lastEndedSpanData;
+  }
+
+  private static final class RetainingSpanProcessor implements SpanProcessor {
+    private boolean retainEndedSpans;
+    private ReadableSpan lastEndedSpan;
+    private SpanData lastEndedSpanData;
+
+    @Override
+    public void onStart(ReadableSpan span) {}
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+      if (retainEndedSpans) {
+        span.retain();
+      }
+      lastEndedSpan = span;
+      lastEndedSpanData = span.toSpanData();
+    }
+
+    @Override
+    public void shutdown() {}
+  }
+}
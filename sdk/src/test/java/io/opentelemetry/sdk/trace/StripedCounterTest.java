@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link StripedCounter}. */
+@RunWith(JUnit4.class)
+public class StripedCounterTest {
+
+  @Test
+  public void sumThenReset() {
+    StripedCounter counter = new StripedCounter(4);
+    assertThat(counter.sumThenReset()).isEqualTo(0);
+    counter.increment();
+    counter.increment();
+    assertThat(counter.sumThenReset()).isEqualTo(2);
+    assertThat(counter.sumThenReset()).isEqualTo(0);
+  }
+
+  @Test
+  public void incrementFromManyThreads() throws InterruptedException {
+    final StripedCounter counter = new StripedCounter(2);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      threads.add(
+          new Thread(
+              new Runnable() {
+                @Override
+                public void run() {
+                  for (int j = 0; j < 1000; j++) {
+                    counter.increment();
+                  }
+                }
+              }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertThat(counter.sumThenReset()).isEqualTo(8000);
+  }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.TailSamplingSpanProcessor.Policy;
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Status;
+import io.opentelemetry.trace.Tracer;
+import io.opentelemetry.trace.ValueSupplier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link TailSamplingSpanProcessor}. */
+@RunWith(JUnit4.class)
+// Need to suppress warnings for MustBeClosed because Android 14 does not support
+// try-with-resources.
+@SuppressWarnings("MustBeClosedChecker")
+public class TailSamplingSpanProcessorTest {
+  // Long enough for the background thread to never make a decision during a test.
+  private static final long DECISION_WAIT_MILLIS = 60 * 60 * 1000;
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  private final TracerSdkFactory tracerFactory = new TracerSdkFactory();
+  private final Tracer tracer = tracerFactory.get("test");
+  private final RecordingSpanProcessor downstream = new RecordingSpanProcessor();
+
+  @After
+  public void tearDown() {
+    tracerFactory.shutdown();
+  }
+
+  @Test
+  public void newBuilder_NullDownstream() {
+    thrown.expect(NullPointerException.class);
+    TailSamplingSpanProcessor.newBuilder(null);
+  }
+
+  @Test
+  public void setMaxBufferedBytes_NonPositive() {
+    thrown.expect(IllegalArgumentException.class);
+    TailSamplingSpanProcessor.newBuilder(downstream).setMaxBufferedBytes(0);
+  }
+
+  @Test
+  public void setMaxDecidedTraces_Negative() {
+    thrown.expect(IllegalArgumentException.class);
+    TailSamplingSpanProcessor.newBuilder(downstream).setMaxDecidedTraces(-1);
+  }
+
+  @Test
+  public void keepsTraceWithError() {
+    addTailSamplingProcessor(Policy.anySpanWithError(), Long.MAX_VALUE);
+
+    Span root = tracer.spanBuilder("root").startSpan();
+    Scope scope = tracer.withSpan(root);
+    try {
+      Span child = tracer.spanBuilder("child").startSpan();
+      child.setStatus(Status.UNKNOWN);
+      child.end();
+      assertThat(downstream.endedSpanNames).isEmpty();
+    } finally {
+      scope.close();
+    }
+    root.end();
+    assertThat(downstream.endedSpanNames).containsExactly("child", "root").inOrder();
+  }
+
+  @Test
+  public void dropsTraceNotKeptByAnyPolicy() {
+    TailSamplingSpanProcessor processor =
+        addTailSamplingProcessor(Policy.anySpanWithError(), Long.MAX_VALUE);
+
+    Span root = tracer.spanBuilder("root").startSpan();
+    Scope scope = tracer.withSpan(root);
+    try {
+      tracer.spanBuilder("child").startSpan().end();
+    } finally {
+      scope.close();
+    }
+    root.end();
+    assertThat(downstream.endedSpanNames).isEmpty();
+    assertThat(processor.getBufferedBytes()).isEqualTo(0);
+    assertThat(processor.getDroppedTraces()).isEqualTo(0);
+  }
+
+  @Test
+  public void dropsLateSpanOfDroppedTrace() {
+    addTailSamplingProcessor(Policy.anySpanWithError(), Long.MAX_VALUE);
+
+    Span root = tracer.spanBuilder("root").startSpan();
+    Scope scope = tracer.withSpan(root);
+    Span child;
+    try {
+      child = tracer.spanBuilder("child").startSpan();
+    } finally {
+      scope.close();
+    }
+    root.end();
+    // The error of the late child does not change the decision of the trace.
+    child.setStatus(Status.UNKNOWN);
+    child.end();
+    assertThat(downstream.endedSpanNames).isEmpty();
+  }
+
+  @Test
+  public void forwardsLateSpanOfKeptTrace() {
+    TailSamplingSpanProcessor processor =
+        addTailSamplingProcessor(Policy.anySpanWithError(), Long.MAX_VALUE);
+
+    Span root = tracer.spanBuilder("root").startSpan();
+    Scope scope = tracer.withSpan(root);
+    Span child;
+    try {
+      child = tracer.spanBuilder("child").startSpan();
+    } finally {
+      scope.close();
+    }
+    root.setStatus(Status.UNKNOWN);
+    root.end();
+    assertThat(downstream.endedSpanNames).containsExactly("root");
+    child.end();
+    assertThat(downstream.endedSpanNames).containsExactly("root", "child").inOrder();
+    assertThat(processor.getBufferedBytes()).isEqualTo(0);
+  }
+
+  @Test
+  public void lateSpanOfForgottenTraceGetsItsOwnDecision() {
+    TailSamplingSpanProcessor processor =
+        TailSamplingSpanProcessor.newBuilder(downstream)
+            .addPolicy(Policy.anySpanWithError())
+            .setDecisionWaitMillis(DECISION_WAIT_MILLIS)
+            .setMaxDecidedTraces(0)
+            .build();
+    tracerFactory.addSpanProcessor(processor);
+
+    Span root = tracer.spanBuilder("root").startSpan();
+    Scope scope = tracer.withSpan(root);
+    Span child;
+    try {
+      child = tracer.spanBuilder("child").startSpan();
+    } finally {
+      scope.close();
+    }
+    root.end();
+    child.setStatus(Status.UNKNOWN);
+    child.end();
+    assertThat(downstream.endedSpanNames).containsExactly("child");
+  }
+
+  @Test
+  public void keepsSlowTrace() {
+    addTailSamplingProcessor(Policy.latencyAboveMillis(1000), Long.MAX_VALUE);
+
+    tracer.spanBuilder("fast").startSpan().end();
+    long startEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - 10_000);
+    tracer.spanBuilder("slow").setStartTimestamp(startEpochNanos).startSpan().end();
+    assertThat(downstream.endedSpanNames).containsExactly("slow");
+  }
+
+  @Test
+  public void probability() {
+    addTailSamplingProcessor(Policy.probability(0.0), Long.MAX_VALUE);
+    tracer.spanBuilder("root").startSpan().end();
+    assertThat(downstream.endedSpanNames).isEmpty();
+  }
+
+  @Test
+  public void lazyValuesNotEvaluatedForDroppedSpans() {
+    addTailSamplingProcessor(Policy.probability(0.0), Long.MAX_VALUE);
+    final AtomicInteger calls = new AtomicInteger();
+
+    Span root = tracer.spanBuilder("root").startSpan();
+    Scope scope = tracer.withSpan(root);
+    try {
+      Span child = tracer.spanBuilder("child").startSpan();
+      child.setAttribute(
+          "lazy",
+          new ValueSupplier<AttributeValue>() {
+            @Override
+            public AttributeValue get() {
+              calls.incrementAndGet();
+              return AttributeValue.stringAttributeValue("value");
+            }
+          });
+      child.end();
+    } finally {
+      scope.close();
+    }
+    assertThat(calls.get()).isEqualTo(0);
+    // The probability policy only reads the local root.
+    root.end();
+    assertThat(downstream.endedSpanNames).isEmpty();
+    assertThat(calls.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void decidesWhenLocalRootDoesNotEndInTime() {
+    TailSamplingSpanProcessor processor =
+        addTailSamplingProcessor(Policy.probability(1.0), Long.MAX_VALUE);
+
+    Span root = tracer.spanBuilder("root").startSpan();
+    Scope scope = tracer.withSpan(root);
+    try {
+      tracer.spanBuilder("child").startSpan().end();
+    } finally {
+      scope.close();
+    }
+    processor.decideExpiredTraces(System.nanoTime());
+    assertThat(downstream.endedSpanNames).isEmpty();
+    processor.decideExpiredTraces(
+        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DECISION_WAIT_MILLIS));
+    assertThat(downstream.endedSpanNames).containsExactly("child");
+    // The spans that end after the decision get the decision of their trace.
+    root.end();
+    assertThat(downstream.endedSpanNames).containsExactly("child", "root").inOrder();
+  }
+
+  @Test
+  public void dropsOldestTracesWhenFull() {
+    // Fits one trace with one ended span, but not two.
+    TailSamplingSpanProcessor processor = addTailSamplingProcessor(Policy.probability(1.0), 1000);
+
+    Span first = tracer.spanBuilder("first").startSpan();
+    Scope firstScope = tracer.withSpan(first);
+    try {
+      tracer.spanBuilder("child").startSpan().end();
+    } finally {
+      firstScope.close();
+    }
+    Span second = tracer.spanBuilder("second").setNoParent().startSpan();
+    Scope secondScope = tracer.withSpan(second);
+    try {
+      tracer.spanBuilder("child").startSpan().end();
+    } finally {
+      secondScope.close();
+    }
+    assertThat(processor.getDroppedTraces()).isEqualTo(1);
+    assertThat(processor.getDroppedSpans()).isEqualTo(1);
+    assertThat(processor.getBufferedBytes()).isAtMost(1000L);
+
+    second.end();
+    assertThat(downstream.endedSpanNames).containsExactly("child", "second").inOrder();
+    first.end();
+    assertThat(downstream.endedSpanNames).containsExactly("child", "second", "first").inOrder();
+    assertThat(processor.getBufferedBytes()).isEqualTo(0);
+  }
+
+  @Test
+  public void shutdownDecidesBufferedTraces() {
+    addTailSamplingProcessor(Policy.probability(1.0), Long.MAX_VALUE);
+
+    Span root = tracer.spanBuilder("root").startSpan();
+    Scope scope = tracer.withSpan(root);
+    try {
+      tracer.spanBuilder("child").startSpan().end();
+    } finally {
+      scope.close();
+    }
+    tracerFactory.shutdown();
+    assertThat(downstream.endedSpanNames).containsExactly("child");
+    assertThat(downstream.isShutdown).isTrue();
+  }
+
+  private TailSamplingSpanProcessor addTailSamplingProcessor(Policy policy, long maxBufferedBytes) {
+    TailSamplingSpanProcessor processor =
+        TailSamplingSpanProcessor.newBuilder(downstream)
+            .addPolicy(policy)
+            .setMaxBufferedBytes(maxBufferedBytes)
+            .setDecisionWaitMillis(DECISION_WAIT_MILLIS)
+            .build();
+    tracerFactory.addSpanProcessor(processor);
+    return processor;
+  }
+
+  private static final class RecordingSpanProcessor implements SpanBatchProcessor {
+    private final List<String> endedSpanNames = new ArrayList<>();
+    private boolean isShutdown;
+
+    @Override
+    public void onStart(ReadableSpan span) {}
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+      onEndBatch(Collections.singletonList(span));
+    }
+
+    @Override
+    public void onEndBatch(List<ReadableSpan> spans) {
+      for (ReadableSpan span : spans) {
+        endedSpanNames.add(span.getName());
+      }
+    }
+
+    @Override
+    public void shutdown() {
+      isShutdown = true;
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ThreadLocalIdsGenerator}. */
+@RunWith(JUnit4.class)
+public class ThreadLocalIdsGeneratorTest {
+  private static final int NUM_IDS = 1000;
+  private final IdsGenerator idsGenerator = ThreadLocalIdsGenerator.getInstance();
+
+  @Test
+  public void generateSpanId_ValidAndUnique() {
+    Set<SpanId> spanIds = new HashSet<>();
+    for (int i = 0; i < NUM_IDS; i++) {
+      SpanId spanId = idsGenerator.generateSpanId();
+      assertThat(spanId.isValid()).isTrue();
+      spanIds.add(spanId);
+    }
+    assertThat(spanIds).hasSize(NUM_IDS);
+  }
+
+  @Test
+  public void generateTraceId_ValidAndUnique() {
+    Set<TraceId> traceIds = new HashSet<>();
+    for (int i = 0; i < NUM_IDS; i++) {
+      TraceId traceId = idsGenerator.generateTraceId();
+      assertThat(traceId.isValid()).isTrue();
+      traceIds.add(traceId);
+    }
+    assertThat(traceIds).hasSize(NUM_IDS);
+  }
+
+  @Test
+  public void generateSpanId_UniqueAcrossThreads() throws InterruptedException {
+    final Set<SpanId> spanIds =
+        Collections.newSetFromMap(new ConcurrentHashMap<SpanId, Boolean>());
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] =
+          new Thread(
+              new Runnable() {
+                @Override
+                public void run() {
+                  for (int j = 0; j < NUM_IDS; j++) {
+                    spanIds.add(idsGenerator.generateSpanId());
+                  }
+                }
+              });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertThat(spanIds).hasSize(threads.length * NUM_IDS);
+  }
+}
@@ -21,6 +21,8 @@ import static com.google.common.truth.Truth.assertThat;
 import io.opentelemetry.sdk.trace.config.TraceConfig;
 import io.opentelemetry.trace.DefaultSpan;
 import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -67,6 +69,23 @@ public class TracerSdkFactoryTest {
     assertThat(tracerFactory.getActiveTraceConfig()).isEqualTo(newConfig);
   }
 
+  @Test
+  public void setIdsGenerator() {
+    IdsGenerator idsGenerator = Mockito.mock(IdsGenerator.class);
+    Mockito.when(idsGenerator.generateTraceId()).thenReturn(new TraceId(1, 2));
+    Mockito.when(idsGenerator.generateSpanId()).thenReturn(new SpanId(3));
+    tracerFactory.setIdsGenerator(idsGenerator);
+    Span span = tracerFactory.get("test").spanBuilder("span").startSpan();
+    assertThat(span.getContext().getTraceId()).isEqualTo(new TraceId(1, 2));
+    assertThat(span.getContext().getSpanId()).isEqualTo(new SpanId(3));
+    span.end();
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void setIdsGenerator_Null() {
+    tracerFactory.setIdsGenerator(null);
+  }
+
   @Test
   public void shutdown() {
     tracerFactory.shutdown();
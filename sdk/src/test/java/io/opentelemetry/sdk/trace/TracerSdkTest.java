@@ -17,18 +17,29 @@
 package io.opentelemetry.sdk.trace;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import io.grpc.Context;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.trace.DefaultSpan;
 import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Span.Kind;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.Status;
+import io.opentelemetry.trace.TraceFlags;
+import io.opentelemetry.trace.TraceId;
 import io.opentelemetry.trace.propagation.BinaryTraceContext;
 import io.opentelemetry.trace.propagation.HttpTraceContext;
 import io.opentelemetry.trace.unsafe.ContextUtils;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -40,6 +51,8 @@ import org.mockito.MockitoAnnotations;
 public class TracerSdkTest {
   private static final String SPAN_NAME = "span_name";
   @Mock private Span span;
+  @Mock private SpanProcessor spanProcessor;
+  @Mock private SpanBatchProcessor spanBatchProcessor;
   private final TracerSdk tracer = new TracerSdk();
 
   @Before
@@ -57,6 +70,65 @@ public class TracerSdkTest {
     assertThat(tracer.spanBuilder(SPAN_NAME)).isInstanceOf(SpanBuilderSdk.class);
   }
 
+  @Test
+  public void recordSpan() {
+    tracer.addSpanProcessor(spanProcessor);
+    SpanData spanData = completedSpanData(1);
+    tracer.recordSpan(spanData);
+
+    ArgumentCaptor<ReadableSpan> endedSpan = ArgumentCaptor.forClass(ReadableSpan.class);
+    verify(spanProcessor).onStart(any(ReadableSpan.class));
+    verify(spanProcessor).onEnd(endedSpan.capture());
+    assertThat(endedSpan.getValue().toSpanData()).isSameInstanceAs(spanData);
+    assertThat(endedSpan.getValue().getName()).isEqualTo(SPAN_NAME);
+    assertThat(endedSpan.getValue().getSpanContext().getSpanId()).isEqualTo(new SpanId(1));
+    assertThat(endedSpan.getValue().getSpanContext().getTraceFlags().isSampled()).isTrue();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void recordSpans_Batch() {
+    tracer.addSpanProcessor(spanBatchProcessor);
+    tracer.recordSpans(Arrays.asList(completedSpanData(1), completedSpanData(2)));
+
+    ArgumentCaptor<List<ReadableSpan>> endedSpans =
+        ArgumentCaptor.forClass((Class<List<ReadableSpan>>) (Class<?>) List.class);
+    verify(spanBatchProcessor).onEndBatch(endedSpans.capture());
+    verify(spanBatchProcessor, never()).onEnd(any(ReadableSpan.class));
+    assertThat(endedSpans.getValue()).hasSize(2);
+    assertThat(endedSpans.getValue().get(1).getSpanContext().getSpanId()).isEqualTo(new SpanId(2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void recordSpan_EndBeforeStart() {
+    tracer.recordSpan(completedSpanData(1, 200, 100));
+  }
+
+  @Test
+  public void recordSpan_AfterShutdown() {
+    tracer.addSpanProcessor(spanProcessor);
+    tracer.shutdown();
+    tracer.recordSpan(completedSpanData(1));
+    verify(spanProcessor, never()).onEnd(any(ReadableSpan.class));
+  }
+
+  private static SpanData completedSpanData(long spanId) {
+    return completedSpanData(spanId, 100, 200);
+  }
+
+  private static SpanData completedSpanData(long spanId, long startEpochNanos, long endEpochNanos) {
+    return SpanData.newBuilder()
+        .setTraceId(new TraceId(1, 2))
+        .setSpanIdAsLong(spanId)
+        .setTraceFlags(TraceFlags.builder().setIsSampled(true).build())
+        .setName(SPAN_NAME)
+        .setKind(Kind.INTERNAL)
+        .setStatus(Status.OK)
+        .setStartEpochNanos(startEpochNanos)
+        .setEndEpochNanos(endEpochNanos)
+        .build();
+  }
+
   @Test
   public void defaultHttpTextFormat() {
     assertThat(tracer.getHttpTextFormat()).isInstanceOf(HttpTraceContext.class);
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.trace.AttributeValue;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link Truncation}. */
+@RunWith(JUnit4.class)
+public class TruncationTest {
+
+  @Test
+  public void truncateString() {
+    String value = "value";
+    assertThat(Truncation.truncate(value, 5)).isSameInstanceAs(value);
+    assertThat(Truncation.truncate(value, 3)).isEqualTo("val");
+    assertThat(Truncation.truncate("ab😀", 3)).isEqualTo("ab");
+  }
+
+  @Test
+  public void truncateAttributeValue() {
+    AttributeValue longValue = AttributeValue.longAttributeValue(123456);
+    assertThat(Truncation.truncate(longValue, 1)).isSameInstanceAs(longValue);
+    assertThat(Truncation.truncate(AttributeValue.stringAttributeValue("value"), 2))
+        .isEqualTo(AttributeValue.stringAttributeValue("va"));
+  }
+
+  @Test
+  public void truncateAttributes() {
+    Map<String, AttributeValue> attributes = new LinkedHashMap<>();
+    attributes.put("short", AttributeValue.stringAttributeValue("ab"));
+    attributes.put("long", AttributeValue.stringAttributeValue("abcdef"));
+    attributes.put("boolean", AttributeValue.booleanAttributeValue(true));
+
+    assertThat(Truncation.countTooLong(attributes, 3)).isEqualTo(1);
+    assertThat(Truncation.countTooLong(attributes, Integer.MAX_VALUE)).isEqualTo(0);
+    assertThat(Truncation.truncate(attributes, 3))
+        .containsExactly(
+            "short", AttributeValue.stringAttributeValue("ab"),
+            "long", AttributeValue.stringAttributeValue("abc"),
+            "boolean", AttributeValue.booleanAttributeValue(true))
+        .inOrder();
+  }
+}
@@ -38,6 +38,8 @@ public class TraceConfigTest {
     assertThat(TraceConfig.getDefault().getMaxNumberOfLinks()).isEqualTo(32);
     assertThat(TraceConfig.getDefault().getMaxNumberOfAttributesPerEvent()).isEqualTo(32);
     assertThat(TraceConfig.getDefault().getMaxNumberOfAttributesPerLink()).isEqualTo(32);
+    assertThat(TraceConfig.getDefault().getMaxAttributeValueLength()).isEqualTo(Integer.MAX_VALUE);
+    assertThat(TraceConfig.getDefault().getMaxEventNameLength()).isEqualTo(Integer.MAX_VALUE);
   }
 
   @Test
@@ -76,6 +78,18 @@ public class TraceConfigTest {
     TraceConfig.getDefault().toBuilder().setMaxNumberOfAttributesPerLink(0).build();
   }
 
+  @Test
+  public void updateTraceConfig_NonPositiveMaxAttributeValueLength() {
+    thrown.expect(IllegalArgumentException.class);
+    TraceConfig.getDefault().toBuilder().setMaxAttributeValueLength(0).build();
+  }
+
+  @Test
+  public void updateTraceConfig_NonPositiveMaxEventNameLength() {
+    thrown.expect(IllegalArgumentException.class);
+    TraceConfig.getDefault().toBuilder().setMaxEventNameLength(0).build();
+  }
+
   @Test
   public void updateTraceConfig_All() {
     TraceConfig traceConfig =
@@ -87,6 +101,8 @@ public class TraceConfigTest {
             .setMaxNumberOfLinks(11)
             .setMaxNumberOfAttributesPerEvent(1)
             .setMaxNumberOfAttributesPerLink(2)
+            .setMaxAttributeValueLength(128)
+            .setMaxEventNameLength(64)
             .build();
     assertThat(traceConfig.getSampler()).isEqualTo(Samplers.alwaysOff());
     assertThat(traceConfig.getMaxNumberOfAttributes()).isEqualTo(8);
@@ -94,5 +110,7 @@ public class TraceConfigTest {
     assertThat(traceConfig.getMaxNumberOfLinks()).isEqualTo(11);
     assertThat(traceConfig.getMaxNumberOfAttributesPerEvent()).isEqualTo(1);
     assertThat(traceConfig.getMaxNumberOfAttributesPerLink()).isEqualTo(2);
+    assertThat(traceConfig.getMaxAttributeValueLength()).isEqualTo(128);
+    assertThat(traceConfig.getMaxEventNameLength()).isEqualTo(64);
   }
 }
@@ -119,6 +119,23 @@ public class BatchSpansProcessorTest {
             span6.toSpanData());
   }
 
+  @Test
+  public void exportBatchOfEndedSpans() {
+    BatchSpansProcessor batchSpansProcessor =
+        BatchSpansProcessor.newBuilder(waitingSpanExporter)
+            .setScheduleDelayMillis(MAX_SCHEDULE_DELAY_MILLIS)
+            .build();
+    ReadableSpan span1 = createSampledEndedSpan(SPAN_NAME_1);
+    ReadableSpan span2 = createSampledEndedSpan(SPAN_NAME_2);
+    try {
+      batchSpansProcessor.onEndBatch(Arrays.asList(span1, span2));
+      List<SpanData> exported = waitingSpanExporter.waitForExport(2);
+      assertThat(exported).containsExactly(span1.toSpanData(), span2.toSpanData());
+    } finally {
+      batchSpansProcessor.shutdown();
+    }
+  }
+
   @Test
   public void exportSpansToMultipleServices() {
     WaitingSpanExporter waitingSpanExporter2 = new WaitingSpanExporter();
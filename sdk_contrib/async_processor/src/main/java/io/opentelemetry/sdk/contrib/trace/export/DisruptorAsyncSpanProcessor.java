@@ -51,6 +51,8 @@ public final class DisruptorAsyncSpanProcessor implements SpanProcessor {
 
   @Override
   public void onEnd(ReadableSpan span) {
+    // The span is processed after onEnd returns, keep it until then. The queue releases it.
+    span.retain();
     disruptorEventQueue.enqueue(span, EventType.ON_END);
   }
 
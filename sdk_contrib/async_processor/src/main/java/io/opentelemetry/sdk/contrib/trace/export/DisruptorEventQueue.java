@@ -91,12 +91,14 @@ final class DisruptorEventQueue {
     this.blocking = blocking;
   }
 
-  // Enqueues an event on the {@link DisruptorEventQueue}.
+  // Enqueues an event on the {@link DisruptorEventQueue}. The span of an ON_END event must be
+  // retained by the caller, it is released once processed or if it is not enqueued.
   void enqueue(ReadableSpan readableSpan, EventType eventType) {
     if (isShutdown) {
       if (!loggedShutdownMessage.getAndSet(true)) {
         logger.info("Attempted to enqueue entry after Disruptor shutdown.");
       }
+      releaseIfEnded(readableSpan, eventType);
       return;
     }
 
@@ -104,7 +106,15 @@ final class DisruptorEventQueue {
       ringBuffer.publishEvent(TRANSLATOR_TWO_ARG, readableSpan, eventType);
     } else {
       // TODO: Record metrics if element not added.
-      ringBuffer.tryPublishEvent(TRANSLATOR_TWO_ARG, readableSpan, eventType);
+      if (!ringBuffer.tryPublishEvent(TRANSLATOR_TWO_ARG, readableSpan, eventType)) {
+        releaseIfEnded(readableSpan, eventType);
+      }
+    }
+  }
+
+  private static void releaseIfEnded(@Nullable ReadableSpan readableSpan, EventType eventType) {
+    if (eventType == EventType.ON_END && readableSpan != null) {
+      readableSpan.release();
     }
   }
 
@@ -174,7 +184,11 @@ final class DisruptorEventQueue {
             spanProcessor.onStart(readableSpan);
             break;
           case ON_END:
-            spanProcessor.onEnd(readableSpan);
+            try {
+              spanProcessor.onEnd(readableSpan);
+            } finally {
+              releaseIfEnded(readableSpan, eventType);
+            }
             break;
           case ON_SHUTDOWN:
             spanProcessor.shutdown();